@@ -0,0 +1,47 @@
+package com.tonyghouse.socialraven.benchmark;
+
+import com.clerk.backend_api.helpers.security.models.SessionAuthObjectV2;
+import org.springframework.objenesis.ObjenesisStd;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Clerk sessions and tokens for benchmarks that must not call Clerk.
+ */
+public final class BenchmarkFixtures {
+
+    /** 2100-01-01T00:00:00Z, so cached sessions never expire during a run. */
+    private static final long FAR_FUTURE_EXP = 4102444800L;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * A verified session for the user. SessionAuthObjectV2 is normally built by Clerk from
+     * verified claims, so it is instantiated bare and only the subject is filled in, which is
+     * all SecurityContextUtil reads.
+     */
+    public static SessionAuthObjectV2 session(String userId) {
+        SessionAuthObjectV2 session = new ObjenesisStd().newInstance(SessionAuthObjectV2.class);
+        ReflectionTestUtils.setField(session, "sub", userId);
+        return session;
+    }
+
+    /**
+     * A JWT-shaped session token carrying the user and a far-future exp. It is not signed:
+     * only VerifiedSessionCache (which reads exp unverified) and the stubbed verifier see it.
+     */
+    public static String token(String userId) {
+        String header = "{\"alg\":\"RS256\",\"kid\":\"bench\",\"typ\":\"JWT\"}";
+        String payload = "{\"sub\":\"" + userId + "\",\"sid\":\"sess_" + userId + "\",\"exp\":" + FAR_FUTURE_EXP + "}";
+        return encode(header) + "." + encode(payload) + "." + encode("bench-signature");
+    }
+
+    private static String encode(String json) {
+        return ENCODER.encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,98 @@
+package com.tonyghouse.socialraven.benchmark;
+
+import com.tonyghouse.socialraven.cache.VerifiedSessionCache;
+import com.tonyghouse.socialraven.config.ClerkAuthHelper;
+import com.tonyghouse.socialraven.config.ClerkAuthenticationFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of ClerkAuthenticationFilter on its steady-state path: the session token is
+ * already in VerifiedSessionCache, so the filter reads the token through ClerkRequestHeaders,
+ * hashes it for the cache lookup and installs the authentication. Clerk itself is never called.
+ *
+ * Run with "-prof gc" for gc.alloc.rate.norm (bytes per request).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClerkAuthenticationFilterBenchmark {
+
+    private ClerkAuthenticationFilter filter;
+    private MockHttpServletRequest bearerRequest;
+    private MockHttpServletRequest cookieRequest;
+    private MockHttpServletResponse response;
+    private FilterChain chain;
+    private Authentication authenticated;
+
+    @Setup
+    public void setUp() {
+        VerifiedSessionCache verifiedSessionCache = new VerifiedSessionCache();
+        ReflectionTestUtils.setField(verifiedSessionCache, "maxSize", 10_000L);
+        ReflectionTestUtils.setField(verifiedSessionCache, "maxTtlSeconds", 300L);
+        ReflectionTestUtils.setField(verifiedSessionCache, "meterRegistry", new SimpleMeterRegistry());
+        verifiedSessionCache.init();
+
+        String token = BenchmarkFixtures.token("user_bench");
+        verifiedSessionCache.put(token, BenchmarkFixtures.session("user_bench"));
+
+        // Only the cache-hit path of authenticate() runs, so the Clerk options are never built
+        ClerkAuthHelper clerkAuthHelper = new ClerkAuthHelper();
+        ReflectionTestUtils.setField(clerkAuthHelper, "verifiedSessionCache", verifiedSessionCache);
+
+        filter = new ClerkAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "clerkAuthHelper", clerkAuthHelper);
+
+        bearerRequest = new MockHttpServletRequest("GET", "/posts");
+        bearerRequest.addHeader("authorization", "Bearer " + token);
+        bearerRequest.addHeader("x-workspace-id", "ws_bench");
+        bearerRequest.addHeader("accept", "application/json");
+
+        cookieRequest = new MockHttpServletRequest("GET", "/posts");
+        cookieRequest.addHeader("cookie", "__client_uat=1714300000; __session=" + token);
+        cookieRequest.addHeader("x-workspace-id", "ws_bench");
+        cookieRequest.addHeader("accept", "application/json");
+
+        response = new MockHttpServletResponse();
+        chain = (req, res) -> authenticated = SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Benchmark
+    public Authentication bearerToken() throws Exception {
+        return run(bearerRequest);
+    }
+
+    @Benchmark
+    public Authentication sessionCookie() throws Exception {
+        return run(cookieRequest);
+    }
+
+    private Authentication run(MockHttpServletRequest request) throws Exception {
+        try {
+            filter.doFilter(request, response, chain);
+            return authenticated;
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.tonyghouse.socialraven.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tonyghouse.socialraven.dto.SocialRavenError;
+import com.tonyghouse.socialraven.exception.ErrorLogSampler;
+import com.tonyghouse.socialraven.exception.GlobalExceptionHandler;
+import com.tonyghouse.socialraven.exception.SocialRavenException;
+import com.tonyghouse.socialraven.exception.StacklessSocialRavenException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of an error response from exception to JSON bytes: creating the exception,
+ * GlobalExceptionHandler (status mapping, error counter, sampled logging) and serializing the
+ * SocialRavenError body with a Jackson setup like Spring Boot's (ISO-8601 Instant).
+ *
+ * stackWithTrace uses the plain SocialRavenException; in a real request the stack is around
+ * 150 frames deep, so its gap to stackless is larger in production than here.
+ * Logging is sampled, so after the first few lines per code the handler only counts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ErrorResponseBenchmark {
+
+    private GlobalExceptionHandler handler;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        ErrorLogSampler errorLogSampler = new ErrorLogSampler();
+        ReflectionTestUtils.setField(errorLogSampler, "maxPerWindow", 10);
+        ReflectionTestUtils.setField(errorLogSampler, "windowSeconds", 60L);
+
+        handler = new GlobalExceptionHandler();
+        ReflectionTestUtils.setField(handler, "errorLogSampler", errorLogSampler);
+        ReflectionTestUtils.setField(handler, "meterRegistry", new SimpleMeterRegistry());
+
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    @Benchmark
+    public byte[] stackless() throws Exception {
+        return serialize(handler.handleSocialRavenException(
+                new StacklessSocialRavenException("Insufficient role", HttpStatus.FORBIDDEN)));
+    }
+
+    @Benchmark
+    public byte[] stackWithTrace() throws Exception {
+        return serialize(handler.handleSocialRavenException(
+                new SocialRavenException("Insufficient role", HttpStatus.FORBIDDEN)));
+    }
+
+    @Benchmark
+    public byte[] symbolicCode() throws Exception {
+        return serialize(handler.handleSocialRavenException(
+                new StacklessSocialRavenException("This link has expired", "LINK_EXPIRED")));
+    }
+
+    @Benchmark
+    public byte[] unhandled() throws Exception {
+        return serialize(handler.handleAnyException(new IllegalStateException("Unexpected state")));
+    }
+
+    private byte[] serialize(ResponseEntity<SocialRavenError> response) throws Exception {
+        return objectMapper.writeValueAsBytes(response.getBody());
+    }
+}
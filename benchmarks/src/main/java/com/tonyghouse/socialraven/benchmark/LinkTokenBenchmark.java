@@ -0,0 +1,87 @@
+package com.tonyghouse.socialraven.benchmark;
+
+import com.tonyghouse.socialraven.exception.SocialRavenException;
+import com.tonyghouse.socialraven.linktoken.LinkTokenCodec;
+import com.tonyghouse.socialraven.linktoken.LinkTokenType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sign and verify throughput of public link tokens: LinkTokenCodec (clones of an initialised
+ * Mac) against creating and initialising a Mac per call, plus the rejection of a tampered token.
+ * Runs on 4 threads sharing one codec.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class LinkTokenBenchmark {
+
+    private static final String SECRET = "bench-review-link-secret";
+
+    private LinkTokenCodec codec;
+    private String token;
+    private String tamperedToken;
+    private long now;
+    private long expiresAt;
+    private SecretKeySpec keySpec;
+
+    @Setup
+    public void setUp() {
+        codec = new LinkTokenCodec(LinkTokenType.REVIEW, "2", Map.of("1", "bench-old-secret", "2", SECRET));
+        now = System.currentTimeMillis() / 1000;
+        expiresAt = now + TimeUnit.DAYS.toSeconds(7);
+        token = codec.sign("ws_2b7f1c9d4e", "review_8f3a2c71d0e94b6a", expiresAt, 0x5eed5eed5eedL);
+        char last = token.charAt(token.length() - 2);
+        tamperedToken = token.substring(0, token.length() - 2) + (last == 'A' ? 'B' : 'A') + token.charAt(token.length() - 1);
+        keySpec = new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    }
+
+    @Benchmark
+    public String sign() {
+        return codec.sign("ws_2b7f1c9d4e", "review_8f3a2c71d0e94b6a", expiresAt, 0x5eed5eed5eedL);
+    }
+
+    @Benchmark
+    public Object verify() {
+        return codec.verify(token, now);
+    }
+
+    @Benchmark
+    public void verifyTampered(Blackhole bh) {
+        try {
+            bh.consume(codec.verify(tamperedToken, now));
+        } catch (SocialRavenException e) {
+            bh.consume(e);
+        }
+    }
+
+    /**
+     * Baseline: what a naive verifier pays for Mac.getInstance + init on every request.
+     */
+    @Benchmark
+    public byte[] macPerCall() throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(keySpec);
+        return mac.doFinal(token.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,126 @@
+package com.tonyghouse.socialraven.benchmark;
+
+import com.tonyghouse.socialraven.annotation.RequiresRole;
+import com.tonyghouse.socialraven.aspect.WorkspaceRoleAspect;
+import com.tonyghouse.socialraven.constant.WorkspaceRole;
+import com.tonyghouse.socialraven.exception.SocialRavenException;
+import com.tonyghouse.socialraven.interceptor.WorkspaceRoleInterceptor;
+import com.tonyghouse.socialraven.util.WorkspaceContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call cost of @RequiresRole enforcement: the Spring AOP advice (proxy + @Before) versus
+ * WorkspaceRoleInterceptor's precomputed lookup, for both the allow and the deny path.
+ * The legacy deny path (new exception + message concatenation + stack trace) is kept as a baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoleCheckBenchmark {
+
+    public static class GuardedHandlers {
+
+        @RequiresRole(WorkspaceRole.EDITOR)
+        public int schedulePost() {
+            return 1;
+        }
+
+        @RequiresRole(WorkspaceRole.OWNER)
+        public int deleteWorkspace() {
+            return 2;
+        }
+    }
+
+    private GuardedHandlers proxied;
+    private WorkspaceRoleInterceptor interceptor;
+    private HandlerMethod editorHandler;
+    private HandlerMethod ownerHandler;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() throws Exception {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new GuardedHandlers());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new WorkspaceRoleAspect());
+        proxied = factory.getProxy();
+
+        GuardedHandlers handlers = new GuardedHandlers();
+        interceptor = new WorkspaceRoleInterceptor();
+        editorHandler = new HandlerMethod(handlers, GuardedHandlers.class.getMethod("schedulePost"));
+        ownerHandler = new HandlerMethod(handlers, GuardedHandlers.class.getMethod("deleteWorkspace"));
+        request = new MockHttpServletRequest("POST", "/posts/schedule");
+        response = new MockHttpServletResponse();
+
+        WorkspaceContext.set("ws_bench", WorkspaceRole.EDITOR);
+    }
+
+    @TearDown
+    public void tearDown() {
+        WorkspaceContext.clear();
+    }
+
+    @Benchmark
+    public int aspectAllow() {
+        return proxied.schedulePost();
+    }
+
+    @Benchmark
+    public boolean interceptorAllow() {
+        return interceptor.preHandle(request, response, editorHandler);
+    }
+
+    @Benchmark
+    public void aspectDeny(Blackhole bh) {
+        try {
+            bh.consume(proxied.deleteWorkspace());
+        } catch (SocialRavenException e) {
+            bh.consume(e);
+        }
+    }
+
+    @Benchmark
+    public void interceptorDeny(Blackhole bh) {
+        try {
+            bh.consume(interceptor.preHandle(request, response, ownerHandler));
+        } catch (SocialRavenException e) {
+            bh.consume(e);
+        }
+    }
+
+    @Benchmark
+    public void legacyDeny(Blackhole bh) {
+        WorkspaceRole callerRole = WorkspaceContext.getRole();
+        try {
+            if (callerRole == null || !callerRole.isAtLeast(WorkspaceRole.OWNER)) {
+                throw new SocialRavenException(
+                        "Insufficient role — requires " + WorkspaceRole.OWNER + " or higher",
+                        HttpStatus.FORBIDDEN
+                );
+            }
+        } catch (SocialRavenException e) {
+            bh.consume(e);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.tonyghouse.socialraven.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tonyghouse.socialraven.cache.RedisCacheClient;
+import com.tonyghouse.socialraven.cache.RedisScript;
+import com.tonyghouse.socialraven.cache.WorkspaceRoleCache;
+import com.tonyghouse.socialraven.cache.invalidation.CacheInvalidationBus;
+import com.tonyghouse.socialraven.config.WorkspaceAccessFilter;
+import com.tonyghouse.socialraven.constant.WorkspaceRole;
+import com.tonyghouse.socialraven.model.ClerkAuthenticationToken;
+import com.tonyghouse.socialraven.repository.WorkspaceMemberRoleRepository;
+import com.tonyghouse.socialraven.util.WorkspaceContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of WorkspaceAccessFilter with the role already in WorkspaceRoleCache's L1:
+ * a member passing through (role bound to WorkspaceContext for the chain), a cached non-member
+ * rejected with 403, and a public path the filter skips.
+ *
+ * Redis and the database are in-memory stand-ins that are only consulted to warm the L1.
+ * Run with "-prof gc" for gc.alloc.rate.norm (bytes per request).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorkspaceAccessFilterBenchmark {
+
+    private static final String USER_ID = "user_bench";
+
+    private WorkspaceAccessFilter filter;
+    private MockHttpServletRequest memberRequest;
+    private MockHttpServletRequest nonMemberRequest;
+    private MockHttpServletRequest publicRequest;
+    private MockHttpServletResponse response;
+    private FilterChain chain;
+    private WorkspaceRole resolvedRole;
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CacheInvalidationBus cacheInvalidationBus = new CacheInvalidationBus();
+        ReflectionTestUtils.setField(cacheInvalidationBus, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(cacheInvalidationBus, "meterRegistry", meterRegistry);
+
+        WorkspaceRoleCache workspaceRoleCache = new WorkspaceRoleCache();
+        ReflectionTestUtils.setField(workspaceRoleCache, "l2TtlSeconds", 300L);
+        ReflectionTestUtils.setField(workspaceRoleCache, "l1TtlSeconds", 3600L);
+        ReflectionTestUtils.setField(workspaceRoleCache, "negativeTtlSeconds", 3600L);
+        ReflectionTestUtils.setField(workspaceRoleCache, "l1MaxSize", 20_000L);
+        ReflectionTestUtils.setField(workspaceRoleCache, "redisCacheClient", new MissingRedis());
+        ReflectionTestUtils.setField(workspaceRoleCache, "workspaceMemberRoleRepository", new Members());
+        ReflectionTestUtils.setField(workspaceRoleCache, "cacheInvalidationBus", cacheInvalidationBus);
+        ReflectionTestUtils.setField(workspaceRoleCache, "meterRegistry", meterRegistry);
+        workspaceRoleCache.init();
+
+        filter = new WorkspaceAccessFilter();
+        ReflectionTestUtils.setField(filter, "workspaceRoleCache", workspaceRoleCache);
+
+        memberRequest = request("/posts", "ws_member");
+        nonMemberRequest = request("/posts", "ws_other");
+        publicRequest = request("/public/health", null);
+        response = new MockHttpServletResponse();
+        chain = (req, res) -> resolvedRole = WorkspaceContext.getRole();
+
+        SecurityContextHolder.getContext().setAuthentication(new ClerkAuthenticationToken(
+                BenchmarkFixtures.session(USER_ID), List.of(new SimpleGrantedAuthority("USER"))));
+        // Fill the L1 for both workspaces
+        workspaceRoleCache.getRole(USER_ID, "ws_member");
+        workspaceRoleCache.getRole(USER_ID, "ws_other");
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public WorkspaceRole member() throws Exception {
+        filter.doFilter(memberRequest, response, chain);
+        return resolvedRole;
+    }
+
+    @Benchmark
+    public int nonMember() throws Exception {
+        filter.doFilter(nonMemberRequest, response, chain);
+        return response.getStatus();
+    }
+
+    @Benchmark
+    public WorkspaceRole publicPath() throws Exception {
+        filter.doFilter(publicRequest, response, chain);
+        return resolvedRole;
+    }
+
+    private static MockHttpServletRequest request(String path, String workspaceId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        if (workspaceId != null) {
+            request.addHeader("X-Workspace-Id", workspaceId);
+        }
+        return request;
+    }
+
+    /** L2 stand-in: always a miss, writes are dropped. */
+    private static final class MissingRedis extends RedisCacheClient {
+        @Override
+        public String get(String key) {
+            return null;
+        }
+
+        @Override
+        public List<String> getAll(List<String> keys) {
+            return Collections.nCopies(keys.size(), null);
+        }
+
+        @Override
+        public Object eval(RedisScript script, List<String> keys, List<String> args) {
+            return null;
+        }
+    }
+
+    /** The user is an editor of ws_member and nothing else. */
+    private static final class Members extends WorkspaceMemberRoleRepository {
+        @Override
+        public WorkspaceRole findRole(String userId, String workspaceId) {
+            return "ws_member".equals(workspaceId) ? WorkspaceRole.EDITOR : null;
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package com.tonyghouse.socialraven.benchmark.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.tonyghouse.socialraven.SocialRavenApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process end-to-end load test of the request pipeline. Boots the whole application on a
+ * random port against an in-memory H2 database and StubClerkAuthHelper, seeds workspace
+ * members, then drives each scenario with closed-loop HTTP clients and writes a JSON report.
+ *
+ * Background workers (job scheduler, outbox relay, email dispatch) and inbound rate limiting
+ * are switched off through their enabled properties, and cache invalidation and the outbox use
+ * their in-process transports. Redis and RabbitMQ are optional: without them the caches run on
+ * their L1 tier and the broker is never contacted.
+ *
+ * Per scenario the report holds throughput, latency percentiles (microseconds), status counts
+ * and allocation per request: bytes allocated by Tomcat's request threads, and by the whole JVM
+ * including the load clients.
+ *
+ *   java -cp benchmarks/target/benchmarks.jar com.tonyghouse.socialraven.benchmark.load.LoadHarness \
+ *       --concurrency=16 --duration-seconds=30 --output=load-results.json
+ *
+ * Options: concurrency (16), users (100), warmup-seconds (10), duration-seconds (30),
+ * scenarios (all), label (current git commit), output (load-results.json). Any other
+ * --key=value argument is passed to Spring, e.g. --spring.threads.virtual.enabled=true.
+ */
+public final class LoadHarness {
+
+    static final String PROFILE = "load-harness";
+
+    private static final String WORKSPACE_ID = "ws_load";
+    private static final String OTHER_WORKSPACE_ID = "ws_other";
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private LoadHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>(Map.of(
+                "concurrency", "16",
+                "users", "100",
+                "warmup-seconds", "10",
+                "duration-seconds", "30",
+                "scenarios", "",
+                "output", "load-results.json"));
+        Map<String, String> springArgs = springOverrides();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --key=value, got " + arg);
+            }
+            String key = arg.substring(2, separator);
+            String value = arg.substring(separator + 1);
+            if (options.containsKey(key) || "label".equals(key)) {
+                options.put(key, value);
+            } else {
+                springArgs.put(key, value);
+            }
+        }
+        int concurrency = Integer.parseInt(options.get("concurrency"));
+        int users = Integer.parseInt(options.get("users"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.get("warmup-seconds")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.get("duration-seconds")));
+        List<String> selected = options.get("scenarios").isBlank()
+                ? List.of() : Arrays.asList(options.get("scenarios").split(","));
+        String label = options.containsKey("label") ? options.get("label") : gitCommit();
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(SocialRavenApplication.class)
+                .profiles(PROFILE)
+                .properties(placeholders())
+                .run(springArgs.entrySet().stream().map(e -> "--" + e.getKey() + "=" + e.getValue()).toArray(String[]::new));
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            List<String> tokens = seed(context, users);
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+
+            List<ScenarioResult> results = new ArrayList<>();
+            for (Scenario scenario : scenarios("http://localhost:" + port, tokens)) {
+                if (!selected.isEmpty() && !selected.contains(scenario.name())) {
+                    continue;
+                }
+                System.out.printf("%s: warming up for %ds%n", scenario.name(), warmup.toSeconds());
+                run(client, scenario, concurrency, warmup);
+                ScenarioResult result = run(client, scenario, concurrency, duration);
+                System.out.printf("%s: %.0f req/s, p50 %.0f us, p99 %.0f us, %d B/req on request threads%n",
+                        result.name(), result.throughputPerSecond(), result.latencyMicros().get("p50"),
+                        result.latencyMicros().get("p99"), result.serverBytesPerRequest());
+                results.add(result);
+            }
+
+            LoadReport report = new LoadReport(label, Instant.now(), Runtime.version().toString(),
+                    Runtime.getRuntime().availableProcessors(), concurrency, users,
+                    warmup.toSeconds(), duration.toSeconds(), results);
+            ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build()
+                    .enable(SerializationFeature.INDENT_OUTPUT);
+            Path output = Path.of(options.get("output"));
+            objectMapper.writeValue(output.toFile(), report);
+            System.out.println("Wrote " + output.toAbsolutePath());
+        } finally {
+            context.close();
+        }
+    }
+
+    private static List<Scenario> scenarios(String baseUrl, List<String> tokens) {
+        return List.of(
+                new Scenario("public-liveness", "GET", "/public/health/live",
+                        List.of(get(baseUrl + "/public/health/live", null, null))),
+                new Scenario("authenticated-read", "GET", "/load-harness/workspace",
+                        tokens.stream().map(token -> get(baseUrl + "/load-harness/workspace", token, WORKSPACE_ID)).toList()),
+                new Scenario("role-denied", "POST", "/load-harness/workspace/owner-only",
+                        tokens.stream().map(token -> HttpRequest.newBuilder(URI.create(baseUrl + "/load-harness/workspace/owner-only"))
+                                .header("Authorization", "Bearer " + token)
+                                .header("X-Workspace-Id", WORKSPACE_ID)
+                                .POST(HttpRequest.BodyPublishers.noBody())
+                                .build()).toList()),
+                new Scenario("not-a-member", "GET", "/load-harness/workspace",
+                        tokens.stream().map(token -> get(baseUrl + "/load-harness/workspace", token, OTHER_WORKSPACE_ID)).toList()),
+                new Scenario("unauthenticated", "GET", "/load-harness/workspace",
+                        List.of(get(baseUrl + "/load-harness/workspace", null, WORKSPACE_ID))));
+    }
+
+    private static HttpRequest get(String url, String token, String workspaceId) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url)).header("Accept", "application/json");
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        if (workspaceId != null) {
+            builder.header("X-Workspace-Id", workspaceId);
+        }
+        return builder.GET().build();
+    }
+
+    private static ScenarioResult run(HttpClient client, Scenario scenario, int concurrency, Duration duration)
+            throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<WorkerStats>> futures = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                int offset = i;
+                futures.add(workers.submit(() -> {
+                    start.await();
+                    return drive(client, scenario.requests(), offset, System.nanoTime() + duration.toNanos());
+                }));
+            }
+
+            long serverBytesBefore = requestThreadAllocatedBytes(threads);
+            long processBytesBefore = threads.getTotalThreadAllocatedBytes();
+            long startNanos = System.nanoTime();
+            start.countDown();
+
+            WorkerStats total = new WorkerStats();
+            for (Future<WorkerStats> future : futures) {
+                total.merge(future.get());
+            }
+            double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+            long serverBytes = requestThreadAllocatedBytes(threads) - serverBytesBefore;
+            long processBytes = threads.getTotalThreadAllocatedBytes() - processBytesBefore;
+
+            long requests = total.count;
+            long[] latencies = Arrays.copyOf(total.latencies, total.count);
+            Arrays.sort(latencies);
+            return new ScenarioResult(
+                    scenario.name(), scenario.method(), scenario.path(), elapsedSeconds, requests,
+                    total.transportErrors, total.statusCounts(),
+                    requests / elapsedSeconds,
+                    latencySummary(latencies),
+                    requests == 0 ? 0 : serverBytes / requests,
+                    requests == 0 ? 0 : processBytes / requests);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private static WorkerStats drive(HttpClient client, List<HttpRequest> requests, int offset, long deadline) {
+        WorkerStats stats = new WorkerStats();
+        int next = offset;
+        while (System.nanoTime() < deadline) {
+            HttpRequest request = requests.get(next++ % requests.size());
+            long start = System.nanoTime();
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                stats.record(System.nanoTime() - start, response.statusCode());
+            } catch (IOException e) {
+                stats.transportErrors++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return stats;
+    }
+
+    private static Map<String, Double> latencySummary(long[] sortedNanos) {
+        Map<String, Double> summary = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            String key = "p" + (percentile == Math.rint(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile));
+            summary.put(key, sortedNanos.length == 0 ? 0.0
+                    : sortedNanos[(int) Math.min(sortedNanos.length - 1, Math.ceil(percentile / 100 * sortedNanos.length) - 1)] / 1e3);
+        }
+        summary.put("max", sortedNanos.length == 0 ? 0.0 : sortedNanos[sortedNanos.length - 1] / 1e3);
+        summary.put("mean", Arrays.stream(sortedNanos).average().orElse(0) / 1e3);
+        return summary;
+    }
+
+    /**
+     * Bytes allocated so far by Tomcat's request threads. Threads that exit during the run take
+     * their count with them, so keep the run shorter than the connector's idle thread timeout.
+     */
+    private static long requestThreadAllocatedBytes(com.sun.management.ThreadMXBean threads) {
+        long total = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("http-nio-")) {
+                total += Math.max(0, threads.getThreadAllocatedBytes(thread.threadId()));
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Members of WORKSPACE_ID as EDITOR, one per user, each with a token the stub verifier accepts.
+     */
+    private static List<String> seed(ConfigurableApplicationContext context, int users) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS socialraven");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS socialraven.workspace_member ("
+                + "workspace_id VARCHAR(64) NOT NULL, user_id VARCHAR(64) NOT NULL, role VARCHAR(20) NOT NULL, "
+                + "PRIMARY KEY (workspace_id, user_id))");
+        StubClerkAuthHelper clerk = context.getBean(StubClerkAuthHelper.class);
+        List<String> tokens = new ArrayList<>(users);
+        List<Object[]> members = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            String userId = "user_load_" + i;
+            members.add(new Object[]{WORKSPACE_ID, userId, "EDITOR"});
+            tokens.add(clerk.register(userId));
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO socialraven.workspace_member (workspace_id, user_id, role) VALUES (?, ?, ?)", members);
+        return tokens;
+    }
+
+    /**
+     * Command-line properties, so they win over application.properties.
+     */
+    private static Map<String, String> springOverrides() {
+        Map<String, String> overrides = new LinkedHashMap<>();
+        overrides.put("spring.datasource.url", "jdbc:h2:mem:socialraven;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        overrides.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        overrides.put("spring.datasource.username", "sa");
+        overrides.put("spring.datasource.password", "");
+        overrides.put("spring.jpa.database-platform", "org.hibernate.dialect.H2Dialect");
+        overrides.put("spring.flyway.enabled", "false");
+        overrides.put("server.port", "0");
+        overrides.put("socialraven.scheduler.enabled", "false");
+        overrides.put("socialraven.outbox.relay.enabled", "false");
+        overrides.put("socialraven.email.dispatch.enabled", "false");
+        overrides.put("socialraven.outbox.transport", "in-process");
+        overrides.put("socialraven.cache.invalidation.transport", "in-process");
+        overrides.put("socialraven.rate-limit.inbound.enabled", "false");
+        // Verification is stubbed; a jwt-key also keeps ClerkJwksKeyManager from calling Clerk
+        overrides.put("socialraven.clerk.jwt-key", PROFILE);
+        overrides.put("socialraven.health.probe-interval-ms", "60000");
+        overrides.put("socialraven.health.stale-after-ms", "600000");
+        overrides.put("logging.level.root", "WARN");
+        return overrides;
+    }
+
+    /**
+     * Values for the placeholders application.properties requires; real environment variables win.
+     */
+    private static Map<String, Object> placeholders() {
+        Map<String, Object> placeholders = new HashMap<>();
+        for (String name : List.of("POSTGRES_HOST", "POSTGRES_DB", "POSTGRES_USER", "POSTGRES_PASSWORD",
+                "CLERK_SECRET_KEY", "ADMIN_API_KEY", "RABBITMQ_USER", "RABBITMQ_PASS",
+                "RESEND_API_KEY", "ZOHO_SMTP_USERNAME", "ZOHO_SMTP_PASSWORD",
+                "LINKEDIN_CLIENT_ID", "LINKEDIN_CLIENT_SECRET", "LINKEDIN_REDIRECT_URI",
+                "X_API_KEY", "X_API_SECRET", "X_REDIRECT_URI", "X_CALLBACK_URI",
+                "YT_CLIENT_ID", "YT_CLIENT_SECRET", "YT_REDIRECT_URI",
+                "INSTAGRAM_APP_ID", "INSTAGRAM_APP_SECRET", "INSTAGRAM_REDIRECT_URI",
+                "FACEBOOK_APP_ID", "FACEBOOK_APP_SECRET", "FACEBOOK_REDIRECT_URI",
+                "THREADS_APP_ID", "THREADS_APP_SECRET", "THREADS_REDIRECT_URI",
+                "TIKTOK_CLIENT_KEY", "TIKTOK_CLIENT_SECRET", "TIKTOK_REDIRECT_URI")) {
+            placeholders.put(name, PROFILE);
+        }
+        placeholders.put("CLERK_AUTHORIZED_PARTY", "http://localhost");
+        placeholders.put("REDIS_HOST", "localhost");
+        placeholders.put("RABBITMQ_HOST", "localhost");
+        return placeholders;
+    }
+
+    private static String gitCommit() {
+        try {
+            Process git = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").redirectErrorStream(true).start();
+            try (InputStream output = git.getInputStream()) {
+                String commit = new String(output.readAllBytes(), StandardCharsets.UTF_8).trim();
+                return git.waitFor(5, TimeUnit.SECONDS) && git.exitValue() == 0 ? commit : "unknown";
+            }
+        } catch (IOException e) {
+            return "unknown";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "unknown";
+        }
+    }
+
+    private record Scenario(String name, String method, String path, List<HttpRequest> requests) {
+    }
+
+    record ScenarioResult(String name,
+                          String method,
+                          String path,
+                          double durationSeconds,
+                          long requests,
+                          long transportErrors,
+                          Map<String, Long> statusCounts,
+                          double throughputPerSecond,
+                          Map<String, Double> latencyMicros,
+                          long serverBytesPerRequest,
+                          long processBytesPerRequest) {
+    }
+
+    record LoadReport(String label,
+                      Instant finishedAt,
+                      String javaVersion,
+                      int availableProcessors,
+                      int concurrency,
+                      int users,
+                      long warmupSeconds,
+                      long durationSeconds,
+                      List<ScenarioResult> scenarios) {
+    }
+
+    /** One load client's measurements; only touched by its own thread until merged. */
+    private static final class WorkerStats {
+        private long[] latencies = new long[1 << 14];
+        private int count;
+        private long transportErrors;
+        private final Map<Integer, Long> statuses = new HashMap<>();
+
+        void record(long latencyNanos, int status) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            statuses.merge(status, 1L, Long::sum);
+        }
+
+        void merge(WorkerStats other) {
+            if (count + other.count > latencies.length) {
+                latencies = Arrays.copyOf(latencies, count + other.count);
+            }
+            System.arraycopy(other.latencies, 0, latencies, count, other.count);
+            count += other.count;
+            transportErrors += other.transportErrors;
+            other.statuses.forEach((status, n) -> statuses.merge(status, n, Long::sum));
+        }
+
+        Map<String, Long> statusCounts() {
+            Map<String, Long> counts = new TreeMap<>();
+            statuses.forEach((status, n) -> counts.put(String.valueOf(status), n));
+            return counts;
+        }
+    }
+}
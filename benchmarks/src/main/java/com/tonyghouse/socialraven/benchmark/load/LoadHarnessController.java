@@ -0,0 +1,34 @@
+package com.tonyghouse.socialraven.benchmark.load;
+
+import com.tonyghouse.socialraven.annotation.RequiresRole;
+import com.tonyghouse.socialraven.constant.WorkspaceRole;
+import com.tonyghouse.socialraven.util.WorkspaceContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Workspace-scoped endpoints that do no work of their own, so a load-harness request measures
+ * the request pipeline: security filters, @RequiresRole, MVC dispatch and JSON serialization.
+ */
+@RestController
+@RequestMapping("/load-harness")
+@Profile(LoadHarness.PROFILE)
+public class LoadHarnessController {
+
+    @RequiresRole(WorkspaceRole.EDITOR)
+    @GetMapping("/workspace")
+    public Map<String, String> workspace() {
+        return Map.of("workspaceId", WorkspaceContext.getWorkspaceId(), "role", WorkspaceContext.getRole().name());
+    }
+
+    @RequiresRole(WorkspaceRole.OWNER)
+    @PostMapping("/workspace/owner-only")
+    public Map<String, String> ownerOnly() {
+        return Map.of("workspaceId", WorkspaceContext.getWorkspaceId());
+    }
+}
@@ -0,0 +1,62 @@
+package com.tonyghouse.socialraven.benchmark.load;
+
+import com.clerk.backend_api.helpers.security.models.SessionAuthObjectV2;
+import com.tonyghouse.socialraven.benchmark.BenchmarkFixtures;
+import com.tonyghouse.socialraven.cache.VerifiedSessionCache;
+import com.tonyghouse.socialraven.config.ClerkAuthHelper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Replaces Clerk verification in the load harness. The VerifiedSessionCache lookup stays as in
+ * ClerkAuthHelper, so steady-state requests take the production path; only the cache miss,
+ * which would verify the JWT with Clerk, accepts any token issued by register().
+ */
+@Component
+@Primary
+@Profile(LoadHarness.PROFILE)
+public class StubClerkAuthHelper extends ClerkAuthHelper {
+
+    @Autowired
+    private VerifiedSessionCache verifiedSessionCache;
+
+    private final Map<String, SessionAuthObjectV2> sessionsByToken = new ConcurrentHashMap<>();
+
+    /**
+     * @return a session token for the user that this verifier accepts
+     */
+    public String register(String userId) {
+        String token = BenchmarkFixtures.token(userId);
+        sessionsByToken.put(token, BenchmarkFixtures.session(userId));
+        return token;
+    }
+
+    @Override
+    public SessionAuthObjectV2 authenticate(Map<String, List<String>> requestHeaders) {
+        String sessionToken = VerifiedSessionCache.extractSessionToken(requestHeaders);
+        if (sessionToken == null) {
+            return null;
+        }
+        SessionAuthObjectV2 cached = verifiedSessionCache.get(sessionToken);
+        if (cached != null) {
+            return cached;
+        }
+        SessionAuthObjectV2 auth = sessionsByToken.get(sessionToken);
+        if (auth != null) {
+            verifiedSessionCache.put(sessionToken, auth);
+        }
+        return auth;
+    }
+
+    @Override
+    public boolean isSignedIn(Map<String, List<String>> requestHeaders) {
+        String sessionToken = VerifiedSessionCache.extractSessionToken(requestHeaders);
+        return sessionToken != null && sessionsByToken.containsKey(sessionToken);
+    }
+}
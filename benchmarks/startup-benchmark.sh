@@ -0,0 +1,99 @@
+#!/usr/bin/env sh
+# Measures time-to-first-/public/health and resident memory of the API, per launch mode.
+#
+# Needs the same environment as a normal local run (Postgres, Redis, RabbitMQ and the env vars
+# from application.properties). Build first:
+#   mvn -Pfast-startup package -DskipTests          (the AOT mode needs the AOT-processed jar)
+#   benchmarks/startup-benchmark.sh [runs] [jar]
+#
+# Modes:
+#   baseline      java -jar
+#   lazy          java -jar with the fast-startup Spring profile
+#   aot+lazy      as lazy, plus -Dspring.aot.enabled=true
+#   cds+aot+lazy  unpacked jar with an AppCDS archive recorded on the first run
+#
+# Output: one line per run, then the median per mode. RSS is read from /proc once healthy.
+
+set -eu
+
+RUNS=${1:-5}
+JAR=${2:-target/socialraven-api-exec.jar}
+PORT=${SERVER_PORT:-8080}
+JAVA_OPTS=${JAVA_OPTS:--Xms256m -Xmx512m -XX:+UseG1GC}
+TIMEOUT_S=${STARTUP_TIMEOUT_S:-120}
+WORK_DIR=$(mktemp -d)
+trap 'rm -rf "$WORK_DIR"' EXIT
+
+now_ms() {
+    date +%s%3N
+}
+
+prepare_cds() {
+    unzip -q "$JAR" -d "$WORK_DIR/exploded"
+    {
+        printf '%s' "-cp $WORK_DIR/exploded/BOOT-INF/classes"
+        sed -n "s|^- \"\(.*\)\"$|:$WORK_DIR/exploded/\1|p" "$WORK_DIR/exploded/BOOT-INF/classpath.idx" | tr -d '\n'
+        printf '\ncom.tonyghouse.socialraven.SocialRavenApplication\n'
+    } > "$WORK_DIR/app.args"
+    # shellcheck disable=SC2086
+    java $JAVA_OPTS -XX:ArchiveClassesAtExit="$WORK_DIR/app.jsa" -Dspring.context.exit=onRefresh \
+        "@$WORK_DIR/app.args" > "$WORK_DIR/training.log" 2>&1 || true
+}
+
+# Prints "<ms to first healthy response> <rss kB>"
+measure() {
+    mode=$1
+    case "$mode" in
+        baseline)     set -- -jar "$JAR" ;;
+        lazy)         set -- -Dspring.profiles.include=fast-startup -jar "$JAR" ;;
+        aot+lazy)     set -- -Dspring.profiles.include=fast-startup -Dspring.aot.enabled=true -jar "$JAR" ;;
+        cds+aot+lazy) set -- -XX:SharedArchiveFile="$WORK_DIR/app.jsa" -Xshare:auto \
+                          -Dspring.profiles.include=fast-startup -Dspring.aot.enabled=true "@$WORK_DIR/app.args" ;;
+    esac
+
+    start=$(now_ms)
+    # shellcheck disable=SC2086
+    java $JAVA_OPTS -Dserver.port="$PORT" "$@" > "$WORK_DIR/$mode.log" 2>&1 &
+    pid=$!
+    deadline=$(( $(date +%s) + TIMEOUT_S ))
+    until curl -fs -o /dev/null "http://localhost:$PORT/public/health"; do
+        if ! kill -0 "$pid" 2>/dev/null || [ "$(date +%s)" -ge "$deadline" ]; then
+            kill "$pid" 2>/dev/null || true
+            echo "$mode did not become healthy, see $WORK_DIR/$mode.log" >&2
+            tail -20 "$WORK_DIR/$mode.log" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    elapsed=$(( $(now_ms) - start ))
+    rss=$(awk '/^VmRSS:/ { print $2 }' "/proc/$pid/status")
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    echo "$elapsed $rss"
+}
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+
+prepare_cds
+
+printf '%-14s %4s %10s %10s\n' mode run ready_ms rss_mb
+for mode in baseline lazy aot+lazy cds+aot+lazy; do
+    : > "$WORK_DIR/$mode.results"
+    run=1
+    while [ "$run" -le "$RUNS" ]; do
+        result=$(measure "$mode")
+        echo "$result" >> "$WORK_DIR/$mode.results"
+        printf '%-14s %4d %10d %10d\n' "$mode" "$run" "${result% *}" $(( ${result#* } / 1024 ))
+        run=$(( run + 1 ))
+    done
+done
+
+echo
+printf '%-14s %10s %10s\n' mode p50_ms p50_rss_mb
+for mode in baseline lazy aot+lazy cds+aot+lazy; do
+    ready=$(cut -d' ' -f1 "$WORK_DIR/$mode.results" | median)
+    rss=$(cut -d' ' -f2 "$WORK_DIR/$mode.results" | median)
+    printf '%-14s %10d %10d\n' "$mode" "$ready" $(( rss / 1024 ))
+done
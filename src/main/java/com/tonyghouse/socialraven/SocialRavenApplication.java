@@ -6,7 +6,6 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -43,11 +42,4 @@ public class SocialRavenApplication {
 		};
 	}
 
-	 
-	 
-	 @Bean
-	 public RestTemplate restTemplate() {
-		 return new RestTemplate();
-	 }
-
 }
@@ -0,0 +1,26 @@
+package com.tonyghouse.socialraven.account;
+
+import com.tonyghouse.socialraven.http.OutboundPlatform;
+import com.tonyghouse.socialraven.model.ConnectedAccountCredential;
+
+/**
+ * Per-platform access to connected-account credentials, used by ConnectedAccountCredentialCache.
+ * Implementations are Spring beans; one per platform.
+ */
+public interface ConnectedAccountTokenSource {
+
+    OutboundPlatform platform();
+
+    /**
+     * Reads the stored credential (no call to the platform). May return an expired token.
+     *
+     * @return the credential, or null if the account is not connected
+     */
+    ConnectedAccountCredential load(String accountId);
+
+    /**
+     * Exchanges the account's refresh token with the platform, persists and returns the new
+     * credential. Throws if the platform rejects the refresh (e.g. access was revoked).
+     */
+    ConnectedAccountCredential refresh(String accountId);
+}
@@ -9,7 +9,8 @@ import java.lang.annotation.Target;
 
 /**
  * Declares the minimum WorkspaceRole required to invoke a controller method.
- * Enforced by WorkspaceRoleAspect, which reads the caller's role from WorkspaceContext.
+ * Enforced by WorkspaceRoleInterceptor on controllers (WorkspaceRoleAspect on other beans),
+ * both reading the caller's role from WorkspaceContext.
  *
  * Only applies to endpoints that go through WorkspaceAccessFilter (i.e. all routes
  * that require an X-Workspace-Id header, excluding /workspaces/** and /public/**).
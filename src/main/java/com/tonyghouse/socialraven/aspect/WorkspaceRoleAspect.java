@@ -2,15 +2,17 @@ package com.tonyghouse.socialraven.aspect;
 
 import com.tonyghouse.socialraven.annotation.RequiresRole;
 import com.tonyghouse.socialraven.constant.WorkspaceRole;
-import com.tonyghouse.socialraven.exception.SocialRavenException;
 import com.tonyghouse.socialraven.util.WorkspaceContext;
+import com.tonyghouse.socialraven.util.WorkspaceRoleChecks;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
-import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 
 /**
- * Enforces @RequiresRole on controller methods.
+ * Enforces @RequiresRole on non-controller beans (e.g. services).
+ *
+ * Controllers are excluded from the pointcut, and so are not proxied: WorkspaceRoleInterceptor
+ * checks their handler methods with roles resolved once at startup.
  *
  * Reads the caller's WorkspaceRole from WorkspaceContext (populated by WorkspaceAccessFilter)
  * and throws 403 if the caller's role is below the required minimum.
@@ -19,14 +21,13 @@ import org.springframework.stereotype.Component;
 @Component
 public class WorkspaceRoleAspect {
 
-    @Before("@annotation(requiresRole)")
+    @Before("@annotation(requiresRole)"
+            + " && !@within(org.springframework.stereotype.Controller)"
+            + " && !@within(org.springframework.web.bind.annotation.RestController)")
     public void checkRole(RequiresRole requiresRole) {
-        WorkspaceRole callerRole = WorkspaceContext.getRole();
-        if (callerRole == null || !callerRole.isAtLeast(requiresRole.value())) {
-            throw new SocialRavenException(
-                    "Insufficient role — requires " + requiresRole.value() + " or higher",
-                    HttpStatus.FORBIDDEN
-            );
+        WorkspaceRole requiredRole = requiresRole.value();
+        if (!WorkspaceRoleChecks.isAllowed(WorkspaceContext.getRole(), requiredRole)) {
+            throw WorkspaceRoleChecks.forbidden(requiredRole);
         }
     }
 }
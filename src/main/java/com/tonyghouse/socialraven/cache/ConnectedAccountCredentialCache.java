@@ -0,0 +1,568 @@
+package com.tonyghouse.socialraven.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.tonyghouse.socialraven.account.ConnectedAccountTokenSource;
+import com.tonyghouse.socialraven.cache.invalidation.CacheInvalidationBus;
+import com.tonyghouse.socialraven.event.ConnectedAccountChangedEvent;
+import com.tonyghouse.socialraven.exception.StacklessSocialRavenException;
+import com.tonyghouse.socialraven.http.OutboundPlatform;
+import com.tonyghouse.socialraven.model.ConnectedAccountCredential;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Two-tier cache of connected-account access tokens, keyed by (platform, account id).
+ *
+ * L1: per-node Caffeine cache; L2: Redis, shared by all nodes. A cached token lives for
+ * success-ttl-seconds or until the token itself expires, whichever is sooner.
+ *
+ * - Refresh-ahead: once a token is within refresh-ahead-seconds of expiry, the next read
+ *   schedules a background refresh and keeps returning the current (still valid) token.
+ * - Single-flight: concurrent loads/refreshes of the same account on a node share one call, and
+ *   a short Redis lock keeps two nodes from refreshing the same account at once (platforms that
+ *   rotate refresh tokens would otherwise invalidate one of the results).
+ * - Negative caching: if the token source fails (revoked access, platform error), the failure is
+ *   cached for failure-ttl-seconds on both tiers and reads fail fast instead of calling the
+ *   platform again. A failed refresh-ahead only suppresses further refresh attempts for that
+ *   period; the current token keeps being served until it expires.
+ *
+ * L2 values are AES-GCM encrypted with encryption-key. Without a key, tokens are not written to
+ * Redis at all (only failures are), so each node loads them from the token source itself.
+ *
+ * Tokens are fetched through the ConnectedAccountTokenSource bean of each platform. Publish a
+ * ConnectedAccountChangedEvent when an account is (re)connected or disconnected.
+ */
+@Component
+@Slf4j
+public class ConnectedAccountCredentialCache {
+
+    public static final String CACHE_NAME = "connected-account";
+
+    private static final String REDIS_KEY_PREFIX = "ca-cred:";
+    private static final String REDIS_LOCK_PREFIX = "ca-cred-lock:";
+    private static final char BUS_KEY_SEPARATOR = '|';
+
+    // Only the node that took the lock may release it: after a long refresh the lock may have
+    // expired and been taken by another node
+    private static final RedisScript RELEASE_LOCK_SCRIPT = new RedisScript("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """);
+
+    @Value("${socialraven.connected-account.cache.success-ttl-seconds:43200}")
+    private long successTtlSeconds;
+
+    @Value("${socialraven.connected-account.cache.failure-ttl-seconds:300}")
+    private long failureTtlSeconds;
+
+    @Value("${socialraven.connected-account.cache.refresh-ahead-seconds:600}")
+    private long refreshAheadSeconds;
+
+    @Value("${socialraven.connected-account.cache.refresh-lock-ms:30000}")
+    private long refreshLockMs;
+
+    @Value("${socialraven.connected-account.cache.refresh-wait-ms:3000}")
+    private long refreshWaitMs;
+
+    @Value("${socialraven.connected-account.cache.refresh-threads:4}")
+    private int refreshThreads;
+
+    @Value("${socialraven.connected-account.cache.l1-max-size:10000}")
+    private long l1MaxSize;
+
+    @Value("${socialraven.connected-account.cache.encryption-key:}")
+    private String encryptionKey;
+
+    @Autowired
+    private RedisCacheClient redisCacheClient;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired(required = false)
+    private List<ConnectedAccountTokenSource> tokenSources = List.of();
+
+    private final Map<OutboundPlatform, ConnectedAccountTokenSource> sourcesByPlatform = new EnumMap<>(OutboundPlatform.class);
+    private final Map<Key, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+    private final Set<Key> refreshQueued = ConcurrentHashMap.newKeySet();
+
+    private Cache<Key, Entry> l1;
+    private ThreadPoolExecutor refreshExecutor;
+    private CredentialCipher cipher;
+
+    @PostConstruct
+    public void init() {
+        for (ConnectedAccountTokenSource source : tokenSources) {
+            sourcesByPlatform.put(source.platform(), source);
+        }
+        if (encryptionKey.isBlank()) {
+            log.info("No connected-account cache encryption key set; access tokens are cached per node only");
+        } else {
+            cipher = new CredentialCipher(encryptionKey);
+        }
+
+        this.l1 = Caffeine.newBuilder()
+                .maximumSize(l1MaxSize)
+                .expireAfter(new Expiry<Key, Entry>() {
+                    @Override
+                    public long expireAfterCreate(Key key, Entry entry, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, entry.cachedUntil() - System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Key key, Entry entry, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Key key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, l1, CACHE_NAME);
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        refreshExecutor = new ThreadPoolExecutor(refreshThreads, refreshThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(1000),
+                r -> {
+                    Thread thread = new Thread(r, "connected-account-refresh-" + threadIndex.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        refreshExecutor.allowCoreThreadTimeOut(true);
+
+        cacheInvalidationBus.register(CACHE_NAME, this::evictLocal);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * @return a non-expired access token for the account
+     * @throws StacklessSocialRavenException if the account is not connected or its credential
+     *                                       could not be obtained (cached for failure-ttl-seconds)
+     */
+    public ConnectedAccountCredential get(OutboundPlatform platform, String accountId) {
+        Key key = new Key(platform, accountId);
+        long now = System.currentTimeMillis();
+
+        Entry entry = l1.getIfPresent(key);
+        if (entry == null || entry.cachedUntil() <= now) {
+            entry = join(singleFlight(key, false));
+        }
+        if (entry.credential() == null) {
+            throw unavailable(platform, entry.failure());
+        }
+        if (entry.shouldRefresh(now, TimeUnit.SECONDS.toMillis(refreshAheadSeconds))) {
+            scheduleRefresh(key);
+        }
+        return entry.credential();
+    }
+
+    /**
+     * Fills L1 for a batch of accounts (e.g. before publishing to all of a workspace's accounts)
+     * so the following get() calls don't each go to Redis and the DB. L2 is read with one MGET;
+     * accounts missing there are read from the token source and written back in one pipeline.
+     * Expired tokens are left to get(), which refreshes them under the cross-node lock.
+     */
+    public void warmUp(OutboundPlatform platform, Collection<String> accountIds) {
+        long now = System.currentTimeMillis();
+        List<Key> keys = new ArrayList<>();
+        for (String accountId : accountIds) {
+            Key key = new Key(platform, accountId);
+            Entry entry = l1.getIfPresent(key);
+            if (entry == null || entry.cachedUntil() <= now) {
+                keys.add(key);
+            }
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        List<String> cached = redisCacheClient.getAll(keys.stream().map(Key::redisKey).toList());
+        ConnectedAccountTokenSource source = source(platform);
+        Map<String, String> loaded = new HashMap<>();
+        long maxTtlSeconds = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            Key key = keys.get(i);
+            Entry entry = decode(key, cached.get(i), now);
+            if (entry != null && (entry.credential() == null || !entry.credential().isExpired(now))) {
+                l1.put(key, entry);
+                continue;
+            }
+            ConnectedAccountCredential stored;
+            try {
+                stored = source.load(key.accountId());
+            } catch (RuntimeException e) {
+                log.warn("Warming {} credential for account {} failed: {}", platform.getMetricName(), key.accountId(), e.getMessage());
+                continue;
+            }
+            if (stored == null || stored.isExpired(now)) {
+                continue;
+            }
+            entry = success(stored, now);
+            l1.put(key, entry);
+            String value = encode(key, entry);
+            if (value != null) {
+                loaded.put(key.redisKey(), value);
+                maxTtlSeconds = Math.max(maxTtlSeconds, TimeUnit.MILLISECONDS.toSeconds(entry.cachedUntil() - now));
+            }
+        }
+        // One TTL for the batch: an entry outliving its own cachedUntil is ignored by readL2
+        if (maxTtlSeconds > 0) {
+            redisCacheClient.setexAll(loaded, maxTtlSeconds);
+        }
+    }
+
+    public void evict(OutboundPlatform platform, String accountId) {
+        Key key = new Key(platform, accountId);
+        l1.invalidate(key);
+        redisCacheClient.delete(key.redisKey());
+        cacheInvalidationBus.publish(CACHE_NAME, key.busKey());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onConnectedAccountChanged(ConnectedAccountChangedEvent event) {
+        evict(event.platform(), event.accountId());
+    }
+
+    private void evictLocal(List<String> busKeys) {
+        for (String busKey : busKeys) {
+            int separator = busKey.indexOf(BUS_KEY_SEPARATOR);
+            if (separator > 0) {
+                try {
+                    OutboundPlatform platform = OutboundPlatform.valueOf(busKey.substring(0, separator));
+                    l1.invalidate(new Key(platform, busKey.substring(separator + 1)));
+                } catch (IllegalArgumentException e) {
+                    log.warn("Ignoring invalidation for unknown platform in '{}'", busKey);
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the load (or refresh) on the calling thread unless one is already in flight for the
+     * key, in which case the caller shares its result.
+     */
+    private CompletableFuture<Entry> singleFlight(Key key, boolean refresh) {
+        CompletableFuture<Entry> mine = new CompletableFuture<>();
+        CompletableFuture<Entry> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            meterRegistry.counter("connected-account.cache.collapsed", "platform", key.platform().getMetricName()).increment();
+            return existing;
+        }
+        try {
+            mine.complete(refresh ? refreshAhead(key) : load(key));
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+        } finally {
+            inFlight.remove(key, mine);
+        }
+        return mine;
+    }
+
+    private Entry load(Key key) {
+        long now = System.currentTimeMillis();
+        Entry cached = readL2(key, now);
+        if (cached != null && (cached.credential() == null || !cached.credential().isExpired(now))) {
+            l1.put(key, cached);
+            return cached;
+        }
+
+        ConnectedAccountTokenSource source = source(key.platform());
+        Entry entry;
+        try {
+            ConnectedAccountCredential stored = source.load(key.accountId());
+            if (stored == null) {
+                entry = failure("Account is not connected", now);
+            } else if (stored.isExpired(now)) {
+                entry = refreshExclusively(key, source, now);
+            } else {
+                entry = success(stored, now);
+            }
+        } catch (DataAccessException e) {
+            // Infrastructure trouble, not an account problem: don't pin it in the cache
+            throw e;
+        } catch (StacklessSocialRavenException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            log.warn("Loading {} credential for account {} failed: {}",
+                    key.platform().getMetricName(), key.accountId(), e.getMessage());
+            entry = failure(e.getMessage(), now);
+        }
+        store(key, entry);
+        return entry;
+    }
+
+    /**
+     * Refreshes an expired token while holding the cross-node lock. If another node holds it,
+     * waits (up to refresh-wait-ms) for that node's result to appear in Redis.
+     */
+    private Entry refreshExclusively(Key key, ConnectedAccountTokenSource source, long now) {
+        String lockToken = UUID.randomUUID().toString();
+        if (redisCacheClient.setIfAbsent(key.lockKey(), refreshLockMs, lockToken)) {
+            try {
+                Entry entry = success(source.refresh(key.accountId()), now);
+                meterRegistry.counter("connected-account.refresh", "platform", key.platform().getMetricName(),
+                        "result", "success").increment();
+                return entry;
+            } catch (RuntimeException e) {
+                meterRegistry.counter("connected-account.refresh", "platform", key.platform().getMetricName(),
+                        "result", "failure").increment();
+                throw e;
+            } finally {
+                releaseLock(key, lockToken);
+            }
+        }
+
+        long deadline = System.currentTimeMillis() + refreshWaitMs;
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            Entry refreshed = readL2(key, System.currentTimeMillis());
+            if (refreshed == null && cipher == null) {
+                // Tokens aren't shared through Redis; the other node persisted its result
+                ConnectedAccountCredential stored = source.load(key.accountId());
+                if (stored != null && !stored.isExpired(System.currentTimeMillis())) {
+                    refreshed = success(stored, System.currentTimeMillis());
+                }
+            }
+            if (refreshed != null
+                    && (refreshed.credential() == null || !refreshed.credential().isExpired(System.currentTimeMillis()))) {
+                return refreshed;
+            }
+        }
+        throw new StacklessSocialRavenException(
+                key.platform().getMetricName() + " credential refresh in progress, retry shortly", "ACCOUNT_REFRESH_IN_PROGRESS");
+    }
+
+    private void scheduleRefresh(Key key) {
+        if (!refreshQueued.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    join(singleFlight(key, true));
+                } catch (RuntimeException e) {
+                    log.debug("Refresh-ahead for {} account {} did not complete: {}",
+                            key.platform().getMetricName(), key.accountId(), e.getMessage());
+                } finally {
+                    refreshQueued.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Queue full: the next read schedules it again
+            refreshQueued.remove(key);
+            meterRegistry.counter("connected-account.refresh", "platform", key.platform().getMetricName(),
+                    "result", "dropped").increment();
+        }
+    }
+
+    private Entry refreshAhead(Key key) {
+        long now = System.currentTimeMillis();
+        Entry current = l1.getIfPresent(key);
+        if (current == null) {
+            // Evicted meanwhile; readers collapsed onto this call still need a value
+            return load(key);
+        }
+        if (!current.shouldRefresh(now, TimeUnit.SECONDS.toMillis(refreshAheadSeconds))) {
+            return current;
+        }
+        // Another node may already have refreshed it
+        Entry shared = readL2(key, now);
+        if (shared != null && !shared.shouldRefresh(now, TimeUnit.SECONDS.toMillis(refreshAheadSeconds))) {
+            l1.put(key, shared);
+            return shared;
+        }
+        String lockToken = UUID.randomUUID().toString();
+        if (!redisCacheClient.setIfAbsent(key.lockKey(), refreshLockMs, lockToken)) {
+            meterRegistry.counter("connected-account.refresh", "platform", key.platform().getMetricName(),
+                    "result", "skipped").increment();
+            return current;
+        }
+        try {
+            Entry refreshed = success(source(key.platform()).refresh(key.accountId()), now);
+            meterRegistry.counter("connected-account.refresh", "platform", key.platform().getMetricName(),
+                    "result", "success").increment();
+            store(key, refreshed);
+            return refreshed;
+        } catch (RuntimeException e) {
+            meterRegistry.counter("connected-account.refresh", "platform", key.platform().getMetricName(),
+                    "result", "failure").increment();
+            log.warn("Refresh-ahead of {} credential for account {} failed: {}",
+                    key.platform().getMetricName(), key.accountId(), e.getMessage());
+            Entry backedOff = current.withRefreshBlockedUntil(now + TimeUnit.SECONDS.toMillis(failureTtlSeconds));
+            l1.put(key, backedOff);
+            return backedOff;
+        } finally {
+            releaseLock(key, lockToken);
+        }
+    }
+
+    private void releaseLock(Key key, String lockToken) {
+        redisCacheClient.eval(RELEASE_LOCK_SCRIPT, List.of(key.lockKey()), List.of(lockToken));
+    }
+
+    private Entry success(ConnectedAccountCredential credential, long now) {
+        long cachedUntil = now + TimeUnit.SECONDS.toMillis(successTtlSeconds);
+        if (credential.hasExpiry()) {
+            cachedUntil = Math.min(cachedUntil, credential.expiresAtEpochMillis());
+        }
+        return new Entry(credential, null, cachedUntil, 0);
+    }
+
+    private Entry failure(String reason, long now) {
+        return new Entry(null, reason, now + TimeUnit.SECONDS.toMillis(failureTtlSeconds), 0);
+    }
+
+    private void store(Key key, Entry entry) {
+        l1.put(key, entry);
+        long ttlSeconds = TimeUnit.MILLISECONDS.toSeconds(entry.cachedUntil() - System.currentTimeMillis());
+        if (ttlSeconds <= 0) {
+            return;
+        }
+        String value = encode(key, entry);
+        if (value != null) {
+            redisCacheClient.setex(key.redisKey(), ttlSeconds, value);
+        }
+    }
+
+    /**
+     * @return the L2 value, or null if the entry must not be written to Redis
+     */
+    private String encode(Key key, Entry entry) {
+        if (cipher == null && entry.credential() != null) {
+            return null;
+        }
+        try {
+            String json = objectMapper.writeValueAsString(entry);
+            return cipher == null ? json : cipher.encrypt(json, key.redisKey());
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialise cached credential for {} account {}", key.platform().getMetricName(), key.accountId());
+            return null;
+        }
+    }
+
+    private Entry readL2(Key key, long now) {
+        return decode(key, redisCacheClient.get(key.redisKey()), now);
+    }
+
+    private Entry decode(Key key, String cached, long now) {
+        if (cached == null) {
+            return null;
+        }
+        String json = cipher == null ? cached : cipher.decrypt(cached, key.redisKey());
+        if (json == null) {
+            // Written under another key, or in plaintext by an older release
+            log.warn("Ignoring undecryptable cached credential for {} account {}", key.platform().getMetricName(), key.accountId());
+            return null;
+        }
+        try {
+            Entry entry = objectMapper.readValue(json, Entry.class);
+            return entry.cachedUntil() > now ? entry : null;
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable cached credential for {} account {}", key.platform().getMetricName(), key.accountId());
+            return null;
+        }
+    }
+
+    private ConnectedAccountTokenSource source(OutboundPlatform platform) {
+        ConnectedAccountTokenSource source = sourcesByPlatform.get(platform);
+        if (source == null) {
+            throw new StacklessSocialRavenException(
+                    "No token source for " + platform.getMetricName(), "ACCOUNT_PLATFORM_UNSUPPORTED");
+        }
+        return source;
+    }
+
+    private static Entry join(CompletableFuture<Entry> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private static StacklessSocialRavenException unavailable(OutboundPlatform platform, String reason) {
+        return new StacklessSocialRavenException(
+                platform.getMetricName() + " account credential unavailable: " + reason, "ACCOUNT_CREDENTIAL_UNAVAILABLE");
+    }
+
+    /**
+     * Cached outcome: a credential, or (credential == null) a failure reason.
+     */
+    record Entry(ConnectedAccountCredential credential, String failure, long cachedUntil, long refreshBlockedUntil) {
+
+        boolean shouldRefresh(long now, long refreshAheadMillis) {
+            return credential != null
+                    && credential.hasExpiry()
+                    && credential.expiresAtEpochMillis() - now <= refreshAheadMillis
+                    && refreshBlockedUntil <= now;
+        }
+
+        Entry withRefreshBlockedUntil(long until) {
+            return new Entry(credential, failure, cachedUntil, until);
+        }
+    }
+
+    private record Key(OutboundPlatform platform, String accountId) {
+        String redisKey() {
+            return REDIS_KEY_PREFIX + platform.getMetricName() + ":" + accountId;
+        }
+
+        String lockKey() {
+            return REDIS_LOCK_PREFIX + platform.getMetricName() + ":" + accountId;
+        }
+
+        String busKey() {
+            return platform.name() + BUS_KEY_SEPARATOR + accountId;
+        }
+    }
+}
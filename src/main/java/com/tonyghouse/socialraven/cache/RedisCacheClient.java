@@ -0,0 +1,255 @@
+package com.tonyghouse.socialraven.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
+import redis.clients.jedis.params.SetParams;
+import redis.clients.jedis.util.Pool;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Thin Redis access for L2 caches and shared counters, applying the
+ * socialraven.cache.redis-op.* retry/backoff policy (exponential, with jitter so that nodes
+ * retrying after the same blip don't hit Redis in lockstep).
+ *
+ * Redis is never the source of truth: a read that still fails after retries is reported as a
+ * miss (callers load from the DB), and a failed write/delete is logged and dropped. While
+ * RedisCircuitBreaker is open, operations return that fallback immediately.
+ *
+ * Error replies (JedisDataException) are neither retried nor counted against the breaker.
+ * Every operation is timed as redis.command{cache, command, outcome}, where "cache" is the key
+ * prefix (e.g. ws-role, ca-cred, rl).
+ *
+ * Multi-key reads go out as one MGET and multi-key writes as one pipeline, so a batch costs a
+ * single round trip.
+ *
+ * Only a Jedis Pool is needed, so tests can point it at an embedded or in-process Redis.
+ */
+@Component
+@Slf4j
+public class RedisCacheClient {
+
+    @Autowired
+    private Pool<Jedis> jedisPool;
+
+    @Autowired
+    private RedisCircuitBreaker circuitBreaker;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${socialraven.cache.redis-op.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${socialraven.cache.redis-op.initial-backoff-ms:20}")
+    private long initialBackoffMs;
+
+    @Value("${socialraven.cache.redis-op.max-backoff-ms:100}")
+    private long maxBackoffMs;
+
+    public String get(String key) {
+        return execute("GET", key, jedis -> jedis.get(key), null);
+    }
+
+    /**
+     * MGET. The result has one entry per key, in order, null for misses (all null if Redis is
+     * unavailable).
+     */
+    public List<String> getAll(List<String> keys) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        List<String> misses = Collections.nCopies(keys.size(), null);
+        return execute("MGET", keys.get(0), jedis -> jedis.mget(keys.toArray(String[]::new)), misses);
+    }
+
+    public void setex(String key, long ttlSeconds, String value) {
+        execute("SETEX", key, jedis -> jedis.setex(key, ttlSeconds, value), null);
+    }
+
+    /**
+     * SETEX of every entry, pipelined in one round trip.
+     */
+    public void setexAll(Map<String, String> values, long ttlSeconds) {
+        if (values.isEmpty()) {
+            return;
+        }
+        execute("SETEX_BATCH", values.keySet().iterator().next(), jedis -> {
+            Pipeline pipeline = jedis.pipelined();
+            values.forEach((key, value) -> pipeline.setex(key, ttlSeconds, value));
+            pipeline.sync();
+            return null;
+        }, null);
+    }
+
+    /**
+     * SETEX key and adds key to the set at indexKey (kept for indexTtlSeconds), in one pipelined
+     * round trip, so deleteIndexed can later remove every key written under that index.
+     * indexTtlSeconds must be at least the longest ttlSeconds used with the index.
+     */
+    public void setexIndexed(String key, long ttlSeconds, String value, String indexKey, long indexTtlSeconds) {
+        execute("SETEX_INDEXED", key, jedis -> {
+            Pipeline pipeline = jedis.pipelined();
+            pipeline.setex(key, ttlSeconds, value);
+            pipeline.sadd(indexKey, key);
+            pipeline.expire(indexKey, indexTtlSeconds);
+            pipeline.sync();
+            return null;
+        }, null);
+    }
+
+    /**
+     * Deletes every key recorded under each indexKey by setexIndexed, and the indexes themselves.
+     * The index members are read in one pipeline and deleted with one DEL.
+     */
+    public void deleteIndexed(String... indexKeys) {
+        if (indexKeys.length == 0) {
+            return;
+        }
+        execute("DEL_INDEXED", indexKeys[0], jedis -> {
+            Pipeline pipeline = jedis.pipelined();
+            List<Response<Set<String>>> members = new ArrayList<>(indexKeys.length);
+            for (String indexKey : indexKeys) {
+                members.add(pipeline.smembers(indexKey));
+            }
+            pipeline.sync();
+            List<String> keys = new ArrayList<>(List.of(indexKeys));
+            for (Response<Set<String>> indexed : members) {
+                keys.addAll(indexed.get());
+            }
+            return jedis.del(keys.toArray(String[]::new));
+        }, null);
+    }
+
+    /**
+     * SET key value NX PX ttl. Returns true if the key was set, and also if Redis is unavailable
+     * (callers use this for best-effort cross-node locks and fall back to local coordination).
+     */
+    public boolean setIfAbsent(String key, long ttlMillis, String value) {
+        return execute("SETNX", key,
+                jedis -> "OK".equals(jedis.set(key, value, SetParams.setParams().nx().px(ttlMillis))), true);
+    }
+
+    public void delete(String... keys) {
+        if (keys.length == 0) {
+            return;
+        }
+        execute("DEL", keys[0], jedis -> jedis.del(keys), null);
+    }
+
+    /**
+     * Runs a Lua script atomically. Returns null if Redis is unavailable.
+     */
+    public Object eval(String script, List<String> keys, List<String> args) {
+        return execute("EVAL", keys.isEmpty() ? "" : keys.get(0), jedis -> jedis.eval(script, keys, args), null);
+    }
+
+    /**
+     * Runs a Lua script atomically by its SHA (EVALSHA). The source is only sent when Redis does
+     * not have the script cached (NOSCRIPT: first use, restart, failover), and EVAL caches it
+     * again. Returns null if Redis is unavailable.
+     */
+    public Object eval(RedisScript script, List<String> keys, List<String> args) {
+        return execute("EVALSHA", keys.isEmpty() ? "" : keys.get(0), jedis -> {
+            try {
+                return jedis.evalsha(script.sha1(), keys, args);
+            } catch (JedisNoScriptException e) {
+                return jedis.eval(script.source(), keys, args);
+            }
+        }, null);
+    }
+
+    private <T> T execute(String command, String sampleKey, Function<Jedis, T> operation, T fallback) {
+        if (!circuitBreaker.allowRequest()) {
+            return fallback;
+        }
+        String cache = cacheName(sampleKey);
+        long start = System.nanoTime();
+        long backoffMs = initialBackoffMs;
+        // Every path must report to the breaker: a half-open probe that reports nothing would
+        // leave it half-open, short-circuiting every later call
+        boolean reported = false;
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try (Jedis jedis = jedisPool.getResource()) {
+                    T result = operation.apply(jedis);
+                    circuitBreaker.recordSuccess();
+                    reported = true;
+                    record(cache, command, "success", start);
+                    return result;
+                } catch (JedisDataException e) {
+                    // Redis answered with an error (WRONGTYPE, script error...): the connection is
+                    // fine and retrying would get the same answer
+                    circuitBreaker.recordSuccess();
+                    reported = true;
+                    log.warn("Redis {} {} rejected: {}", command, sampleKey, e.getMessage());
+                    record(cache, command, "error", start);
+                    return fallback;
+                } catch (JedisException e) {
+                    if (attempt >= maxAttempts || !sleep(jitter(backoffMs))) {
+                        log.warn("Redis {} {} failed after {} attempt(s): {}", command, sampleKey, attempt, e.getMessage());
+                        circuitBreaker.recordFailure();
+                        reported = true;
+                        record(cache, command, "failure", start);
+                        return fallback;
+                    }
+                    backoffMs = Math.min(backoffMs * 2, maxBackoffMs);
+                }
+            }
+        } finally {
+            if (!reported) {
+                circuitBreaker.recordFailure();
+                record(cache, command, "failure", start);
+            }
+        }
+    }
+
+    private void record(String cache, String command, String outcome, long startNanos) {
+        Timer.builder("redis.command")
+                .tag("cache", cache)
+                .tag("command", command)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static String cacheName(String key) {
+        int separator = key.indexOf(':');
+        return separator > 0 ? key.substring(0, separator) : "other";
+    }
+
+    /**
+     * "Equal jitter": half of the backoff is fixed, the other half random.
+     */
+    private static long jitter(long backoffMs) {
+        long half = backoffMs / 2;
+        return half + ThreadLocalRandom.current().nextLong(backoffMs - half + 1);
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
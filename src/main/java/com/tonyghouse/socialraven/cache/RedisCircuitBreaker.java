@@ -0,0 +1,90 @@
+package com.tonyghouse.socialraven.cache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Circuit breaker in front of Redis, used by RedisCacheClient.
+ *
+ * CLOSED: calls go through; failure-threshold consecutive failed operations open the circuit.
+ * OPEN: calls are short-circuited (callers get their fallback, i.e. a cache miss and a DB read)
+ *       for open-duration-ms, so requests don't queue up behind Redis timeouts and retries.
+ * HALF_OPEN: after that, a single probe call is let through; success closes the circuit,
+ *       failure opens it again.
+ *
+ * State is exported as the redis.circuit.state gauge (0 closed, 1 open, 2 half-open).
+ */
+@Component
+@Slf4j
+public class RedisCircuitBreaker {
+
+    private static final int CLOSED = 0;
+    private static final int OPEN = 1;
+    private static final int HALF_OPEN = 2;
+
+    @Value("${socialraven.cache.redis-circuit.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${socialraven.cache.redis-circuit.open-duration-ms:10000}")
+    private long openDurationMs;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicInteger state = new AtomicInteger(CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openedAtNanos = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("redis.circuit.state", state, AtomicInteger::get).register(meterRegistry);
+    }
+
+    /**
+     * @return true if the caller may run a Redis operation now
+     */
+    public boolean allowRequest() {
+        int current = state.get();
+        if (current == CLOSED) {
+            return true;
+        }
+        if (current == OPEN
+                && System.nanoTime() - openedAtNanos.get() >= TimeUnit.MILLISECONDS.toNanos(openDurationMs)
+                && state.compareAndSet(OPEN, HALF_OPEN)) {
+            // This caller is the probe
+            return true;
+        }
+        meterRegistry.counter("redis.circuit.short-circuited").increment();
+        return false;
+    }
+
+    public void recordSuccess() {
+        consecutiveFailures.set(0);
+        if (state.getAndSet(CLOSED) != CLOSED) {
+            log.info("Redis circuit closed");
+        }
+    }
+
+    public void recordFailure() {
+        if (state.get() == HALF_OPEN || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            open();
+        }
+    }
+
+    private void open() {
+        openedAtNanos.set(System.nanoTime());
+        if (state.getAndSet(OPEN) != OPEN) {
+            meterRegistry.counter("redis.circuit.opened").increment();
+            log.warn("Redis circuit opened; serving cache misses for {} ms", openDurationMs);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.tonyghouse.socialraven.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * A Lua script and its SHA-1, the name Redis caches it under, so RedisCacheClient can run it with
+ * EVALSHA instead of sending the source on every call. Declare instances as constants.
+ */
+public final class RedisScript {
+
+    private final String source;
+    private final String sha1;
+
+    public RedisScript(String source) {
+        this.source = source;
+        try {
+            this.sha1 = HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-1").digest(source.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public String source() {
+        return source;
+    }
+
+    public String sha1() {
+        return sha1;
+    }
+}
@@ -0,0 +1,165 @@
+package com.tonyghouse.socialraven.cache;
+
+import com.clerk.backend_api.helpers.security.models.SessionAuthObjectV2;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.tonyghouse.socialraven.util.JwtUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded in-process cache of Clerk sessions that already passed full JWT verification.
+ *
+ * Keyed by the SHA-256 of the raw session token (the token itself is never stored), and each
+ * entry expires at the token's own "exp" claim, capped by max-ttl-seconds. Repeat requests
+ * carrying the same token skip signature verification entirely.
+ *
+ * Hit/miss/eviction counters are published under the "clerk.verified-session" cache metrics.
+ */
+@Component
+public class VerifiedSessionCache {
+
+    public static final String CACHE_NAME = "clerk.verified-session";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String SESSION_COOKIE = "__session=";
+
+    @Value("${socialraven.cache.verified-session.max-size:10000}")
+    private long maxSize;
+
+    @Value("${socialraven.cache.verified-session.max-ttl-seconds:300}")
+    private long maxTtlSeconds;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Cache<String, CachedSession> cache;
+
+    @PostConstruct
+    public void init() {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new ExpireAtTokenExp(TimeUnit.SECONDS.toNanos(maxTtlSeconds)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public SessionAuthObjectV2 get(String sessionToken) {
+        CachedSession cached = cache.getIfPresent(hash(sessionToken));
+        if (cached == null) {
+            return null;
+        }
+        // Caffeine expiry is lazy on read paths; never hand out a session past its exp
+        if (cached.expiresAtEpochMillis() <= System.currentTimeMillis()) {
+            return null;
+        }
+        return cached.auth();
+    }
+
+    public void put(String sessionToken, SessionAuthObjectV2 auth) {
+        Long exp = JwtUtil.readLongClaim(sessionToken, "exp");
+        if (exp == null) {
+            // Without an exp claim we cannot bound the entry's lifetime — don't cache it
+            return;
+        }
+        long expiresAtMillis = TimeUnit.SECONDS.toMillis(exp);
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        cache.put(hash(sessionToken), new CachedSession(auth, expiresAtMillis));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Returns the Clerk session token carried by the request, mirroring Clerk's own lookup order:
+     * the Authorization bearer token first, then the __session cookie.
+     */
+    public static String extractSessionToken(Map<String, List<String>> requestHeaders) {
+        String authorization = firstHeader(requestHeaders, "Authorization");
+        if (authorization != null && authorization.startsWith(BEARER_PREFIX)) {
+            String token = authorization.substring(BEARER_PREFIX.length()).trim();
+            return token.isEmpty() ? null : token;
+        }
+
+        String cookieHeader = firstHeader(requestHeaders, "Cookie");
+        if (cookieHeader == null) {
+            return null;
+        }
+        for (String cookie : cookieHeader.split(";")) {
+            String trimmed = cookie.trim();
+            if (trimmed.startsWith(SESSION_COOKIE)) {
+                String token = trimmed.substring(SESSION_COOKIE.length());
+                return token.isEmpty() ? null : token;
+            }
+        }
+        return null;
+    }
+
+    private static String firstHeader(Map<String, List<String>> requestHeaders, String name) {
+        List<String> values = requestHeaders.get(name);
+        if (values == null) {
+            // Servlet containers usually hand out lower-cased header names
+            for (Map.Entry<String, List<String>> entry : requestHeaders.entrySet()) {
+                if (name.equalsIgnoreCase(entry.getKey())) {
+                    values = entry.getValue();
+                    break;
+                }
+            }
+        }
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    private static String hash(String sessionToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hashed = digest.digest(sessionToken.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(hashed);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record CachedSession(SessionAuthObjectV2 auth, long expiresAtEpochMillis) {}
+
+    private static final class ExpireAtTokenExp implements Expiry<String, CachedSession> {
+
+        private final long maxTtlNanos;
+
+        private ExpireAtTokenExp(long maxTtlNanos) {
+            this.maxTtlNanos = maxTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, CachedSession value, long currentTime) {
+            long remainingMillis = value.expiresAtEpochMillis() - System.currentTimeMillis();
+            return Math.max(0, Math.min(TimeUnit.MILLISECONDS.toNanos(remainingMillis), maxTtlNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedSession value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedSession value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
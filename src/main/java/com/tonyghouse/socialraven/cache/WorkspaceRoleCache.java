@@ -0,0 +1,302 @@
+package com.tonyghouse.socialraven.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.tonyghouse.socialraven.cache.invalidation.CacheInvalidationBus;
+import com.tonyghouse.socialraven.constant.WorkspaceRole;
+import com.tonyghouse.socialraven.event.UserStatusChangedEvent;
+import com.tonyghouse.socialraven.event.WorkspaceRoleChangedEvent;
+import com.tonyghouse.socialraven.repository.WorkspaceMemberRoleRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Two-tier cache of (user, workspace) -> WorkspaceRole used by WorkspaceAccessFilter.
+ *
+ * L1: per-node Caffeine cache. Loads are single-flight per key, so a burst of requests for the
+ *     same pair waits on one load instead of each querying the DB. The load runs on the first
+ *     caller's thread outside any map lock, so waiting virtual threads don't pin their carriers.
+ * L2: Redis, shared by all nodes, TTL = socialraven.cache.workspace-role.ttl-seconds.
+ *
+ * Non-members are cached too (negative entries, shorter TTL) so probing a workspace the caller
+ * does not belong to doesn't hit the DB every time. Entries are evicted from both tiers after
+ * the transaction that published a WorkspaceRoleChangedEvent commits, and from every other
+ * node's L1 through the CacheInvalidationBus. A UserStatusChangedEvent drops all of that user's
+ * entries: L2 through a per-user index of their Redis keys (ws-role-idx:{user}), L1 on every
+ * node, so their memberships are re-resolved from the DB on the next request. User status
+ * itself is not checked here; a deactivated user no longer authenticates with Clerk.
+ *
+ * A load that read the DB before a change committed must not write the old role back to L2
+ * after the eviction. Evictions therefore leave a short-lived marker (ws-role-evict:{ws}:{user},
+ * or ws-role-evict-user:{user}); a load notes the markers before reading the DB and only writes
+ * to L2 if they are unchanged, otherwise it reads the DB again.
+ */
+@Component
+@Slf4j
+public class WorkspaceRoleCache {
+
+    public static final String CACHE_NAME = "workspace-role";
+    public static final String USER_STATUS_CACHE_NAME = "user-status";
+
+    private static final String REDIS_KEY_PREFIX = "ws-role:";
+    private static final String REDIS_USER_INDEX_PREFIX = "ws-role-idx:";
+    private static final String REDIS_EVICT_MARKER_PREFIX = "ws-role-evict:";
+    private static final String REDIS_USER_EVICT_MARKER_PREFIX = "ws-role-evict-user:";
+    private static final String NOT_A_MEMBER = "NONE";
+    private static final char BUS_KEY_SEPARATOR = '|';
+
+    /**
+     * KEYS: entry, user index, pair marker, user marker.
+     * ARGV: value, ttl, index ttl, pair marker and user marker as seen before the DB read.
+     * Returns 0 without writing if either marker changed since.
+     */
+    private static final RedisScript GUARDED_WRITE_SCRIPT = new RedisScript("""
+            if (redis.call('GET', KEYS[3]) or '') ~= ARGV[4] or (redis.call('GET', KEYS[4]) or '') ~= ARGV[5] then
+                return 0
+            end
+            redis.call('SETEX', KEYS[1], ARGV[2], ARGV[1])
+            redis.call('SADD', KEYS[2], KEYS[1])
+            redis.call('EXPIRE', KEYS[2], ARGV[3])
+            return 1
+            """);
+
+    @Value("${socialraven.cache.workspace-role.ttl-seconds:300}")
+    private long l2TtlSeconds;
+
+    @Value("${socialraven.cache.workspace-role.l1-ttl-seconds:30}")
+    private long l1TtlSeconds;
+
+    @Value("${socialraven.cache.workspace-role.negative-ttl-seconds:30}")
+    private long negativeTtlSeconds;
+
+    @Value("${socialraven.cache.workspace-role.l1-max-size:20000}")
+    private long l1MaxSize;
+
+    @Value("${socialraven.cache.workspace-role.evict-marker-seconds:30}")
+    private long evictMarkerSeconds;
+
+    @Autowired
+    private RedisCacheClient redisCacheClient;
+
+    @Autowired
+    private WorkspaceMemberRoleRepository workspaceMemberRoleRepository;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private AsyncCache<Key, Optional<WorkspaceRole>> l1;
+
+    @PostConstruct
+    public void init() {
+        long positiveNanos = TimeUnit.SECONDS.toNanos(l1TtlSeconds);
+        long negativeNanos = TimeUnit.SECONDS.toNanos(Math.min(l1TtlSeconds, negativeTtlSeconds));
+
+        this.l1 = Caffeine.newBuilder()
+                .maximumSize(l1MaxSize)
+                .expireAfter(new Expiry<Key, Optional<WorkspaceRole>>() {
+                    @Override
+                    public long expireAfterCreate(Key key, Optional<WorkspaceRole> role, long currentTime) {
+                        return role.isPresent() ? positiveNanos : negativeNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Key key, Optional<WorkspaceRole> role, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, role, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Key key, Optional<WorkspaceRole> role, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, l1, CACHE_NAME);
+
+        cacheInvalidationBus.register(CACHE_NAME, this::evictLocal);
+        cacheInvalidationBus.register(USER_STATUS_CACHE_NAME, this::evictLocalUsers);
+    }
+
+    /**
+     * @return the caller's role in the workspace, or null if they are not a member
+     */
+    public WorkspaceRole getRole(String userId, String workspaceId) {
+        Key key = new Key(userId, workspaceId);
+        CompletableFuture<Optional<WorkspaceRole>> role = l1.getIfPresent(key);
+        if (role == null) {
+            CompletableFuture<Optional<WorkspaceRole>> loading = new CompletableFuture<>();
+            role = l1.asMap().putIfAbsent(key, loading);
+            if (role == null) {
+                role = loading;
+                try {
+                    loading.complete(load(key));
+                } catch (RuntimeException e) {
+                    // Caffeine drops failed futures, so the next request retries the load
+                    loading.completeExceptionally(e);
+                }
+            }
+        }
+        try {
+            return role.join().orElse(null);
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    public void evict(String userId, String workspaceId) {
+        Key key = new Key(userId, workspaceId);
+        // Marker before delete, so a load racing with this one can't re-create the entry
+        redisCacheClient.setex(key.evictMarkerKey(), evictMarkerSeconds, UUID.randomUUID().toString());
+        l1.synchronous().invalidate(key);
+        redisCacheClient.delete(key.redisKey());
+        cacheInvalidationBus.publish(CACHE_NAME, key.busKey());
+    }
+
+    public void evictUser(String userId) {
+        evictUsers(List.of(userId));
+    }
+
+    /**
+     * Drops every cached membership of the given users; the Redis side is one round trip
+     * however many users there are.
+     */
+    public void evictUsers(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        Map<String, String> markers = new HashMap<>();
+        for (String userId : userIds) {
+            markers.put(REDIS_USER_EVICT_MARKER_PREFIX + userId, UUID.randomUUID().toString());
+        }
+        redisCacheClient.setexAll(markers, evictMarkerSeconds);
+        evictLocalUsers(userIds);
+        redisCacheClient.deleteIndexed(userIds.stream().map(userId -> REDIS_USER_INDEX_PREFIX + userId).toArray(String[]::new));
+        for (String userId : userIds) {
+            cacheInvalidationBus.publish(USER_STATUS_CACHE_NAME, userId);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onWorkspaceRoleChanged(WorkspaceRoleChangedEvent event) {
+        evict(event.userId(), event.workspaceId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserStatusChanged(UserStatusChangedEvent event) {
+        evictUser(event.userId());
+    }
+
+    private void evictLocal(List<String> busKeys) {
+        for (String busKey : busKeys) {
+            int separator = busKey.indexOf(BUS_KEY_SEPARATOR);
+            if (separator > 0) {
+                l1.synchronous().invalidate(new Key(busKey.substring(0, separator), busKey.substring(separator + 1)));
+            }
+        }
+    }
+
+    private void evictLocalUsers(Collection<String> userIds) {
+        // One pass over L1 for the whole batch the bus delivered
+        Set<String> users = new HashSet<>(userIds);
+        l1.asMap().keySet().removeIf(key -> users.contains(key.userId()));
+    }
+
+    private Optional<WorkspaceRole> load(Key key) {
+        List<String> cached = redisCacheClient.getAll(List.of(key.redisKey(), key.evictMarkerKey(), key.userEvictMarkerKey()));
+        if (cached.get(0) != null) {
+            Optional<WorkspaceRole> decoded = decode(cached.get(0));
+            if (decoded != null) {
+                return decoded;
+            }
+        }
+
+        String pairMarker = cached.get(1);
+        String userMarker = cached.get(2);
+        for (int attempt = 1; ; attempt++) {
+            WorkspaceRole role = workspaceMemberRoleRepository.findRole(key.userId(), key.workspaceId());
+            if (writeL2(key, role, pairMarker, userMarker) || attempt == 2) {
+                return Optional.ofNullable(role);
+            }
+            // Evicted while we were reading: the change has committed by now, so read it again
+            List<String> markers = redisCacheClient.getAll(List.of(key.evictMarkerKey(), key.userEvictMarkerKey()));
+            pairMarker = markers.get(0);
+            userMarker = markers.get(1);
+        }
+    }
+
+    /**
+     * @return false if an eviction happened since the markers were read (nothing was written)
+     */
+    private boolean writeL2(Key key, WorkspaceRole role, String pairMarker, String userMarker) {
+        String value = role != null ? role.name() : NOT_A_MEMBER;
+        long ttlSeconds = role != null ? l2TtlSeconds : negativeTtlSeconds;
+        Object written = redisCacheClient.eval(GUARDED_WRITE_SCRIPT,
+                List.of(key.redisKey(), key.userIndexKey(), key.evictMarkerKey(), key.userEvictMarkerKey()),
+                List.of(value, String.valueOf(ttlSeconds), String.valueOf(indexTtlSeconds()),
+                        pairMarker != null ? pairMarker : "", userMarker != null ? userMarker : ""));
+        // null: Redis unavailable, nothing to protect
+        return !Long.valueOf(0).equals(written);
+    }
+
+    private long indexTtlSeconds() {
+        return Math.max(l2TtlSeconds, negativeTtlSeconds);
+    }
+
+    private static Optional<WorkspaceRole> decode(String value) {
+        if (NOT_A_MEMBER.equals(value)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(WorkspaceRole.valueOf(value));
+        } catch (IllegalArgumentException e) {
+            // Unknown value (e.g. written by a newer release) — treat as a miss and reload from the DB
+            log.warn("Ignoring unrecognised cached workspace role '{}'", value);
+            return null;
+        }
+    }
+
+    private record Key(String userId, String workspaceId) {
+        String redisKey() {
+            return REDIS_KEY_PREFIX + workspaceId + ":" + userId;
+        }
+
+        String userIndexKey() {
+            return REDIS_USER_INDEX_PREFIX + userId;
+        }
+
+        String evictMarkerKey() {
+            return REDIS_EVICT_MARKER_PREFIX + workspaceId + ":" + userId;
+        }
+
+        String userEvictMarkerKey() {
+            return REDIS_USER_EVICT_MARKER_PREFIX + userId;
+        }
+
+        String busKey() {
+            return userId + BUS_KEY_SEPARATOR + workspaceId;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.tonyghouse.socialraven.cache.invalidation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Propagates L1 cache evictions to every other node.
+ *
+ * Senders evict their own L1 locally and then call publish(). Receivers buffer incoming
+ * invalidations, coalesce duplicates (the same key invalidated repeatedly within one batch window
+ * is evicted once) and hand each cache its batch of keys every batch-interval-ms.
+ *
+ * Metrics: cache.invalidation.published / received / coalesced, and
+ * cache.invalidation.propagation.lag (sender publish -> receiver eviction, per cache).
+ */
+@Component
+@Slf4j
+public class CacheInvalidationBus {
+
+    @Value("${socialraven.cache.invalidation.batch-interval-ms:5}")
+    private long batchIntervalMs;
+
+    @Autowired
+    private CacheInvalidationTransport transport;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, Consumer<List<String>>> handlers = new ConcurrentHashMap<>();
+    private final Map<Pending, Long> pending = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService drainer;
+    private Counter published;
+    private Counter received;
+    private Counter coalesced;
+
+    @PostConstruct
+    public void start() {
+        published = meterRegistry.counter("cache.invalidation.published");
+        received = meterRegistry.counter("cache.invalidation.received");
+        coalesced = meterRegistry.counter("cache.invalidation.coalesced");
+
+        drainer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "cache-invalidation-drainer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        drainer.scheduleWithFixedDelay(this::drain, batchIntervalMs, batchIntervalMs, TimeUnit.MILLISECONDS);
+        transport.subscribe(this::onPayload);
+    }
+
+    @PreDestroy
+    public void stop() {
+        transport.close();
+        drainer.shutdownNow();
+    }
+
+    /**
+     * Registers the local eviction callback for a cache. The callback receives de-duplicated keys.
+     */
+    public void register(String cacheName, Consumer<List<String>> evictLocal) {
+        handlers.put(cacheName, evictLocal);
+    }
+
+    /**
+     * Asks every other node to evict the key from its L1. Call after the local eviction,
+     * once the change is committed.
+     */
+    public void publish(String cacheName, String key) {
+        try {
+            String payload = objectMapper.writeValueAsString(
+                    new CacheInvalidationMessage(cacheName, key, nodeId, System.currentTimeMillis()));
+            transport.publish(payload);
+            published.increment();
+        } catch (Exception e) {
+            log.warn("Failed to publish invalidation for {}:{}", cacheName, key, e);
+        }
+    }
+
+    private void onPayload(String payload) {
+        CacheInvalidationMessage message;
+        try {
+            message = objectMapper.readValue(payload, CacheInvalidationMessage.class);
+        } catch (Exception e) {
+            log.warn("Dropping malformed cache invalidation payload", e);
+            return;
+        }
+        if (nodeId.equals(message.originNodeId())) {
+            return;
+        }
+        received.increment();
+        Pending key = new Pending(message.cacheName(), message.key());
+        if (pending.putIfAbsent(key, message.publishedAtMillis()) != null) {
+            // Already queued for this batch: evict once, keep the oldest timestamp for the lag metric
+            pending.merge(key, message.publishedAtMillis(), Math::min);
+            coalesced.increment();
+        }
+    }
+
+    private void drain() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<String, List<String>> keysByCache = new HashMap<>();
+        Map<String, Long> oldestByCache = new HashMap<>();
+        for (Pending entry : new ArrayList<>(pending.keySet())) {
+            Long publishedAt = pending.remove(entry);
+            if (publishedAt == null) {
+                continue;
+            }
+            keysByCache.computeIfAbsent(entry.cacheName(), k -> new ArrayList<>()).add(entry.key());
+            oldestByCache.merge(entry.cacheName(), publishedAt, Math::min);
+        }
+
+        long now = System.currentTimeMillis();
+        keysByCache.forEach((cacheName, keys) -> {
+            Consumer<List<String>> handler = handlers.get(cacheName);
+            if (handler == null) {
+                return;
+            }
+            try {
+                handler.accept(keys);
+            } catch (Exception e) {
+                log.error("Local eviction failed for cache {}", cacheName, e);
+                return;
+            }
+            Timer.builder("cache.invalidation.propagation.lag")
+                    .tag("cache", cacheName)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(Math.max(0, now - oldestByCache.get(cacheName)), TimeUnit.MILLISECONDS);
+        });
+    }
+
+    private record Pending(String cacheName, String key) {}
+}
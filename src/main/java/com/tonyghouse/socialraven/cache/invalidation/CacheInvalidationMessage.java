@@ -0,0 +1,8 @@
+package com.tonyghouse.socialraven.cache.invalidation;
+
+/**
+ * Wire format of a cross-node invalidation. publishedAtMillis is the sender's wall clock and is
+ * only used for the propagation-lag metric.
+ */
+public record CacheInvalidationMessage(String cacheName, String key, String originNodeId, long publishedAtMillis) {
+}
@@ -0,0 +1,19 @@
+package com.tonyghouse.socialraven.cache.invalidation;
+
+import java.util.function.Consumer;
+
+/**
+ * Broadcast channel used by CacheInvalidationBus. Every published payload must be delivered to
+ * the subscribers of every node, including the publishing node (the bus filters its own messages).
+ */
+public interface CacheInvalidationTransport {
+
+    void publish(String payload);
+
+    /**
+     * Starts delivering payloads to the listener. Called once, at startup.
+     */
+    void subscribe(Consumer<String> listener);
+
+    void close();
+}
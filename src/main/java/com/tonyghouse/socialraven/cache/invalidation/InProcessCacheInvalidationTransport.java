@@ -0,0 +1,32 @@
+package com.tonyghouse.socialraven.cache.invalidation;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Broker stand-in that delivers synchronously to subscribers in the same JVM.
+ * Used for single-node setups (socialraven.cache.invalidation.transport=in-process) and for
+ * wiring several bus instances together without Redis.
+ */
+public class InProcessCacheInvalidationTransport implements CacheInvalidationTransport {
+
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(String payload) {
+        for (Consumer<String> listener : listeners) {
+            listener.accept(payload);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void close() {
+        listeners.clear();
+    }
+}
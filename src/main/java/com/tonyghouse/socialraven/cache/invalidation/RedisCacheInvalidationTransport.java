@@ -0,0 +1,86 @@
+package com.tonyghouse.socialraven.cache.invalidation;
+
+import lombok.extern.slf4j.Slf4j;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.exceptions.JedisException;
+
+import java.util.function.Consumer;
+
+/**
+ * Redis pub/sub transport. The subscription holds one pooled connection on a dedicated daemon
+ * thread and resubscribes with capped backoff if the connection drops.
+ */
+@Slf4j
+public class RedisCacheInvalidationTransport implements CacheInvalidationTransport {
+
+    private static final long MAX_RECONNECT_BACKOFF_MS = 5_000;
+
+    private final JedisPool jedisPool;
+    private final String channel;
+
+    private volatile boolean running = true;
+    private volatile JedisPubSub subscription;
+
+    public RedisCacheInvalidationTransport(JedisPool jedisPool, String channel) {
+        this.jedisPool = jedisPool;
+        this.channel = channel;
+    }
+
+    @Override
+    public void publish(String payload) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            jedis.publish(channel, payload);
+        } catch (JedisException e) {
+            // Peers fall back to their (shorter) L1 TTL for this entry
+            log.warn("Failed to publish cache invalidation on {}: {}", channel, e.getMessage());
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        Thread subscriber = new Thread(() -> runSubscription(listener), "cache-invalidation-subscriber");
+        subscriber.setDaemon(true);
+        subscriber.start();
+    }
+
+    private void runSubscription(Consumer<String> listener) {
+        long backoffMs = 100;
+        while (running) {
+            JedisPubSub pubSub = new JedisPubSub() {
+                @Override
+                public void onMessage(String messageChannel, String message) {
+                    listener.accept(message);
+                }
+            };
+            subscription = pubSub;
+            try (Jedis jedis = jedisPool.getResource()) {
+                backoffMs = 100;
+                jedis.subscribe(pubSub, channel);
+            } catch (JedisException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cache invalidation subscription on {} dropped, retrying in {} ms: {}",
+                        channel, backoffMs, e.getMessage());
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, MAX_RECONNECT_BACKOFF_MS);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        JedisPubSub current = subscription;
+        if (current != null && current.isSubscribed()) {
+            current.unsubscribe();
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.tonyghouse.socialraven.concurrent;
+
+import com.tonyghouse.socialraven.exception.StacklessSocialRavenException;
+import com.tonyghouse.socialraven.http.OutboundRateLimiter;
+import com.tonyghouse.socialraven.util.WorkspaceContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared, bounded executor for fanning request work out in parallel.
+ *
+ * Each task runs with the submitting thread's WorkspaceContext, Spring SecurityContext (so
+ * SecurityContextUtil.getUserId works inside it) and outbound rate-limit admission (so calls
+ * fanned out from an admitted call are not charged again), all restored afterwards.
+ *
+ * Limits:
+ * - per workspace: at most per-workspace-limit tasks in flight; the submitting thread waits up
+ *   to permit-timeout-ms for a slot and then gets a 429, so one workspace cannot starve others.
+ *   Work submitted outside a workspace (jobs, consumers) is only bound by the global limit
+ * - globally: "platform" mode uses a fixed pool with a bounded queue (503 when full);
+ *   "virtual" mode starts a virtual thread per task, gated by max-concurrency permits, and
+ *   rejects with 503 once queue-capacity tasks are waiting for one
+ *
+ * A task submitted from inside another task runs inline on the submitting thread: queued
+ * behind its parent, which waits on it while holding permits, it could otherwise deadlock.
+ *
+ * Usage:
+ *   CompletableFuture<A> a = executor.submit(() -> fetchAccountA());
+ *   CompletableFuture<B> b = executor.submit(() -> fetchAccountB());
+ *   CompletableFuture.allOf(a, b).join();
+ */
+@Component
+@Slf4j
+public class ContextAwareTaskExecutor {
+
+    @Value("${socialraven.executor.mode:platform}")
+    private String mode;
+
+    @Value("${socialraven.executor.max-concurrency:16}")
+    private int maxConcurrency;
+
+    @Value("${socialraven.executor.queue-capacity:200}")
+    private int queueCapacity;
+
+    @Value("${socialraven.executor.per-workspace-limit:4}")
+    private int perWorkspaceLimit;
+
+    @Value("${socialraven.executor.permit-timeout-ms:2000}")
+    private long permitTimeoutMs;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static final ThreadLocal<Boolean> IN_TASK = new ThreadLocal<>();
+
+    private ExecutorService executor;
+    private Semaphore virtualPermits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+
+    // An entry lives while any task holds or waits for one of its permits, and is removed with
+    // the last release, so a semaphore is never dropped (and recreated full) while permits are out
+    private final Map<String, WorkspaceSlot> workspaceSlots = new ConcurrentHashMap<>();
+
+    private Timer queueWait;
+    private Timer workspaceWait;
+    private Counter rejected;
+    private Counter inline;
+
+    @PostConstruct
+    public void init() {
+        if ("virtual".equalsIgnoreCase(mode)) {
+            executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ctx-task-", 0).factory());
+            virtualPermits = new Semaphore(maxConcurrency);
+        } else {
+            AtomicInteger threadIndex = new AtomicInteger();
+            executor = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(queueCapacity),
+                    r -> {
+                        Thread thread = new Thread(r, "ctx-task-" + threadIndex.getAndIncrement());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            ((ThreadPoolExecutor) executor).allowCoreThreadTimeOut(true);
+        }
+
+        Gauge.builder("context.executor.queue.depth", queued, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("context.executor.active", active, AtomicInteger::get).register(meterRegistry);
+        queueWait = Timer.builder("context.executor.queue.wait")
+                .description("Time from submit to task start")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        workspaceWait = Timer.builder("context.executor.workspace.wait")
+                .description("Time the submitting thread waited for a per-workspace slot")
+                .register(meterRegistry);
+        rejected = meterRegistry.counter("context.executor.rejected");
+        inline = meterRegistry.counter("context.executor.inline");
+        log.info("Context-aware executor started in {} mode (max concurrency {}, per-workspace limit {})",
+                mode, maxConcurrency, perWorkspaceLimit);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        if (IN_TASK.get() != null) {
+            // Already on an executor thread with the context bound
+            inline.increment();
+            try {
+                return CompletableFuture.completedFuture(task.call());
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        WorkspaceContext.Workspace workspace = WorkspaceContext.current();
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+        boolean admitted = OutboundRateLimiter.admittedOnCurrentThread();
+
+        // The thread-per-task executor has no queue of its own to bound
+        if (virtualPermits != null && queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            rejected.increment();
+            throw new StacklessSocialRavenException("Server is busy, please retry", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        WorkspaceSlot workspacePermit;
+        try {
+            workspacePermit = acquireWorkspacePermit(workspace);
+        } catch (RuntimeException e) {
+            if (virtualPermits != null) {
+                queued.decrementAndGet();
+            }
+            throw e;
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long submittedAt = System.nanoTime();
+        if (virtualPermits == null) {
+            queued.incrementAndGet();
+        }
+        try {
+            executor.execute(() -> run(task, workspace, securityContext, admitted, workspacePermit, submittedAt, result));
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            releaseWorkspacePermit(workspacePermit);
+            rejected.increment();
+            throw new StacklessSocialRavenException("Server is busy, please retry", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return result;
+    }
+
+    private <T> void run(Callable<T> task,
+                         WorkspaceContext.Workspace workspace,
+                         SecurityContext securityContext,
+                         boolean admitted,
+                         WorkspaceSlot workspacePermit,
+                         long submittedAt,
+                         CompletableFuture<T> result) {
+        try {
+            if (virtualPermits != null) {
+                virtualPermits.acquire();
+            }
+        } catch (InterruptedException e) {
+            queued.decrementAndGet();
+            releaseWorkspacePermit(workspacePermit);
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+            return;
+        }
+        queued.decrementAndGet();
+        active.incrementAndGet();
+        queueWait.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+
+        SecurityContext previousSecurityContext = SecurityContextHolder.getContext();
+        SecurityContextHolder.setContext(securityContext);
+        IN_TASK.set(Boolean.TRUE);
+        try (WorkspaceContext.Scope ignored = WorkspaceContext.bind(workspace);
+             OutboundRateLimiter.AdmissionScope ignoredAdmission = OutboundRateLimiter.bindAdmitted(admitted)) {
+            result.complete(task.call());
+        } catch (Throwable e) {
+            result.completeExceptionally(e);
+        } finally {
+            IN_TASK.remove();
+            SecurityContextHolder.setContext(previousSecurityContext);
+            active.decrementAndGet();
+            if (virtualPermits != null) {
+                virtualPermits.release();
+            }
+            releaseWorkspacePermit(workspacePermit);
+        }
+    }
+
+    /**
+     * @return the slot holding the acquired permit, or null if the task is not workspace-scoped
+     */
+    private WorkspaceSlot acquireWorkspacePermit(WorkspaceContext.Workspace workspace) {
+        if (workspace == null) {
+            return null;
+        }
+        String workspaceId = workspace.workspaceId();
+        WorkspaceSlot slot = workspaceSlots.compute(workspaceId, (id, existing) -> {
+            WorkspaceSlot current = existing == null ? new WorkspaceSlot(id, perWorkspaceLimit) : existing;
+            current.references++;
+            return current;
+        });
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = slot.permits.tryAcquire(permitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        } finally {
+            workspaceWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            dereference(slot);
+            rejected.increment();
+            throw new StacklessSocialRavenException("Too many concurrent tasks for this workspace",
+                    HttpStatus.TOO_MANY_REQUESTS);
+        }
+        return slot;
+    }
+
+    private void releaseWorkspacePermit(WorkspaceSlot slot) {
+        if (slot != null) {
+            slot.permits.release();
+            dereference(slot);
+        }
+    }
+
+    private void dereference(WorkspaceSlot slot) {
+        workspaceSlots.computeIfPresent(slot.workspaceId, (id, current) -> --current.references == 0 ? null : current);
+    }
+
+    /**
+     * Per-workspace permits plus the number of tasks holding or waiting for one. references is
+     * only read and written inside ConcurrentHashMap.compute for this workspace's key.
+     */
+    private static final class WorkspaceSlot {
+        private final String workspaceId;
+        private final Semaphore permits;
+        private int references;
+
+        private WorkspaceSlot(String workspaceId, int limit) {
+            this.workspaceId = workspaceId;
+            this.permits = new Semaphore(limit);
+        }
+    }
+}
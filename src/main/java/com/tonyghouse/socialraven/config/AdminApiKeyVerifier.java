@@ -0,0 +1,28 @@
+package com.tonyghouse.socialraven.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Checks the X-Admin-Key header that protects /admin/** (those routes bypass Clerk).
+ */
+@Component
+public class AdminApiKeyVerifier {
+
+    public static final String HEADER = "X-Admin-Key";
+
+    @Value("${socialraven.admin.api-key}")
+    private String adminApiKey;
+
+    public boolean isValid(String providedKey) {
+        if (providedKey == null || adminApiKey == null || adminApiKey.isBlank()) {
+            return false;
+        }
+        return MessageDigest.isEqual(
+                adminApiKey.getBytes(StandardCharsets.UTF_8),
+                providedKey.getBytes(StandardCharsets.UTF_8));
+    }
+}
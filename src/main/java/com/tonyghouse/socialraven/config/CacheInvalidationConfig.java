@@ -0,0 +1,27 @@
+package com.tonyghouse.socialraven.config;
+
+import com.tonyghouse.socialraven.cache.invalidation.CacheInvalidationTransport;
+import com.tonyghouse.socialraven.cache.invalidation.InProcessCacheInvalidationTransport;
+import com.tonyghouse.socialraven.cache.invalidation.RedisCacheInvalidationTransport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import redis.clients.jedis.JedisPool;
+
+@Configuration
+public class CacheInvalidationConfig {
+
+    @Value("${socialraven.cache.invalidation.transport:redis}")
+    private String transport;
+
+    @Value("${socialraven.cache.invalidation.channel:socialraven:cache-invalidation}")
+    private String channel;
+
+    @Bean
+    public CacheInvalidationTransport cacheInvalidationTransport(JedisPool jedisPool) {
+        if ("in-process".equalsIgnoreCase(transport)) {
+            return new InProcessCacheInvalidationTransport();
+        }
+        return new RedisCacheInvalidationTransport(jedisPool, channel);
+    }
+}
@@ -4,8 +4,11 @@ import com.clerk.backend_api.helpers.security.AuthenticateRequest;
 import com.clerk.backend_api.helpers.security.models.AuthenticateRequestOptions;
 import com.clerk.backend_api.helpers.security.models.RequestState;
 import com.clerk.backend_api.helpers.security.models.SessionAuthObjectV2;
+import com.tonyghouse.socialraven.cache.VerifiedSessionCache;
+import com.tonyghouse.socialraven.util.JwtUtil;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -25,6 +28,12 @@ public class ClerkAuthHelper {
     @Value("${socialraven.clerk.authorized-party}")
     private String authorizedParty;
 
+    @Autowired
+    private VerifiedSessionCache verifiedSessionCache;
+
+    @Autowired
+    private ClerkJwksKeyManager jwksKeyManager;
+
     private AuthenticateRequestOptions authenticateRequestOptions;
 
     @PostConstruct
@@ -37,7 +46,9 @@ public class ClerkAuthHelper {
             log.info("Clerk auth configured in networkless mode (jwtKey).");
         } else {
             builder = AuthenticateRequestOptions.secretKey(clerkSecretKey);
-            log.warn("Clerk auth is using secretKey mode (JWKS network call). Set CLERK_JWT_PUBLIC_KEY to enable networkless verification.");
+            log.warn("Clerk auth is using secretKey mode. Tokens are verified against the locally cached JWKS; "
+                    + "a JWKS network call is only made when no cached key is available. "
+                    + "Set CLERK_JWT_PUBLIC_KEY to skip the key store entirely.");
         }
 
         this.authenticateRequestOptions = builder
@@ -47,20 +58,42 @@ public class ClerkAuthHelper {
 
     public SessionAuthObjectV2 authenticate(Map<String, List<String>> requestHeaders) {
 
+        String sessionToken = VerifiedSessionCache.extractSessionToken(requestHeaders);
+        if (sessionToken != null) {
+            SessionAuthObjectV2 cached = verifiedSessionCache.get(sessionToken);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        AuthenticateRequestOptions options = resolveOptions(sessionToken);
+        if (options == null) {
+            return null;
+        }
+
         RequestState requestState = AuthenticateRequest.authenticateRequest(
                 requestHeaders,
-                authenticateRequestOptions
+                options
         );
 
         if (!requestState.isSignedIn()) {
             return null;
         }
 
-        return (SessionAuthObjectV2) requestState.toAuth();
+        SessionAuthObjectV2 auth = (SessionAuthObjectV2) requestState.toAuth();
+        if (sessionToken != null) {
+            verifiedSessionCache.put(sessionToken, auth);
+        }
+        return auth;
     }
 
     public boolean isSignedIn(Map<String, List<String>> requestHeaders) {
-        RequestState requestState = AuthenticateRequest.authenticateRequest(requestHeaders, authenticateRequestOptions);
+        String sessionToken = VerifiedSessionCache.extractSessionToken(requestHeaders);
+        AuthenticateRequestOptions options = resolveOptions(sessionToken);
+        if (options == null) {
+            return false;
+        }
+        RequestState requestState = AuthenticateRequest.authenticateRequest(requestHeaders, options);
         if (!requestState.isSignedIn()) {
             return false;
         }
@@ -68,6 +101,23 @@ public class ClerkAuthHelper {
         return requestState.isSignedIn();
     }
 
+    /**
+     * In secretKey mode, pin verification to the cached JWKS key matching the token's kid.
+     * Falls back to the secretKey options (network JWKS fetch) only when the key store has
+     * nothing at all, e.g. Clerk was unreachable at startup. Returns null when the kid is
+     * unknown even after a refetch: no key Clerk publishes can verify that token.
+     */
+    private AuthenticateRequestOptions resolveOptions(String sessionToken) {
+        if (!jwksKeyManager.isEnabled() || sessionToken == null) {
+            return authenticateRequestOptions;
+        }
+        AuthenticateRequestOptions pinned = jwksKeyManager.optionsFor(JwtUtil.readHeaderField(sessionToken, "kid"));
+        if (pinned != null || jwksKeyManager.hasKeys()) {
+            return pinned;
+        }
+        return authenticateRequestOptions;
+    }
+
     private String normalizeJwtKey(String jwtKey) {
         if (jwtKey == null) {
             return null;
@@ -2,6 +2,8 @@ package com.tonyghouse.socialraven.config;
 
 import com.clerk.backend_api.helpers.security.models.SessionAuthObjectV2;
 import com.tonyghouse.socialraven.model.ClerkAuthenticationToken;
+import com.tonyghouse.socialraven.timing.RequestStage;
+import com.tonyghouse.socialraven.timing.RequestTimings;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,10 +15,8 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @Component
 public class ClerkAuthenticationFilter extends OncePerRequestFilter {
@@ -30,21 +30,21 @@ public class ClerkAuthenticationFilter extends OncePerRequestFilter {
                                     FilterChain filterChain)
             throws ServletException, IOException {
 
-        Map<String, List<String>> requestHeaders = Collections.list(request.getHeaderNames())
-                .stream()
-                .collect(Collectors.toMap(
-                        h -> h,
-                        h -> Collections.list(request.getHeaders(h))
-                ));
+        // Clerk only needs Authorization and the __session cookie; read those through a lazy view
+        // instead of copying every request header
+        Map<String, List<String>> requestHeaders = new ClerkRequestHeaders(request);
 
+        long authStart = System.nanoTime();
         try {
             SessionAuthObjectV2 auth = clerkAuthHelper.authenticate(requestHeaders);
+            RequestTimings.record(request, RequestStage.AUTH, authStart);
             if (auth != null) {
                 ClerkAuthenticationToken authentication =
                         new ClerkAuthenticationToken(auth, List.of(new SimpleGrantedAuthority("USER")));
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             }
         } catch (Exception e) {
+            RequestTimings.record(request, RequestStage.AUTH, authStart);
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             return;
         }
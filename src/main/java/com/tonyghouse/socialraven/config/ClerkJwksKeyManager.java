@@ -0,0 +1,171 @@
+package com.tonyghouse.socialraven.config;
+
+import com.clerk.backend_api.helpers.security.models.AuthenticateRequestOptions;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigInteger;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Local JWKS key store for secretKey mode (CLERK_JWT_PUBLIC_KEY unset).
+ *
+ * Fetches Clerk's JWKS once at startup and on a fixed schedule, and keeps one prebuilt
+ * jwtKey-mode AuthenticateRequestOptions per kid so token verification stays networkless.
+ * An unknown kid (key rotation) triggers at most one refetch per min-refetch-interval.
+ */
+@Component
+@Slf4j
+public class ClerkJwksKeyManager {
+
+    @Value("${socialraven.clerk.secret}")
+    private String clerkSecretKey;
+
+    @Value("${socialraven.clerk.jwt-key:}")
+    private String clerkJwtKey;
+
+    @Value("${socialraven.clerk.authorized-party}")
+    private String authorizedParty;
+
+    @Value("${socialraven.clerk.jwks.url:https://api.clerk.com/v1/jwks}")
+    private String jwksUrl;
+
+    @Value("${socialraven.clerk.jwks.min-refetch-interval-ms:60000}")
+    private long minRefetchIntervalMs;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private volatile Map<String, AuthenticateRequestOptions> optionsByKid = Map.of();
+
+    private final AtomicLong lastFetchAttemptMillis = new AtomicLong();
+
+    // Not synchronized: a virtual thread blocked on the JWKS call must not pin its carrier
+    private final ReentrantLock fetchLock = new ReentrantLock();
+
+    @PostConstruct
+    public void init() {
+        if (!isEnabled()) {
+            return;
+        }
+        refresh();
+    }
+
+    /**
+     * jwtKey mode already verifies networklessly against the configured PEM; the key store
+     * is only needed when falling back to the secret key.
+     */
+    public boolean isEnabled() {
+        return clerkJwtKey == null || clerkJwtKey.isBlank();
+    }
+
+    public boolean hasKeys() {
+        return !optionsByKid.isEmpty();
+    }
+
+    /**
+     * Returns verification options pinned to the key with the given kid, refetching the JWKS
+     * (rate limited) if the kid is not known yet. Returns null if the kid is still unknown.
+     */
+    public AuthenticateRequestOptions optionsFor(String kid) {
+        if (kid == null) {
+            return null;
+        }
+        AuthenticateRequestOptions options = optionsByKid.get(kid);
+        if (options != null) {
+            return options;
+        }
+        if (tryClaimFetch()) {
+            log.info("Unknown Clerk JWKS kid '{}', refetching key set", kid);
+            fetch();
+        }
+        return optionsByKid.get(kid);
+    }
+
+    @Scheduled(fixedDelayString = "${socialraven.clerk.jwks.refresh-interval-ms:3600000}",
+            initialDelayString = "${socialraven.clerk.jwks.refresh-interval-ms:3600000}")
+    public void refresh() {
+        if (!isEnabled()) {
+            return;
+        }
+        lastFetchAttemptMillis.set(System.currentTimeMillis());
+        fetch();
+    }
+
+    private boolean tryClaimFetch() {
+        long now = System.currentTimeMillis();
+        long last = lastFetchAttemptMillis.get();
+        return now - last >= minRefetchIntervalMs && lastFetchAttemptMillis.compareAndSet(last, now);
+    }
+
+    private void fetch() {
+        fetchLock.lock();
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setBearerAuth(clerkSecretKey);
+            String body = restTemplate.exchange(jwksUrl, HttpMethod.GET, new HttpEntity<>(headers), String.class)
+                    .getBody();
+
+            Map<String, AuthenticateRequestOptions> fetched = parseKeys(body);
+            if (fetched.isEmpty()) {
+                log.warn("Clerk JWKS response contained no usable RSA keys; keeping {} cached key(s)",
+                        optionsByKid.size());
+                return;
+            }
+            this.optionsByKid = Map.copyOf(fetched);
+            log.info("Loaded {} Clerk JWKS key(s)", fetched.size());
+        } catch (Exception e) {
+            log.error("Failed to fetch Clerk JWKS from {}; keeping {} cached key(s)", jwksUrl, optionsByKid.size(), e);
+        } finally {
+            fetchLock.unlock();
+        }
+    }
+
+    private Map<String, AuthenticateRequestOptions> parseKeys(String body) throws Exception {
+        Map<String, AuthenticateRequestOptions> result = new HashMap<>();
+        JsonNode keys = objectMapper.readTree(body).path("keys");
+        for (JsonNode key : keys) {
+            String kid = key.path("kid").asText(null);
+            if (kid == null || !"RSA".equals(key.path("kty").asText())) {
+                continue;
+            }
+            String pem = toPem(key.path("n").asText(), key.path("e").asText());
+            result.put(kid, AuthenticateRequestOptions.jwtKey(pem)
+                    .authorizedParties(List.of(authorizedParty))
+                    .build());
+        }
+        return result;
+    }
+
+    private static String toPem(String modulus, String exponent) throws Exception {
+        Base64.Decoder decoder = Base64.getUrlDecoder();
+        RSAPublicKeySpec spec = new RSAPublicKeySpec(
+                new BigInteger(1, decoder.decode(modulus)),
+                new BigInteger(1, decoder.decode(exponent)));
+        PublicKey publicKey = KeyFactory.getInstance("RSA").generatePublic(spec);
+
+        String encoded = Base64.getMimeEncoder(64, "\n".getBytes()).encodeToString(publicKey.getEncoded());
+        return "-----BEGIN PUBLIC KEY-----\n" + encoded + "\n-----END PUBLIC KEY-----";
+    }
+}
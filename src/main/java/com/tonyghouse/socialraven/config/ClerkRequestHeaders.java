@@ -0,0 +1,138 @@
+package com.tonyghouse.socialraven.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Read-through, read-only header view handed to Clerk instead of a copy of every request header.
+ *
+ * Only the headers Clerk needs to locate the session token are exposed (Authorization and the
+ * Cookie header carrying __session). Each is read from the servlet request on first access and
+ * memoized, so a request typically allocates this view plus one single-element list.
+ */
+public final class ClerkRequestHeaders extends AbstractMap<String, List<String>> {
+
+    static final String AUTHORIZATION = "Authorization";
+    static final String COOKIE = "Cookie";
+
+    private static final List<String> ABSENT = List.of();
+
+    private final HttpServletRequest request;
+
+    private List<String> authorization;
+    private List<String> cookie;
+
+    public ClerkRequestHeaders(HttpServletRequest request) {
+        this.request = request;
+    }
+
+    @Override
+    public List<String> get(Object key) {
+        if (!(key instanceof String name)) {
+            return null;
+        }
+        if (AUTHORIZATION.equalsIgnoreCase(name)) {
+            return presentOrNull(authorization());
+        }
+        if (COOKIE.equalsIgnoreCase(name)) {
+            return presentOrNull(cookie());
+        }
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public Set<Entry<String, List<String>>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, List<String>>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return (authorization().isEmpty() ? 0 : 1) + (cookie().isEmpty() ? 0 : 1);
+            }
+        };
+    }
+
+    private List<String> authorization() {
+        if (authorization == null) {
+            authorization = read(AUTHORIZATION);
+        }
+        return authorization;
+    }
+
+    private List<String> cookie() {
+        if (cookie == null) {
+            cookie = read(COOKIE);
+        }
+        return cookie;
+    }
+
+    private List<String> read(String name) {
+        Enumeration<String> values = request.getHeaders(name);
+        if (values == null || !values.hasMoreElements()) {
+            return ABSENT;
+        }
+        String first = values.nextElement();
+        if (!values.hasMoreElements()) {
+            return List.of(first);
+        }
+        List<String> all = new ArrayList<>(2);
+        all.add(first);
+        while (values.hasMoreElements()) {
+            all.add(values.nextElement());
+        }
+        return List.copyOf(all);
+    }
+
+    private static List<String> presentOrNull(List<String> values) {
+        return values.isEmpty() ? null : values;
+    }
+
+    private final class EntryIterator implements Iterator<Entry<String, List<String>>> {
+
+        private int next = advance(0);
+
+        @Override
+        public boolean hasNext() {
+            return next < 2;
+        }
+
+        @Override
+        public Entry<String, List<String>> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Entry<String, List<String>> entry = next == 0
+                    ? Map.entry(AUTHORIZATION, authorization())
+                    : Map.entry(COOKIE, cookie());
+            next = advance(next + 1);
+            return entry;
+        }
+
+        private int advance(int from) {
+            if (from == 0 && !authorization().isEmpty()) {
+                return 0;
+            }
+            if (from <= 1 && !cookie().isEmpty()) {
+                return 1;
+            }
+            return 2;
+        }
+    }
+}
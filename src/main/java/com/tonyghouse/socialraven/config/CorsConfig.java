@@ -28,7 +28,8 @@ public class CorsConfig {
         configuration.setAllowedHeaders(List.of("*"));
         configuration.setExposedHeaders(List.of(
                 "X-Presign-Latency-Ms",
-                "Server-Timing"
+                "Server-Timing",
+                "Idempotent-Replayed"
         ));
         configuration.setAllowCredentials(true);
 
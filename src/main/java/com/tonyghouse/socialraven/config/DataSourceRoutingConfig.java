@@ -0,0 +1,83 @@
+package com.tonyghouse.socialraven.config;
+
+import com.tonyghouse.socialraven.datasource.ReadWriteRoutingDataSource;
+import com.tonyghouse.socialraven.health.DependencyHealthMonitor;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Splits database traffic over two Hikari pools when socialraven.datasource.replica.enabled=true:
+ * "primary" (spring.datasource.*) for writes and "replica" (socialraven.datasource.replica.*)
+ * for read-only work, routed by DataSourceRouting. Without it, Spring Boot's single pool is used
+ * as before.
+ *
+ * Both pools are plain HikariDataSource beans, so Boot's Hikari metrics (hikaricp.connections.*,
+ * including the acquire timer and pending threads) are reported per pool. Flyway always
+ * migrates the primary. Replica reads go to the primary while the replica fails its health probe.
+ */
+@Configuration
+@ConditionalOnProperty(name = "socialraven.datasource.replica.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    public static final String PRIMARY_POOL_NAME = "primary";
+    public static final String REPLICA_POOL_NAME = "replica";
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(PRIMARY_POOL_NAME);
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("socialraven.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${socialraven.datasource.replica.url}") String url,
+                                              @Value("${socialraven.datasource.replica.username:}") String username,
+                                              @Value("${socialraven.datasource.replica.password:}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username.isBlank() ? properties.determineUsername() : username)
+                .password(password.isBlank() ? properties.determinePassword() : password)
+                .build();
+        dataSource.setPoolName(REPLICA_POOL_NAME);
+        // A write that slips through the routing fails loudly instead of hitting a writable stand-in
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") HikariDataSource replicaDataSource,
+                                 ObjectProvider<DependencyHealthMonitor> healthMonitor,
+                                 MeterRegistry meterRegistry) {
+        // Looked up lazily: the monitor itself needs the pools
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource,
+                () -> {
+                    DependencyHealthMonitor monitor = healthMonitor.getIfAvailable();
+                    return monitor == null || monitor.isPoolHealthy(REPLICA_POOL_NAME);
+                },
+                meterRegistry);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -0,0 +1,49 @@
+package com.tonyghouse.socialraven.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The fast-startup profile turns on spring.main.lazy-initialization, so integration clients,
+ * controllers and their dependencies are built on first use instead of before the first request.
+ *
+ * Some beans only work if they exist from the start and are kept eager here:
+ * - beans in socialraven.startup.eager-packages, i.e. everything that listens on the
+ *   CacheInvalidationBus (a lazily created listener would miss revocations and pins sent earlier)
+ * - beans with @Scheduled methods, which are only scheduled once the bean is created
+ */
+@Configuration
+@Profile("fast-startup")
+public class FastStartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerStartupBeans(Environment environment) {
+        List<String> eagerPackages = Arrays.stream(environment.getProperty("socialraven.startup.eager-packages", "").split(","))
+                .map(String::trim)
+                .filter(prefix -> !prefix.isEmpty())
+                .map(prefix -> prefix + ".")
+                .toList();
+        return (beanName, beanDefinition, beanType) -> {
+            if (beanType == null) {
+                return false;
+            }
+            String typeName = beanType.getName();
+            for (String prefix : eagerPackages) {
+                if (typeName.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return !MethodIntrospector.selectMethods(beanType, (MethodIntrospector.MetadataLookup<Boolean>) method ->
+                    AnnotatedElementUtils.hasAnnotation(method, Scheduled.class) ? Boolean.TRUE : null).isEmpty();
+        };
+    }
+}
@@ -0,0 +1,88 @@
+package com.tonyghouse.socialraven.config;
+
+import com.tonyghouse.socialraven.http.OutboundHostConcurrencyInterceptor;
+import com.tonyghouse.socialraven.http.OutboundHttpMetricsInterceptor;
+import com.tonyghouse.socialraven.http.OutboundRateLimitInterceptor;
+import com.tonyghouse.socialraven.http.OutboundRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * Shared outbound HTTP stack for all platform integrations.
+ *
+ * One JDK HttpClient: keeps a keep-alive connection pool per host, negotiates HTTP/2 via ALPN
+ * where the platform supports it (falling back to HTTP/1.1), and enforces connect timeouts.
+ * Redirects are followed (except HTTPS to HTTP) unless socialraven.http.follow-redirects=false.
+ * The RestTemplate on top adds the read timeout, social-platform rate limits (before anything
+ * else, so a call waiting for tokens holds no connection slot), per-platform metrics and the
+ * per-host concurrency cap.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Value("${socialraven.http.connect-timeout-ms:3000}")
+    private long connectTimeoutMs;
+
+    @Value("${socialraven.http.read-timeout-ms:15000}")
+    private long readTimeoutMs;
+
+    @Value("${socialraven.http.keepalive-timeout-seconds:60}")
+    private long keepAliveTimeoutSeconds;
+
+    @Value("${socialraven.http.max-connections-per-host:0}")
+    private int maxConnectionsPerHost;
+
+    @Value("${socialraven.http.connection-acquire-timeout-ms:5000}")
+    private long connectionAcquireTimeoutMs;
+
+    @Value("${socialraven.http.idle-pool-size:0}")
+    private int idlePoolSize;
+
+    @Value("${socialraven.http.follow-redirects:true}")
+    private boolean followRedirects;
+
+    @Bean
+    public HttpClient outboundHttpClient() {
+        // JVM-wide and read once, when the JDK client classes load: these only take effect if no
+        // HttpClient was built before this bean (otherwise pass them as -D JVM options).
+        // connectionPoolSize caps idle keep-alive HTTP/1.1 connections across all hosts
+        setIfAbsent("jdk.httpclient.keepalive.timeout", String.valueOf(keepAliveTimeoutSeconds));
+        setIfAbsent("jdk.httpclient.connectionPoolSize", String.valueOf(idlePoolSize));
+
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(followRedirects ? HttpClient.Redirect.NORMAL : HttpClient.Redirect.NEVER)
+                .build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(HttpClient outboundHttpClient,
+                                     OutboundRateLimiter outboundRateLimiter,
+                                     MeterRegistry meterRegistry) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(outboundHttpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        restTemplate.getInterceptors().add(new OutboundRateLimitInterceptor(outboundRateLimiter));
+        restTemplate.getInterceptors().add(new OutboundHttpMetricsInterceptor(meterRegistry));
+        if (maxConnectionsPerHost > 0) {
+            restTemplate.getInterceptors().add(new OutboundHostConcurrencyInterceptor(
+                    maxConnectionsPerHost, connectionAcquireTimeoutMs, meterRegistry));
+        }
+        return restTemplate;
+    }
+
+    private static void setIfAbsent(String property, String value) {
+        if (System.getProperty(property) == null) {
+            System.setProperty(property, value);
+        }
+    }
+}
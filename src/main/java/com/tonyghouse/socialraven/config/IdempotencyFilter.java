@@ -0,0 +1,308 @@
+package com.tonyghouse.socialraven.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tonyghouse.socialraven.dto.SocialRavenError;
+import com.tonyghouse.socialraven.idempotency.BoundedCachingResponseWrapper;
+import com.tonyghouse.socialraven.idempotency.CachedBodyRequest;
+import com.tonyghouse.socialraven.idempotency.IdempotencyRecord;
+import com.tonyghouse.socialraven.idempotency.IdempotencyStore;
+import com.tonyghouse.socialraven.model.ClerkAuthenticationToken;
+import com.tonyghouse.socialraven.util.SecurityContextUtil;
+import com.tonyghouse.socialraven.util.WorkspaceContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs after InboundRateLimitFilter.
+ * Makes POST/PUT/PATCH/DELETE requests carrying an Idempotency-Key header safe to retry: the
+ * first request with a key (per user and workspace) executes, and its response is stored in
+ * Redis (IdempotencyStore) and replayed to every retry with Idempotent-Replayed: true.
+ * Duplicates arriving while the first is still running wait for its result (in memory on the
+ * same node, by polling Redis across nodes) instead of executing again.
+ *
+ * Requests with a body over max-request-bytes (declared, or found while reading a chunked
+ * body) run uncached. Only final outcomes are stored: 5xx, 408/409/425/429 (the client is told
+ * to come back later), responses over max-response-bytes (streamed, not buffered, past that
+ * size) and requests that throw release the key, so a retry executes again. Reusing a key for a different request gets 422,
+ * and a duplicate that outwaits wait-ms gets 409 with Retry-After.
+ *
+ * Metrics: http.server.idempotency{outcome}, outcome executed | replayed | uncached |
+ * mismatch | conflict. Hit rate = replayed / (replayed + executed).
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    /** 4xx statuses that mean "not now" rather than a final answer. */
+    private static final Set<Integer> TRANSIENT_STATUSES = Set.of(408, 409, 425, 429);
+
+    @Value("${socialraven.idempotency.enabled:true}")
+    private boolean enabled;
+
+    @Value("${socialraven.idempotency.wait-ms:10000}")
+    private long waitMs;
+
+    @Value("${socialraven.idempotency.poll-interval-ms:100}")
+    private long pollIntervalMs;
+
+    @Value("${socialraven.idempotency.max-request-bytes:1048576}")
+    private long maxRequestBytes;
+
+    @Value("${socialraven.idempotency.max-response-bytes:262144}")
+    private int maxResponseBytes;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** Requests executing on this node, by store key; completed with the stored response or null. */
+    private final Map<String, CompletableFuture<IdempotencyRecord>> executing = new ConcurrentHashMap<>();
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !enabled || request.getHeader(HEADER) == null
+                || !("POST".equals(method) || "PUT".equals(method) || "PATCH".equals(method) || "DELETE".equals(method));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String idempotencyKey = request.getHeader(HEADER).trim();
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            reject(response, HttpStatus.BAD_REQUEST, "IDEMPOTENCY_KEY_INVALID",
+                    HEADER + " must be 1-" + MAX_KEY_LENGTH + " characters", 0);
+            return;
+        }
+        if (!(SecurityContextHolder.getContext().getAuthentication() instanceof ClerkAuthenticationToken)
+                || request.getContentLengthLong() > maxRequestBytes) {
+            count("uncached");
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        HttpServletRequest requestToRun = request;
+        byte[] body = new byte[0];
+        if (!hasParameterBody(request)) {
+            // Read the body up front to fingerprint it; downstream reads the cached copy. Chunked
+            // bodies declare no length, so the read itself is bounded
+            body = request.getInputStream().readNBytes((int) Math.min(maxRequestBytes + 1, Integer.MAX_VALUE - 8));
+            if (body.length > maxRequestBytes) {
+                count("uncached");
+                filterChain.doFilter(CachedBodyRequest.withRemainder(request, body), response);
+                return;
+            }
+            requestToRun = new CachedBodyRequest(request, body);
+        }
+        String fingerprint = fingerprint(request, body);
+        String storeKey = IdempotencyStore.key(
+                SecurityContextUtil.getUserId(SecurityContextHolder.getContext()),
+                WorkspaceContext.getWorkspaceId(),
+                idempotencyKey);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMs);
+
+        while (true) {
+            CompletableFuture<IdempotencyRecord> mine = new CompletableFuture<>();
+            CompletableFuture<IdempotencyRecord> local = executing.putIfAbsent(storeKey, mine);
+            if (local != null) {
+                IdempotencyRecord result = awaitLocal(local, deadline);
+                if (result != null) {
+                    replay(result, fingerprint, response);
+                    return;
+                }
+                if (System.nanoTime() >= deadline) {
+                    conflict(response);
+                    return;
+                }
+                // The first execution wasn't stored (error or too large): try to run it ourselves
+                continue;
+            }
+
+            try {
+                IdempotencyRecord existing = idempotencyStore.tryAcquire(storeKey, fingerprint);
+                if (existing == null) {
+                    mine.complete(execute(requestToRun, response, filterChain, storeKey, fingerprint));
+                    return;
+                }
+                if (!existing.completed()) {
+                    // Running on another node
+                    existing = awaitRemote(storeKey, deadline);
+                }
+                if (existing != null) {
+                    mine.complete(existing);
+                    replay(existing, fingerprint, response);
+                    return;
+                }
+                if (System.nanoTime() >= deadline) {
+                    conflict(response);
+                    return;
+                }
+            } finally {
+                mine.complete(null);
+                executing.remove(storeKey, mine);
+            }
+        }
+    }
+
+    /**
+     * Runs the request and stores its response.
+     *
+     * @return the stored response, or null if it was not stored
+     */
+    private IdempotencyRecord execute(HttpServletRequest request,
+                                      HttpServletResponse response,
+                                      FilterChain filterChain,
+                                      String storeKey,
+                                      String fingerprint) throws ServletException, IOException {
+        BoundedCachingResponseWrapper wrapper = new BoundedCachingResponseWrapper(response, maxResponseBytes);
+        IdempotencyRecord stored = null;
+        try {
+            filterChain.doFilter(request, wrapper);
+            int status = wrapper.getStatus();
+            if (status < 500 && !TRANSIENT_STATUSES.contains(status) && !wrapper.isOverflowed()) {
+                stored = new IdempotencyRecord(true, fingerprint, status, wrapper.getContentType(),
+                        wrapper.getHeader(HttpHeaders.LOCATION), wrapper.getContentAsByteArray());
+                idempotencyStore.complete(storeKey, stored);
+            }
+        } finally {
+            if (stored == null) {
+                idempotencyStore.release(storeKey);
+            }
+            count(stored == null ? "uncached" : "executed");
+            wrapper.copyBodyToResponse();
+        }
+        return stored;
+    }
+
+    private IdempotencyRecord awaitLocal(CompletableFuture<IdempotencyRecord> local, long deadline) {
+        try {
+            return local.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * @return the completed response, or null once the marker is gone or the deadline passed
+     */
+    private IdempotencyRecord awaitRemote(String storeKey, long deadline) {
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(pollIntervalMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            IdempotencyRecord record = idempotencyStore.get(storeKey);
+            if (record == null || record.completed()) {
+                return record;
+            }
+        }
+        return null;
+    }
+
+    private void replay(IdempotencyRecord record, String fingerprint, HttpServletResponse response) throws IOException {
+        if (!record.fingerprint().equals(fingerprint)) {
+            count("mismatch");
+            reject(response, HttpStatus.UNPROCESSABLE_ENTITY, "IDEMPOTENCY_KEY_REUSED",
+                    HEADER + " was already used for a different request", 0);
+            return;
+        }
+        count("replayed");
+        response.setStatus(record.status());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (record.contentType() != null) {
+            response.setContentType(record.contentType());
+        }
+        if (record.location() != null) {
+            response.setHeader(HttpHeaders.LOCATION, record.location());
+        }
+        if (record.body() != null && record.body().length > 0) {
+            response.setContentLength(record.body().length);
+            response.getOutputStream().write(record.body());
+        }
+    }
+
+    private void conflict(HttpServletResponse response) throws IOException {
+        count("conflict");
+        reject(response, HttpStatus.CONFLICT, "IDEMPOTENCY_IN_PROGRESS",
+                "A request with this " + HEADER + " is still being processed", 1);
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String code, String message,
+                        long retryAfterSeconds) throws IOException {
+        response.setStatus(status.value());
+        if (retryAfterSeconds > 0) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new SocialRavenError(message, code, Instant.now()));
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("http.server.idempotency", "outcome", outcome).increment();
+    }
+
+    /**
+     * Form and multipart bodies are parsed by the container from the raw stream, so they are left
+     * unread and only their length goes into the fingerprint.
+     */
+    private static boolean hasParameterBody(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null
+                && (contentType.startsWith(MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+                || contentType.startsWith("multipart/"));
+    }
+
+    private static String fingerprint(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod() + " " + request.getRequestURI() + "?" + request.getQueryString()
+                    + "\n" + request.getContentLengthLong() + "\n").getBytes(StandardCharsets.UTF_8));
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
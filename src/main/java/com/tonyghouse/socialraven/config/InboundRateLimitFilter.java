@@ -0,0 +1,106 @@
+package com.tonyghouse.socialraven.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tonyghouse.socialraven.dto.SocialRavenError;
+import com.tonyghouse.socialraven.ratelimit.InboundRateLimitPolicy;
+import com.tonyghouse.socialraven.ratelimit.SlidingWindowLeaseLimiter;
+import com.tonyghouse.socialraven.util.SecurityContextUtil;
+import com.tonyghouse.socialraven.util.WorkspaceContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Instant;
+
+/**
+ * Runs after WorkspaceAccessFilter.
+ * Admits authenticated requests against a per-user and a per-workspace quota (limits come from
+ * the workspace's plan, see InboundRateLimitPolicy). Rejected requests get 429 with Retry-After
+ * before they reach a controller or the connection pool.
+ */
+@Component
+public class InboundRateLimitFilter extends OncePerRequestFilter {
+
+    @Value("${socialraven.rate-limit.inbound.enabled:true}")
+    private boolean enabled;
+
+    @Autowired
+    private SlidingWindowLeaseLimiter limiter;
+
+    @Autowired
+    private InboundRateLimitPolicy policy;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getServletPath();
+        return !enabled || path.startsWith("/public/") || path.startsWith("/admin/")
+                || "OPTIONS".equalsIgnoreCase(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        var auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String userId = SecurityContextUtil.getUserId(SecurityContextHolder.getContext());
+        String workspaceId = WorkspaceContext.getWorkspaceId();
+        String plan = policy.planFor(workspaceId);
+
+        // Workspace first: a workspace over its quota should not also burn its members' user quota
+        if (workspaceId != null) {
+            long retryAfter = limiter.tryAcquire("ws:" + workspaceId, policy.workspaceLimit(plan));
+            if (retryAfter > 0) {
+                reject(response, "workspace", plan, retryAfter);
+                return;
+            }
+        }
+        if (userId != null) {
+            long retryAfter = limiter.tryAcquire("user:" + userId, policy.userLimit(plan));
+            if (retryAfter > 0) {
+                // The request never runs, so it must not count against the workspace either
+                if (workspaceId != null) {
+                    limiter.refund("ws:" + workspaceId);
+                }
+                reject(response, "user", plan, retryAfter);
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private void reject(HttpServletResponse response, String scope, String plan, long retryAfterSeconds)
+            throws IOException {
+        meterRegistry.counter("http.server.ratelimit.shed", "scope", scope, "plan", plan).increment();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new SocialRavenError(
+                "Too many requests, retry in " + retryAfterSeconds + "s",
+                "RATE_LIMITED",
+                Instant.now()));
+    }
+}
@@ -0,0 +1,25 @@
+package com.tonyghouse.socialraven.config;
+
+import com.tonyghouse.socialraven.outbox.InProcessOutboxTransport;
+import com.tonyghouse.socialraven.outbox.OutboxTransport;
+import com.tonyghouse.socialraven.outbox.RabbitOutboxTransport;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class OutboxConfig {
+
+    @Value("${socialraven.outbox.transport:rabbit}")
+    private String transport;
+
+    @Bean
+    public OutboxTransport outboxTransport(ObjectProvider<RabbitTemplate> rabbitTemplate) {
+        if ("in-process".equalsIgnoreCase(transport)) {
+            return new InProcessOutboxTransport();
+        }
+        return new RabbitOutboxTransport(rabbitTemplate.getObject());
+    }
+}
@@ -0,0 +1,65 @@
+package com.tonyghouse.socialraven.config;
+
+import com.tonyghouse.socialraven.datasource.DataSourceRouting;
+import com.tonyghouse.socialraven.datasource.ReadYourWritesTracker;
+import com.tonyghouse.socialraven.model.ClerkAuthenticationToken;
+import com.tonyghouse.socialraven.util.SecurityContextUtil;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Runs after IdempotencyFilter when read replicas are enabled.
+ * GET/HEAD requests may read from the replica, unless the caller wrote within the
+ * read-your-writes window; every other request stays on the primary and starts that window.
+ * Read-write transactions go to the primary regardless (see DataSourceRouting).
+ */
+@Component
+public class ReadReplicaRoutingFilter extends OncePerRequestFilter {
+
+    @Value("${socialraven.datasource.replica.enabled:false}")
+    private boolean enabled;
+
+    @Autowired
+    private ReadYourWritesTracker readYourWritesTracker;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || "OPTIONS".equalsIgnoreCase(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String userId = SecurityContextHolder.getContext().getAuthentication() instanceof ClerkAuthenticationToken
+                ? SecurityContextUtil.getUserId(SecurityContextHolder.getContext())
+                : null;
+        String method = request.getMethod();
+        boolean read = "GET".equalsIgnoreCase(method) || "HEAD".equalsIgnoreCase(method);
+
+        if (read && (userId == null || !readYourWritesTracker.isPinned(userId))) {
+            try (DataSourceRouting.Scope ignored = DataSourceRouting.preferReplica()) {
+                filterChain.doFilter(request, response);
+            }
+            return;
+        }
+        try (DataSourceRouting.Scope ignored = DataSourceRouting.pinPrimary()) {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (!read && userId != null) {
+                readYourWritesTracker.recordWrite(userId);
+            }
+        }
+    }
+}
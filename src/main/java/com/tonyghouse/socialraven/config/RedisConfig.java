@@ -0,0 +1,42 @@
+package com.tonyghouse.socialraven.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+
+import java.net.URI;
+import java.time.Duration;
+
+@Configuration
+public class RedisConfig {
+
+    @Value("${redis.public.url}")
+    private String redisUrl;
+
+    @Value("${redis.pool.max-total:30}")
+    private int maxTotal;
+
+    @Value("${redis.pool.max-idle:10}")
+    private int maxIdle;
+
+    @Value("${redis.pool.min-idle:2}")
+    private int minIdle;
+
+    @Value("${redis.pool.max-wait-ms:200}")
+    private long maxWaitMs;
+
+    @Bean(destroyMethod = "close")
+    public JedisPool jedisPool() {
+        JedisPoolConfig poolConfig = new JedisPoolConfig();
+        poolConfig.setMaxTotal(maxTotal);
+        poolConfig.setMaxIdle(maxIdle);
+        poolConfig.setMinIdle(minIdle);
+        // Cache lookups sit on the request path — fail over to the DB rather than queue for a connection
+        poolConfig.setMaxWait(Duration.ofMillis(maxWaitMs));
+        poolConfig.setJmxEnabled(false);
+
+        return new JedisPool(poolConfig, URI.create(redisUrl));
+    }
+}
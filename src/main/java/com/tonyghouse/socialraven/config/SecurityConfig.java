@@ -18,6 +18,15 @@ public class SecurityConfig {
     @Autowired
     private WorkspaceAccessFilter workspaceAccessFilter;
 
+    @Autowired
+    private InboundRateLimitFilter inboundRateLimitFilter;
+
+    @Autowired
+    private IdempotencyFilter idempotencyFilter;
+
+    @Autowired
+    private ReadReplicaRoutingFilter readReplicaRoutingFilter;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
 
@@ -37,7 +46,13 @@ public class SecurityConfig {
                 .addFilterBefore(clerkAuthenticationFilter,
                         UsernamePasswordAuthenticationFilter.class)
                 .addFilterAfter(workspaceAccessFilter,
-                        ClerkAuthenticationFilter.class);
+                        ClerkAuthenticationFilter.class)
+                .addFilterAfter(inboundRateLimitFilter,
+                        WorkspaceAccessFilter.class)
+                .addFilterAfter(idempotencyFilter,
+                        InboundRateLimitFilter.class)
+                .addFilterAfter(readReplicaRoutingFilter,
+                        IdempotencyFilter.class);
 
         return http.build();
     }
@@ -0,0 +1,19 @@
+package com.tonyghouse.socialraven.config;
+
+import com.tonyghouse.socialraven.interceptor.WorkspaceRoleInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private WorkspaceRoleInterceptor workspaceRoleInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(workspaceRoleInterceptor);
+    }
+}
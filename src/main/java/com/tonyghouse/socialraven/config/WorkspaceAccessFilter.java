@@ -1,12 +1,16 @@
 package com.tonyghouse.socialraven.config;
 
+import com.tonyghouse.socialraven.cache.WorkspaceRoleCache;
 import com.tonyghouse.socialraven.constant.WorkspaceRole;
+import com.tonyghouse.socialraven.timing.RequestStage;
+import com.tonyghouse.socialraven.timing.RequestTimings;
 import com.tonyghouse.socialraven.util.SecurityContextUtil;
 import com.tonyghouse.socialraven.util.WorkspaceContext;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -15,12 +19,15 @@ import java.io.IOException;
 
 /**
  * Runs after ClerkAuthenticationFilter.
- * Resolves the workspace for the current request from the X-Workspace-Id header.
- * DB-backed role resolution will be wired when the workspace feature is implemented.
+ * Resolves the workspace for the current request from the X-Workspace-Id header and the
+ * caller's role in it (via WorkspaceRoleCache). Non-members are rejected with 403.
  */
 @Component
 public class WorkspaceAccessFilter extends OncePerRequestFilter {
 
+    @Autowired
+    private WorkspaceRoleCache workspaceRoleCache;
+
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
         String path = request.getServletPath();
@@ -47,17 +54,20 @@ public class WorkspaceAccessFilter extends OncePerRequestFilter {
             return;
         }
 
-        try {
-            String requestedWorkspaceId = request.getHeader("X-Workspace-Id");
-            if (requestedWorkspaceId == null || requestedWorkspaceId.isBlank()) {
-                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
-                return;
-            }
-            // TODO: replace with DB-backed role lookup when workspace feature is implemented
-            WorkspaceContext.set(requestedWorkspaceId, WorkspaceRole.OWNER);
+        String requestedWorkspaceId = request.getHeader("X-Workspace-Id");
+        if (requestedWorkspaceId == null || requestedWorkspaceId.isBlank()) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        long resolveStart = System.nanoTime();
+        WorkspaceRole role = workspaceRoleCache.getRole(userId, requestedWorkspaceId);
+        RequestTimings.record(request, RequestStage.WORKSPACE, resolveStart);
+        if (role == null) {
+            response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        try (WorkspaceContext.Scope ignored = WorkspaceContext.bind(requestedWorkspaceId, role)) {
             filterChain.doFilter(request, response);
-        } finally {
-            WorkspaceContext.clear();
         }
     }
 }
@@ -0,0 +1,59 @@
+package com.tonyghouse.socialraven.controller;
+
+import com.tonyghouse.socialraven.config.AdminApiKeyVerifier;
+import com.tonyghouse.socialraven.event.UserStatusChangedEvent;
+import com.tonyghouse.socialraven.event.WorkspaceRoleChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Memberships and user status are written by the service that owns workspace_member and the user
+ * records, not by this one. That service calls these endpoints after committing a change, so
+ * cached authorization state is evicted on every node.
+ */
+@RestController
+@RequestMapping("/admin/cache")
+public class AdminCacheController {
+
+    @Autowired
+    private AdminApiKeyVerifier adminApiKeyVerifier;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * A user's membership or role in a workspace was created, changed or removed.
+     */
+    @PostMapping("/workspace-role-changed")
+    public ResponseEntity<Void> workspaceRoleChanged(
+            @RequestHeader(value = AdminApiKeyVerifier.HEADER, required = false) String adminKey,
+            @RequestParam String userId,
+            @RequestParam String workspaceId) {
+        if (!adminApiKeyVerifier.isValid(adminKey)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        eventPublisher.publishEvent(new WorkspaceRoleChangedEvent(userId, workspaceId));
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * A user's account status changed, e.g. on deactivation.
+     */
+    @PostMapping("/user-status-changed")
+    public ResponseEntity<Void> userStatusChanged(
+            @RequestHeader(value = AdminApiKeyVerifier.HEADER, required = false) String adminKey,
+            @RequestParam String userId) {
+        if (!adminApiKeyVerifier.isValid(adminKey)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        eventPublisher.publishEvent(new UserStatusChangedEvent(userId));
+        return ResponseEntity.noContent().build();
+    }
+}
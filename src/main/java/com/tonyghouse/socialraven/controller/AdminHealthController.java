@@ -0,0 +1,35 @@
+package com.tonyghouse.socialraven.controller;
+
+import com.tonyghouse.socialraven.config.AdminApiKeyVerifier;
+import com.tonyghouse.socialraven.health.DependencyHealthMonitor;
+import com.tonyghouse.socialraven.health.HealthSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/admin/health")
+public class AdminHealthController {
+
+    @Autowired
+    private AdminApiKeyVerifier adminApiKeyVerifier;
+
+    @Autowired
+    private DependencyHealthMonitor dependencyHealthMonitor;
+
+    /**
+     * The full health snapshot, including why each unhealthy probe failed.
+     */
+    @GetMapping
+    public ResponseEntity<HealthSnapshot> getHealth(
+            @RequestHeader(value = AdminApiKeyVerifier.HEADER, required = false) String adminKey) {
+        if (!adminApiKeyVerifier.isValid(adminKey)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(dependencyHealthMonitor.readiness());
+    }
+}
@@ -0,0 +1,67 @@
+package com.tonyghouse.socialraven.controller;
+
+import com.tonyghouse.socialraven.config.AdminApiKeyVerifier;
+import com.tonyghouse.socialraven.dto.StageLatency;
+import com.tonyghouse.socialraven.timing.RequestStage;
+import com.tonyghouse.socialraven.timing.RequestStageMetrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/admin/metrics")
+public class AdminMetricsController {
+
+    @Autowired
+    private AdminApiKeyVerifier adminApiKeyVerifier;
+
+    @Autowired
+    private RequestStageMetrics requestStageMetrics;
+
+    /**
+     * Latency distribution of each request pipeline stage since startup.
+     */
+    @GetMapping("/request-stages")
+    public ResponseEntity<List<StageLatency>> getRequestStages(
+            @RequestHeader(value = AdminApiKeyVerifier.HEADER, required = false) String adminKey) {
+        if (!adminApiKeyVerifier.isValid(adminKey)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        List<StageLatency> stages = new ArrayList<>();
+        for (Map.Entry<RequestStage, Timer> entry : requestStageMetrics.getStageTimers().entrySet()) {
+            stages.add(toStageLatency(entry.getKey().getMetricName(), entry.getValue()));
+        }
+        stages.add(toStageLatency("total", requestStageMetrics.getPipelineTimer()));
+        return ResponseEntity.ok(stages);
+    }
+
+    private static StageLatency toStageLatency(String stage, Timer timer) {
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        double p50 = 0, p95 = 0, p99 = 0;
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            double ms = value.value(TimeUnit.MILLISECONDS);
+            if (value.percentile() == 0.5) {
+                p50 = ms;
+            } else if (value.percentile() == 0.95) {
+                p95 = ms;
+            } else if (value.percentile() == 0.99) {
+                p99 = ms;
+            }
+        }
+        return new StageLatency(stage, snapshot.count(), snapshot.mean(TimeUnit.MILLISECONDS),
+                snapshot.max(TimeUnit.MILLISECONDS), p50, p95, p99);
+    }
+}
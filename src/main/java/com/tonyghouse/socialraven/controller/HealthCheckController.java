@@ -1,25 +1,48 @@
 package com.tonyghouse.socialraven.controller;
 
+import com.tonyghouse.socialraven.health.DependencyHealthMonitor;
+import com.tonyghouse.socialraven.health.HealthSnapshot;
+import com.tonyghouse.socialraven.health.HealthSummary;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 
 import java.time.ZonedDateTime;
+import java.util.Map;
 
 //@RestController
 
+/**
+ * Health endpoints for the load balancer and orchestrator. They answer from the snapshot kept by
+ * DependencyHealthMonitor and never touch a dependency themselves.
+ *
+ * /public/health and /public/health/ready: 200 when ready, 503 otherwise, with a HealthSummary
+ * (no probe details; those are on /admin/health).
+ * /public/health/live: 200 unless the health monitor itself is stuck.
+ */
 @Controller
 public class HealthCheckController {
 
+	@Autowired
+	private DependencyHealthMonitor dependencyHealthMonitor;
+
 	@GetMapping(value="/", produces = "application/json")
 	public ResponseEntity<String> checkHome() {
 		return new ResponseEntity<>("SocialRaven API Home: " + ZonedDateTime.now(), HttpStatus.OK);
 	}
 
-	@GetMapping(value="/public/health", produces = "application/json")
-	public ResponseEntity<String> checkHealth() {
-		return new ResponseEntity<>("SocialRaven API Healthy: " + ZonedDateTime.now(), HttpStatus.OK);
+	@GetMapping(value={"/public/health", "/public/health/ready"}, produces = "application/json")
+	public ResponseEntity<HealthSummary> checkHealth() {
+		HealthSnapshot snapshot = dependencyHealthMonitor.readiness();
+		return new ResponseEntity<>(HealthSummary.of(snapshot), snapshot.ready() ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE);
+	}
+
+	@GetMapping(value="/public/health/live", produces = "application/json")
+	public ResponseEntity<Map<String, Boolean>> checkLiveness() {
+		boolean live = dependencyHealthMonitor.isLive();
+		return new ResponseEntity<>(Map.of("live", live), live ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE);
 	}
 
 }
@@ -0,0 +1,92 @@
+package com.tonyghouse.socialraven.controller;
+
+import com.tonyghouse.socialraven.annotation.RequiresRole;
+import com.tonyghouse.socialraven.constant.WorkspaceRole;
+import com.tonyghouse.socialraven.dto.MultipartPartUrls;
+import com.tonyghouse.socialraven.dto.MultipartPartsRequest;
+import com.tonyghouse.socialraven.dto.MultipartUploadCompleteRequest;
+import com.tonyghouse.socialraven.dto.MultipartUploadStart;
+import com.tonyghouse.socialraven.dto.PresignUploadRequest;
+import com.tonyghouse.socialraven.dto.PresignedUpload;
+import com.tonyghouse.socialraven.storage.MediaUploadService;
+import com.tonyghouse.socialraven.util.WorkspaceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/media/uploads")
+public class MediaUploadController {
+
+    static final String PRESIGN_LATENCY_HEADER = "X-Presign-Latency-Ms";
+
+    @Autowired
+    private MediaUploadService mediaUploadService;
+
+    /**
+     * Presigned PUT URLs for every file of a post, in request order. Each upload must send
+     * exactly the declared size as Content-Length.
+     */
+    @RequiresRole(WorkspaceRole.EDITOR)
+    @PostMapping("/presign")
+    public ResponseEntity<List<PresignedUpload>> presign(@RequestBody List<PresignUploadRequest> files) {
+        long start = System.nanoTime();
+        List<PresignedUpload> uploads = mediaUploadService.presignPuts(WorkspaceContext.getWorkspaceId(), files);
+        return ResponseEntity.ok()
+                .header(PRESIGN_LATENCY_HEADER, latencyMs(start))
+                .body(uploads);
+    }
+
+    /**
+     * Starts a multipart upload for a large video and presigns all of its part URLs.
+     */
+    @RequiresRole(WorkspaceRole.EDITOR)
+    @PostMapping("/multipart")
+    public ResponseEntity<MultipartUploadStart> startMultipart(@RequestBody PresignUploadRequest file) {
+        long start = System.nanoTime();
+        MultipartUploadStart upload = mediaUploadService.startMultipart(WorkspaceContext.getWorkspaceId(), file);
+        return ResponseEntity.ok()
+                .header(PRESIGN_LATENCY_HEADER, latencyMs(start))
+                .body(upload);
+    }
+
+    /**
+     * Re-presigns a range of part URLs for a multipart upload in progress.
+     */
+    @RequiresRole(WorkspaceRole.EDITOR)
+    @PostMapping("/multipart/parts")
+    public ResponseEntity<MultipartPartUrls> presignParts(@RequestBody MultipartPartsRequest request) {
+        long start = System.nanoTime();
+        MultipartPartUrls urls = mediaUploadService.presignParts(WorkspaceContext.getWorkspaceId(),
+                request.getKey(), request.getUploadId(), request.getFirstPart(), request.getLastPart());
+        return ResponseEntity.ok()
+                .header(PRESIGN_LATENCY_HEADER, latencyMs(start))
+                .body(urls);
+    }
+
+    @RequiresRole(WorkspaceRole.EDITOR)
+    @PostMapping("/multipart/complete")
+    public ResponseEntity<Void> completeMultipart(@RequestBody MultipartUploadCompleteRequest request) {
+        mediaUploadService.completeMultipart(WorkspaceContext.getWorkspaceId(),
+                request.getKey(), request.getUploadId(), request.getPartETags());
+        return ResponseEntity.noContent().build();
+    }
+
+    @RequiresRole(WorkspaceRole.EDITOR)
+    @DeleteMapping("/multipart")
+    public ResponseEntity<Void> abortMultipart(@RequestParam String key, @RequestParam String uploadId) {
+        mediaUploadService.abortMultipart(WorkspaceContext.getWorkspaceId(), key, uploadId);
+        return ResponseEntity.noContent().build();
+    }
+
+    private static String latencyMs(long startNanos) {
+        return String.format("%.2f", (System.nanoTime() - startNanos) / 1_000_000.0);
+    }
+}
@@ -0,0 +1,6 @@
+package com.tonyghouse.socialraven.datasource;
+
+public enum DataSourceRoute {
+    PRIMARY,
+    REPLICA
+}
@@ -0,0 +1,80 @@
+package com.tonyghouse.socialraven.datasource;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Decides which pool the current thread's next connection comes from.
+ *
+ * - Read-write transactions always use the primary.
+ * - Read-only transactions use the replica, unless the thread is pinned to the primary.
+ * - Work outside a transaction uses the replica only inside a replica-preferring request
+ *   (a GET from a user without recent writes, see ReadReplicaRoutingFilter).
+ *
+ * Threads without a binding (schedulers, relays, startup) behave as before, apart from their
+ * read-only transactions. Bind with try-with-resources; closing restores the previous binding.
+ */
+public final class DataSourceRouting {
+
+    private DataSourceRouting() {}
+
+    private enum Preference {
+        REPLICA,
+        PRIMARY
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final Preference previous;
+        private boolean closed;
+
+        private Scope(Preference previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            restore(previous);
+        }
+    }
+
+    private static final ThreadLocal<Preference> holder = new ThreadLocal<>();
+
+    public static Scope preferReplica() {
+        return bind(Preference.REPLICA);
+    }
+
+    public static Scope pinPrimary() {
+        return bind(Preference.PRIMARY);
+    }
+
+    public static DataSourceRoute currentRoute() {
+        Preference preference = holder.get();
+        if (preference == Preference.PRIMARY) {
+            return DataSourceRoute.PRIMARY;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                    ? DataSourceRoute.REPLICA
+                    : DataSourceRoute.PRIMARY;
+        }
+        return preference == Preference.REPLICA ? DataSourceRoute.REPLICA : DataSourceRoute.PRIMARY;
+    }
+
+    private static Scope bind(Preference preference) {
+        Preference previous = holder.get();
+        restore(preference);
+        return new Scope(previous);
+    }
+
+    private static void restore(Preference preference) {
+        if (preference == null) {
+            holder.remove();
+        } else {
+            holder.set(preference);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.tonyghouse.socialraven.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Hands out primary or replica connections according to DataSourceRouting.
+ *
+ * Must sit behind a LazyConnectionDataSourceProxy: the transaction manager opens its connection
+ * before the transaction's read-only flag is visible to TransactionSynchronizationManager, and
+ * the lazy proxy defers the real getConnection() until the first statement.
+ *
+ * While replicaAvailable reports false (the replica failed its health probe), replica lookups
+ * go to the primary instead.
+ *
+ * Metrics: datasource.route{route} counts connections handed out per pool, and
+ * datasource.replica.fallback the replica lookups sent to the primary.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+    private final Counter replicaFallbacks;
+    private final BooleanSupplier replicaAvailable;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, BooleanSupplier replicaAvailable,
+                                      MeterRegistry meterRegistry) {
+        setTargetDataSources(Map.of(DataSourceRoute.PRIMARY, primary, DataSourceRoute.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        // Anything unexpected falls back to the primary rather than failing
+        setLenientFallback(true);
+        this.primaryConnections = meterRegistry.counter("datasource.route", "route", "primary");
+        this.replicaConnections = meterRegistry.counter("datasource.route", "route", "replica");
+        this.replicaFallbacks = meterRegistry.counter("datasource.replica.fallback");
+        this.replicaAvailable = replicaAvailable;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        DataSourceRoute route = DataSourceRouting.currentRoute();
+        if (route == DataSourceRoute.REPLICA && !replicaAvailable.getAsBoolean()) {
+            replicaFallbacks.increment();
+            route = DataSourceRoute.PRIMARY;
+        }
+        (route == DataSourceRoute.REPLICA ? replicaConnections : primaryConnections).increment();
+        return route;
+    }
+}
@@ -0,0 +1,64 @@
+package com.tonyghouse.socialraven.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tonyghouse.socialraven.cache.invalidation.CacheInvalidationBus;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Remembers which users wrote recently, so their reads stay on the primary until the replica has
+ * caught up (read-your-writes-ms, which should exceed typical replication lag).
+ *
+ * Pins are shared with other nodes through the CacheInvalidationBus; a user who keeps writing is
+ * re-announced at most once per half window.
+ */
+@Component
+public class ReadYourWritesTracker {
+
+    static final String PIN_CACHE = "datasource-primary-pin";
+
+    @Value("${socialraven.datasource.read-your-writes-ms:5000}")
+    private long readYourWritesMs;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    /** userId -> when the pin was last announced (epoch millis); expires after the user's last write */
+    private Cache<String, Long> lastWrite;
+
+    @PostConstruct
+    public void init() {
+        lastWrite = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(readYourWritesMs))
+                .maximumSize(100_000)
+                .build();
+        cacheInvalidationBus.register(PIN_CACHE, this::onRemoteWrites);
+    }
+
+    public void recordWrite(String userId) {
+        long now = System.currentTimeMillis();
+        Long announcedAt = lastWrite.getIfPresent(userId);
+        if (announcedAt == null || now - announcedAt > readYourWritesMs / 2) {
+            cacheInvalidationBus.publish(PIN_CACHE, userId);
+            announcedAt = now;
+        }
+        lastWrite.put(userId, announcedAt);
+    }
+
+    public boolean isPinned(String userId) {
+        return lastWrite.getIfPresent(userId) != null;
+    }
+
+    private void onRemoteWrites(List<String> userIds) {
+        long now = System.currentTimeMillis();
+        for (String userId : userIds) {
+            lastWrite.put(userId, now);
+        }
+    }
+}
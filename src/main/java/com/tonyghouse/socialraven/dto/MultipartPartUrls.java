@@ -0,0 +1,15 @@
+package com.tonyghouse.socialraven.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class MultipartPartUrls {
+    private int firstPart;
+    /** Presigned UploadPart URL per part, index 0 is firstPart. */
+    private List<String> partUrls;
+    private long expiresAtEpochMillis;
+}
@@ -0,0 +1,16 @@
+package com.tonyghouse.socialraven.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultipartPartsRequest {
+    private String key;
+    private String uploadId;
+    /** First and last part number to presign, inclusive, 1-based. */
+    private int firstPart;
+    private int lastPart;
+}
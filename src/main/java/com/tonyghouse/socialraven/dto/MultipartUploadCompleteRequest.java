@@ -0,0 +1,17 @@
+package com.tonyghouse.socialraven.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultipartUploadCompleteRequest {
+    private String key;
+    private String uploadId;
+    /** ETag returned by S3 for each uploaded part, in part order. */
+    private List<String> partETags;
+}
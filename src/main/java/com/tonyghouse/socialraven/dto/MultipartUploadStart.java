@@ -0,0 +1,17 @@
+package com.tonyghouse.socialraven.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class MultipartUploadStart {
+    private String key;
+    private String uploadId;
+    private long partSize;
+    /** Presigned UploadPart URL per part, index 0 is part 1. */
+    private List<String> partUrls;
+    private long expiresAtEpochMillis;
+}
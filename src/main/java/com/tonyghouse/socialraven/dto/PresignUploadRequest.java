@@ -0,0 +1,14 @@
+package com.tonyghouse.socialraven.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresignUploadRequest {
+    private String fileName;
+    private String contentType;
+    private long size;
+}
@@ -0,0 +1,13 @@
+package com.tonyghouse.socialraven.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class PresignedUpload {
+    private String fileName;
+    private String key;
+    private String url;
+    private long expiresAtEpochMillis;
+}
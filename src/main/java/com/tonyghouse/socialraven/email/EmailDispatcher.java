@@ -0,0 +1,309 @@
+package com.tonyghouse.socialraven.email;
+
+import com.tonyghouse.socialraven.repository.EmailQueueRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers socialraven.email_queue in the background.
+ *
+ * Each round claims up to batch-size due messages (leased, SKIP LOCKED) and sends them to Resend
+ * as one batch call. If Resend has not answered within primary-latency-budget-ms, the dispatcher
+ * cancels the call and sends the batch through Zoho SMTP instead of waiting for a timeout. After
+ * a slow or failed Resend call, Resend is skipped for primary-cooldown-ms so later rounds don't
+ * pay the budget again. Zoho sends run in parallel over its pooled connections.
+ *
+ * A cancelled Resend call may still have been accepted, so failover can occasionally deliver an
+ * email twice; for notifications that beats delivering it late. Messages that fail on both
+ * providers are retried with backoff up to max-attempts.
+ *
+ * A 4xx content rejection (ResendRejectedException) is not a Resend outage: the batch is split
+ * in halves and resent until the rejected emails are isolated, and only those are failed (and
+ * retried like any other failure). Resend is not put in cooldown for it.
+ *
+ * Metrics: email.provider.latency{provider, outcome}, email.provider.failover{reason},
+ * email.dispatch.lag (enqueue -> sent), email.queue.pending.
+ */
+@Component
+@Slf4j
+public class EmailDispatcher implements SmartLifecycle {
+
+    private static final String RESEND = "resend";
+    private static final String ZOHO = "zoho";
+
+    @Value("${socialraven.email.dispatch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${socialraven.email.dispatch.poll-interval-ms:2000}")
+    private long pollIntervalMs;
+
+    @Value("${socialraven.email.dispatch.batch-size:100}")
+    private int batchSize;
+
+    @Value("${socialraven.email.dispatch.lease-ms:120000}")
+    private long leaseMs;
+
+    @Value("${socialraven.email.dispatch.primary-latency-budget-ms:3000}")
+    private long primaryLatencyBudgetMs;
+
+    @Value("${socialraven.email.dispatch.primary-cooldown-ms:60000}")
+    private long primaryCooldownMs;
+
+    @Value("${socialraven.email.dispatch.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${socialraven.email.dispatch.retry-backoff-ms:30000}")
+    private long retryBackoffMs;
+
+    @Autowired
+    private EmailQueueRepository emailQueueRepository;
+
+    @Autowired
+    private ResendEmailClient resendEmailClient;
+
+    @Autowired
+    private ZohoSmtpEmailClient zohoSmtpEmailClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final String owner = "email-dispatcher:" + UUID.randomUUID().toString().substring(0, 8);
+    private final Semaphore wakeUps = new Semaphore(0);
+    private final AtomicLong pending = new AtomicLong();
+
+    private volatile long primarySkippedUntil;
+    private ExecutorService smtpSenders;
+    private Thread dispatchThread;
+    private volatile boolean running;
+    private Timer lag;
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            log.info("Email dispatcher disabled");
+            return;
+        }
+        smtpSenders = Executors.newFixedThreadPool(zohoSmtpEmailClient.getPoolSize(), r -> {
+            Thread thread = new Thread(r, "email-smtp");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lag = Timer.builder("email.dispatch.lag")
+                .description("Time from enqueue to accepted by a provider")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("email.queue.pending", pending, AtomicLong::get).register(meterRegistry);
+
+        running = true;
+        dispatchThread = Thread.ofPlatform().name("email-dispatcher").daemon().start(this::loop);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        dispatchThread.interrupt();
+        smtpSenders.shutdown();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public void wakeUp() {
+        if (wakeUps.availablePermits() == 0) {
+            wakeUps.release();
+        }
+    }
+
+    private void loop() {
+        while (running) {
+            try {
+                if (dispatchBatch() < batchSize) {
+                    pending.set(emailQueueRepository.countPending());
+                    wakeUps.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                    wakeUps.drainPermits();
+                }
+            } catch (InterruptedException e) {
+                break;
+            } catch (Exception e) {
+                log.warn("Email dispatch round failed: {}", e.getMessage());
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException interrupted) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private int dispatchBatch() throws InterruptedException {
+        List<EmailMessage> batch = emailQueueRepository.claim(owner, Math.min(batchSize, ResendEmailClient.MAX_BATCH_SIZE), leaseMs);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<EmailMessage> unsent = sendViaResend(batch);
+        if (!unsent.isEmpty()) {
+            sendViaZoho(unsent);
+        }
+        return batch.size();
+    }
+
+    /**
+     * @return the messages that still need sending through Zoho: none if Resend accepted (or
+     *         rejected) them all within the latency budget, the whole batch on failover
+     */
+    private List<EmailMessage> sendViaResend(List<EmailMessage> batch) throws InterruptedException {
+        if (!resendEmailClient.isConfigured()) {
+            return batch;
+        }
+        if (System.currentTimeMillis() < primarySkippedUntil) {
+            failover("cooldown");
+            return batch;
+        }
+
+        long start = System.nanoTime();
+        String idempotencyKey = "email-batch-" + batch.get(0).id() + "-" + batch.get(batch.size() - 1).id()
+                + "-" + batch.get(0).attempts();
+        CompletableFuture<List<String>> call = resendEmailClient.sendBatch(batch, idempotencyKey);
+        try {
+            List<String> providerIds = call.get(primaryLatencyBudgetMs, TimeUnit.MILLISECONDS);
+            recordLatency(RESEND, "success", start);
+            Map<Long, String> sent = new HashMap<>();
+            for (int i = 0; i < batch.size(); i++) {
+                sent.put(batch.get(i).id(), providerIds.get(i));
+            }
+            markSent(RESEND, batch, sent);
+            return List.of();
+        } catch (TimeoutException e) {
+            call.cancel(true);
+            recordLatency(RESEND, "timeout", start);
+            primarySkippedUntil = System.currentTimeMillis() + primaryCooldownMs;
+            log.warn("Resend exceeded the {} ms budget for {} email(s); failing over to Zoho",
+                    primaryLatencyBudgetMs, batch.size());
+            failover("latency");
+            return batch;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ResendRejectedException rejected) {
+                recordLatency(RESEND, "rejected", start);
+                return isolateRejected(batch, rejected);
+            }
+            recordLatency(RESEND, "failure", start);
+            primarySkippedUntil = System.currentTimeMillis() + primaryCooldownMs;
+            log.warn("Resend failed for {} email(s); failing over to Zoho: {}", batch.size(), e.getCause().getMessage());
+            failover("error");
+            return batch;
+        }
+    }
+
+    /**
+     * Resend rejects a whole batch for one invalid email, so bisect the batch until the rejected
+     * ones are alone; the rest are resent as usual.
+     */
+    private List<EmailMessage> isolateRejected(List<EmailMessage> batch, ResendRejectedException rejected)
+            throws InterruptedException {
+        if (batch.size() == 1) {
+            EmailMessage message = batch.get(0);
+            log.warn("Resend rejected {} email {}: {}", message.category(), message.id(), rejected.getMessage());
+            retryLater(message, "resend: " + rejected.getMessage());
+            return List.of();
+        }
+        int middle = batch.size() / 2;
+        List<EmailMessage> unsent = new ArrayList<>(sendViaResend(batch.subList(0, middle)));
+        unsent.addAll(sendViaResend(batch.subList(middle, batch.size())));
+        return unsent;
+    }
+
+    private void sendViaZoho(List<EmailMessage> batch) throws InterruptedException {
+        if (!zohoSmtpEmailClient.isConfigured()) {
+            for (EmailMessage message : batch) {
+                retryLater(message, "no email provider available");
+            }
+            return;
+        }
+        List<Future<?>> sends = new ArrayList<>(batch.size());
+        for (EmailMessage message : batch) {
+            sends.add(smtpSenders.submit(() -> sendOneViaZoho(message)));
+        }
+        for (Future<?> send : sends) {
+            try {
+                send.get();
+            } catch (ExecutionException e) {
+                log.warn("Zoho send task failed: {}", e.getCause().getMessage());
+            }
+        }
+    }
+
+    private void sendOneViaZoho(EmailMessage message) {
+        long start = System.nanoTime();
+        try {
+            zohoSmtpEmailClient.send(message);
+            recordLatency(ZOHO, "success", start);
+            Map<Long, String> sent = new HashMap<>();
+            sent.put(message.id(), null);
+            markSent(ZOHO, List.of(message), sent);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            retryLater(message, "interrupted");
+        } catch (Exception e) {
+            recordLatency(ZOHO, "failure", start);
+            retryLater(message, "zoho: " + e.getMessage());
+        }
+    }
+
+    private void markSent(String provider, List<EmailMessage> messages, Map<Long, String> providerIds) {
+        emailQueueRepository.markSent(provider, providerIds);
+        Instant now = Instant.now();
+        for (EmailMessage message : messages) {
+            lag.record(Math.max(0, Duration.between(message.createdAt(), now).toMillis()), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void retryLater(EmailMessage message, String error) {
+        boolean giveUp = message.attempts() + 1 >= maxAttempts;
+        long backoff = retryBackoffMs << Math.min(message.attempts(), 8);
+        if (giveUp) {
+            log.error("Giving up on {} email {} after {} attempt(s): {}",
+                    message.category(), message.id(), message.attempts() + 1, error);
+        }
+        emailQueueRepository.markFailed(message.id(), error, Instant.now().plusMillis(backoff), giveUp);
+    }
+
+    private void failover(String reason) {
+        meterRegistry.counter("email.provider.failover", "reason", reason).increment();
+    }
+
+    private void recordLatency(String provider, String outcome, long startNanos) {
+        Timer.builder("email.provider.latency")
+                .tag("provider", provider)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,16 @@
+package com.tonyghouse.socialraven.email;
+
+import java.time.Instant;
+
+/**
+ * A claimed row of socialraven.email_queue. attempts counts previous failed deliveries.
+ */
+public record EmailMessage(long id,
+                           String toAddress,
+                           String subject,
+                           String htmlBody,
+                           String textBody,
+                           String category,
+                           Instant createdAt,
+                           int attempts) {
+}
@@ -0,0 +1,39 @@
+package com.tonyghouse.socialraven.email;
+
+import com.tonyghouse.socialraven.repository.EmailQueueRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Entry point for sending email (invites, approval reminders, escalations).
+ *
+ * enqueue() only inserts into socialraven.email_queue — joining the caller's transaction if there
+ * is one, so an email for a rolled-back invite is never sent — and returns. EmailDispatcher
+ * delivers it in the background.
+ */
+@Component
+public class EmailQueue {
+
+    @Autowired
+    private EmailQueueRepository emailQueueRepository;
+
+    @Autowired
+    private EmailDispatcher emailDispatcher;
+
+    public void enqueue(String toAddress, String subject, String htmlBody, String textBody, String category) {
+        emailQueueRepository.insert(toAddress, subject, htmlBody, textBody, category);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    emailDispatcher.wakeUp();
+                }
+            });
+        } else {
+            emailDispatcher.wakeUp();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.tonyghouse.socialraven.email;
+
+import com.tonyghouse.socialraven.repository.EmailQueueRepository;
+import com.tonyghouse.socialraven.scheduler.JobHandler;
+import com.tonyghouse.socialraven.scheduler.ScheduledJob;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Deletes sent and given-up emails (bodies included) enqueued more than
+ * socialraven.email.retain-hours ago. Pending emails are never touched.
+ */
+@Component
+@ConditionalOnExpression("${socialraven.email.retain-hours:168} > 0")
+@Slf4j
+public class EmailQueueCompactionJob implements JobHandler {
+
+    private static final int CHUNK_SIZE = 5000;
+
+    @Value("${socialraven.email.retain-hours:168}")
+    private long retainHours;
+
+    @Autowired
+    private EmailQueueRepository emailQueueRepository;
+
+    @Override
+    public String jobType() {
+        return "email-queue-compaction";
+    }
+
+    @Override
+    public Duration repeatInterval() {
+        return Duration.ofHours(1);
+    }
+
+    @Override
+    public void execute(ScheduledJob job) {
+        Instant cutoff = Instant.now().minus(Duration.ofHours(retainHours));
+        int total = 0;
+        int deleted;
+        do {
+            // Small chunks keep each delete's locks and WAL burst short
+            deleted = emailQueueRepository.compactDoneBefore(cutoff, CHUNK_SIZE);
+            total += deleted;
+        } while (deleted == CHUNK_SIZE);
+        log.info("Compacted {} sent or failed email(s)", total);
+    }
+}
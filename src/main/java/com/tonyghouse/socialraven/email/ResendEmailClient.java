@@ -0,0 +1,123 @@
+package com.tonyghouse.socialraven.email;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Resend batch API client (POST /emails/batch, up to 100 emails per call).
+ *
+ * Uses the shared JDK HttpClient asynchronously so EmailDispatcher can stop waiting (and cancel
+ * the request) once its latency budget is spent. resend.base-url can point at a local stub.
+ */
+@Component
+public class ResendEmailClient {
+
+    public static final int MAX_BATCH_SIZE = 100;
+
+    @Value("${resend.api-key:}")
+    private String apiKey;
+
+    @Value("${resend.from}")
+    private String from;
+
+    @Value("${resend.base-url:https://api.resend.com}")
+    private String baseUrl;
+
+    @Value("${socialraven.email.reply-to:}")
+    private String replyTo;
+
+    @Autowired
+    private HttpClient outboundHttpClient;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public boolean isConfigured() {
+        return apiKey != null && !apiKey.isBlank();
+    }
+
+    /**
+     * @return Resend's message ids, in the order of the given messages. Fails with
+     *         ResendRejectedException when Resend rejects the batch's content; the batch endpoint
+     *         rejects the whole batch if any one email is invalid.
+     */
+    public CompletableFuture<List<String>> sendBatch(List<EmailMessage> messages, String idempotencyKey) {
+        ArrayNode body = objectMapper.createArrayNode();
+        for (EmailMessage message : messages) {
+            ObjectNode email = body.addObject();
+            email.put("from", from);
+            email.putArray("to").add(message.toAddress());
+            email.put("subject", message.subject());
+            if (message.htmlBody() != null) {
+                email.put("html", message.htmlBody());
+            }
+            if (message.textBody() != null) {
+                email.put("text", message.textBody());
+            }
+            if (!replyTo.isBlank()) {
+                email.put("reply_to", replyTo);
+            }
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/emails/batch"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + apiKey)
+                .header("Content-Type", "application/json")
+                .header("Idempotency-Key", idempotencyKey)
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+
+        return outboundHttpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    int status = response.statusCode();
+                    if (isContentRejection(status)) {
+                        throw new CompletionException(new ResendRejectedException(status,
+                                "Resend rejected the batch (" + status + "): " + response.body()));
+                    }
+                    if (status / 100 != 2) {
+                        throw new CompletionException(new IOException(
+                                "Resend returned " + status + ": " + response.body()));
+                    }
+                    return messageIds(response.body(), messages.size());
+                });
+    }
+
+    /**
+     * 4xx other than auth (401, 403), timeout (408) and rate limiting (429), which say nothing
+     * about the emails themselves.
+     */
+    private static boolean isContentRejection(int status) {
+        return status / 100 == 4 && status != 401 && status != 403 && status != 408 && status != 429;
+    }
+
+    private List<String> messageIds(String responseBody, int expected) {
+        List<String> ids = new ArrayList<>(expected);
+        try {
+            for (JsonNode item : objectMapper.readTree(responseBody).path("data")) {
+                ids.add(item.path("id").asText(null));
+            }
+        } catch (IOException e) {
+            // Sent, but the ids are unreadable; they are informational only
+        }
+        while (ids.size() < expected) {
+            ids.add(null);
+        }
+        return ids;
+    }
+}
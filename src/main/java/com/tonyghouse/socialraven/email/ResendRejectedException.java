@@ -0,0 +1,22 @@
+package com.tonyghouse.socialraven.email;
+
+import java.io.IOException;
+
+/**
+ * Resend refused a request because of its content (400, 422...), as opposed to being
+ * unavailable, rate limiting or rejecting our credentials. Sending the same emails again won't
+ * help, and neither will skipping Resend for a while.
+ */
+public class ResendRejectedException extends IOException {
+
+    private final int statusCode;
+
+    public ResendRejectedException(int statusCode, String message) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
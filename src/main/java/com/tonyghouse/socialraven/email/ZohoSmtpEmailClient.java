@@ -0,0 +1,164 @@
+package com.tonyghouse.socialraven.email;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeBodyPart;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.internet.MimeMultipart;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Zoho SMTP client with a small pool of authenticated connections.
+ *
+ * Opening an SMTP session (TCP + STARTTLS + AUTH) costs several round trips, so connections are
+ * kept open and reused across sends; a connection that errors is discarded. At most pool-size
+ * connections exist at once. zoho.smtp.host/port/starttls can point at a local SMTP stub.
+ */
+@Component
+@Slf4j
+public class ZohoSmtpEmailClient {
+
+    @Value("${zoho.smtp.host}")
+    private String host;
+
+    @Value("${zoho.smtp.port}")
+    private int port;
+
+    @Value("${zoho.smtp.username:}")
+    private String username;
+
+    @Value("${zoho.smtp.password:}")
+    private String password;
+
+    @Value("${zoho.smtp.from}")
+    private String from;
+
+    @Value("${zoho.smtp.starttls:true}")
+    private boolean startTls;
+
+    @Value("${zoho.smtp.pool-size:4}")
+    private int poolSize;
+
+    @Value("${zoho.smtp.timeout-ms:10000}")
+    private long timeoutMs;
+
+    @Value("${socialraven.email.reply-to:}")
+    private String replyTo;
+
+    private Session session;
+    private BlockingQueue<Transport> idle;
+    private Semaphore connections;
+
+    @PostConstruct
+    public void init() {
+        Properties properties = new Properties();
+        properties.put("mail.smtp.auth", String.valueOf(!username.isBlank()));
+        properties.put("mail.smtp.starttls.enable", String.valueOf(startTls));
+        properties.put("mail.smtp.starttls.required", String.valueOf(startTls));
+        properties.put("mail.smtp.connectiontimeout", String.valueOf(timeoutMs));
+        properties.put("mail.smtp.timeout", String.valueOf(timeoutMs));
+        properties.put("mail.smtp.writetimeout", String.valueOf(timeoutMs));
+        session = Session.getInstance(properties);
+        idle = new ArrayBlockingQueue<>(poolSize);
+        connections = new Semaphore(poolSize);
+    }
+
+    @PreDestroy
+    public void close() {
+        Transport transport;
+        while ((transport = idle.poll()) != null) {
+            closeQuietly(transport);
+        }
+    }
+
+    public boolean isConfigured() {
+        return host != null && !host.isBlank();
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public void send(EmailMessage message) throws MessagingException, InterruptedException {
+        MimeMessage mime = toMime(message);
+        if (!connections.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+            throw new MessagingException("No SMTP connection available within " + timeoutMs + " ms");
+        }
+        Transport transport = null;
+        try {
+            transport = borrow();
+            transport.sendMessage(mime, mime.getAllRecipients());
+            idle.offer(transport);
+            transport = null;
+        } finally {
+            if (transport != null) {
+                closeQuietly(transport);
+            }
+            connections.release();
+        }
+    }
+
+    private Transport borrow() throws MessagingException {
+        Transport transport;
+        while ((transport = idle.poll()) != null) {
+            // isConnected() sends NOOP; the server may have dropped an idle connection
+            if (transport.isConnected()) {
+                return transport;
+            }
+            closeQuietly(transport);
+        }
+        transport = session.getTransport("smtp");
+        if (username.isBlank()) {
+            transport.connect(host, port, null, null);
+        } else {
+            transport.connect(host, port, username, password);
+        }
+        return transport;
+    }
+
+    private MimeMessage toMime(EmailMessage message) throws MessagingException {
+        MimeMessage mime = new MimeMessage(session);
+        mime.setFrom(new InternetAddress(from));
+        mime.setRecipient(Message.RecipientType.TO, new InternetAddress(message.toAddress()));
+        if (!replyTo.isBlank()) {
+            mime.setReplyTo(InternetAddress.parse(replyTo));
+        }
+        mime.setSubject(message.subject(), StandardCharsets.UTF_8.name());
+
+        if (message.htmlBody() != null && message.textBody() != null) {
+            MimeBodyPart text = new MimeBodyPart();
+            text.setText(message.textBody(), StandardCharsets.UTF_8.name());
+            MimeBodyPart html = new MimeBodyPart();
+            html.setContent(message.htmlBody(), "text/html; charset=UTF-8");
+            mime.setContent(new MimeMultipart("alternative", text, html));
+        } else if (message.htmlBody() != null) {
+            mime.setContent(message.htmlBody(), "text/html; charset=UTF-8");
+        } else {
+            mime.setText(message.textBody() == null ? "" : message.textBody(), StandardCharsets.UTF_8.name());
+        }
+        mime.saveChanges();
+        return mime;
+    }
+
+    private static void closeQuietly(Transport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            log.debug("Closing SMTP connection failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.tonyghouse.socialraven.event;
+
+import com.tonyghouse.socialraven.http.OutboundPlatform;
+
+/**
+ * Published whenever a connected account is connected, reconnected, disconnected or its tokens
+ * are rewritten outside ConnectedAccountCredentialCache. Cached credentials are evicted once the
+ * surrounding transaction commits.
+ */
+public record ConnectedAccountChangedEvent(OutboundPlatform platform, String accountId) {
+}
@@ -0,0 +1,9 @@
+package com.tonyghouse.socialraven.event;
+
+/**
+ * Published (via ApplicationEventPublisher) when a user's account status changes, e.g. on
+ * deactivation. Cached per-user authorization state is evicted once the transaction commits.
+ * User status is owned by another service, which reports changes through AdminCacheController.
+ */
+public record UserStatusChangedEvent(String userId) {
+}
@@ -0,0 +1,9 @@
+package com.tonyghouse.socialraven.event;
+
+/**
+ * Published (via ApplicationEventPublisher) whenever a user's membership or role in a workspace
+ * is created, changed or removed. Cached roles are evicted once the surrounding transaction commits.
+ * Memberships are written by another service, which reports changes through AdminCacheController.
+ */
+public record WorkspaceRoleChangedEvent(String userId, String workspaceId) {
+}
@@ -0,0 +1,54 @@
+package com.tonyghouse.socialraven.exception;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-key log budget: the first max-per-window occurrences of a key (error code) in each window
+ * are logged, the rest are only counted. The first logged occurrence of a new window reports how
+ * many were suppressed in the previous one.
+ */
+@Component
+public class ErrorLogSampler {
+
+    @Value("${socialraven.error-log.max-per-window:10}")
+    private int maxPerWindow;
+
+    @Value("${socialraven.error-log.window-seconds:60}")
+    private long windowSeconds;
+
+    private final Map<String, Budget> budgets = new ConcurrentHashMap<>();
+
+    /**
+     * @return -1 if this occurrence should not be logged, otherwise the number of occurrences
+     *         suppressed since the last logged one
+     */
+    public long tryAcquire(String key) {
+        long window = System.nanoTime() / TimeUnit.SECONDS.toNanos(windowSeconds);
+        return budgets.computeIfAbsent(key, k -> new Budget()).tryAcquire(window, maxPerWindow);
+    }
+
+    private static final class Budget {
+        private final AtomicLong window = new AtomicLong(Long.MIN_VALUE);
+        private final AtomicInteger used = new AtomicInteger();
+        private final AtomicLong suppressed = new AtomicLong();
+
+        long tryAcquire(long currentWindow, int maxPerWindow) {
+            long seen = window.get();
+            if (seen != currentWindow && window.compareAndSet(seen, currentWindow)) {
+                used.set(0);
+            }
+            if (used.incrementAndGet() > maxPerWindow) {
+                suppressed.incrementAndGet();
+                return -1;
+            }
+            return suppressed.getAndSet(0);
+        }
+    }
+}
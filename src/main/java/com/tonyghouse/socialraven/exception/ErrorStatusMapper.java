@@ -0,0 +1,45 @@
+package com.tonyghouse.socialraven.exception;
+
+import org.springframework.http.HttpStatus;
+
+import java.util.Map;
+
+/**
+ * Maps SocialRavenException error codes to HTTP statuses.
+ *
+ * Numeric codes (created from an HttpStatus) map to that status; known symbolic codes are listed
+ * below; anything else is a 400, as before.
+ */
+public final class ErrorStatusMapper {
+
+    private static final Map<String, HttpStatus> SYMBOLIC = Map.of(
+            "INTERNAL_ERROR", HttpStatus.INTERNAL_SERVER_ERROR,
+            "RATE_LIMITED", HttpStatus.TOO_MANY_REQUESTS,
+            "ACCOUNT_CREDENTIAL_UNAVAILABLE", HttpStatus.CONFLICT,
+            "ACCOUNT_REFRESH_IN_PROGRESS", HttpStatus.SERVICE_UNAVAILABLE,
+            "ACCOUNT_PLATFORM_UNSUPPORTED", HttpStatus.BAD_REQUEST,
+            "LINK_INVALID", HttpStatus.UNAUTHORIZED,
+            "LINK_EXPIRED", HttpStatus.GONE,
+            "LINK_REVOKED", HttpStatus.GONE
+    );
+
+    private ErrorStatusMapper() {
+    }
+
+    public static HttpStatus resolve(String errorCode) {
+        if (errorCode == null) {
+            return HttpStatus.BAD_REQUEST;
+        }
+        if (errorCode.length() == 3 && Character.isDigit(errorCode.charAt(0))) {
+            try {
+                HttpStatus status = HttpStatus.resolve(Integer.parseInt(errorCode));
+                if (status != null && (status.is4xxClientError() || status.is5xxServerError())) {
+                    return status;
+                }
+            } catch (NumberFormatException ignored) {
+                // Not a status code
+            }
+        }
+        return SYMBOLIC.getOrDefault(errorCode, HttpStatus.BAD_REQUEST);
+    }
+}
@@ -1,8 +1,10 @@
 package com.tonyghouse.socialraven.exception;
 
 import com.tonyghouse.socialraven.dto.SocialRavenError;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -10,17 +12,39 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.time.Instant;
 
+/**
+ * Error responses are cheap by design: expected domain errors are stackless
+ * (StacklessSocialRavenException), 4xx outcomes are logged as one line without a stack trace,
+ * and logging is sampled per error code (ErrorLogSampler) so a misbehaving client cannot turn
+ * the error path into a logging hot spot. Every error is still counted in http.server.errors.
+ */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
     private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    @Autowired
+    private ErrorLogSampler errorLogSampler;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     /**
      * Handle already wrapped SocialRavenException
      */
     @ExceptionHandler(SocialRavenException.class)
     public ResponseEntity<SocialRavenError> handleSocialRavenException(SocialRavenException ex) {
-        log.error("SocialRavenException", ex);
+        HttpStatus status = ErrorStatusMapper.resolve(ex.getErrorCode());
+        count(ex.getErrorCode(), status);
+
+        long suppressed = errorLogSampler.tryAcquire(ex.getErrorCode());
+        if (suppressed >= 0) {
+            if (status.is5xxServerError()) {
+                log.error("SocialRavenException [{}] ({} similar suppressed)", ex.getErrorCode(), suppressed, ex);
+            } else {
+                log.warn("SocialRavenException [{}] {} ({} similar suppressed)", ex.getErrorCode(), ex.getMessage(), suppressed);
+            }
+        }
 
         SocialRavenError response = new SocialRavenError(
                 ex.getMessage(),
@@ -28,7 +52,7 @@ public class GlobalExceptionHandler {
                 Instant.now()
         );
 
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        return ResponseEntity.status(status).body(response);
     }
 
 
@@ -37,7 +61,11 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(Exception.class)
     public ResponseEntity<SocialRavenError> handleAnyException(Exception ex) {
-        log.error("Unhandled exception", ex);
+        count("INTERNAL_ERROR", HttpStatus.INTERNAL_SERVER_ERROR);
+        long suppressed = errorLogSampler.tryAcquire(ex.getClass().getName());
+        if (suppressed >= 0) {
+            log.error("Unhandled exception ({} similar suppressed)", suppressed, ex);
+        }
 
         SocialRavenException wrapped = new SocialRavenException(
                 "Something went wrong. Please try again later.",
@@ -55,4 +83,10 @@ public class GlobalExceptionHandler {
                 .status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(response);
     }
+
+    private void count(String errorCode, HttpStatus status) {
+        meterRegistry.counter("http.server.errors",
+                "code", errorCode == null ? "none" : errorCode,
+                "status", String.valueOf(status.value())).increment();
+    }
 }
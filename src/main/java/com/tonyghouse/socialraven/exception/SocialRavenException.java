@@ -21,6 +21,14 @@ public class SocialRavenException extends RuntimeException {
         this.errorCode = errorCode;
     }
 
+    /**
+     * For subclasses that opt out of stack trace capture (see StacklessSocialRavenException).
+     */
+    protected SocialRavenException(String message, String errorCode, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+        this.errorCode = errorCode;
+    }
+
     public String getErrorCode() {
         return errorCode;
     }
@@ -0,0 +1,19 @@
+package com.tonyghouse.socialraven.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * SocialRavenException for expected, high-frequency outcomes (403s, 404s, validation failures)
+ * where a stack trace carries no diagnostic value. Skips fillInStackTrace and suppression, so
+ * instances are immutable and may be preallocated and thrown repeatedly.
+ */
+public class StacklessSocialRavenException extends SocialRavenException {
+
+    public StacklessSocialRavenException(String message, String errorCode) {
+        super(message, errorCode, false);
+    }
+
+    public StacklessSocialRavenException(String message, HttpStatus httpStatus) {
+        super(message, String.valueOf(httpStatus.value()), false);
+    }
+}
@@ -0,0 +1,256 @@
+package com.tonyghouse.socialraven.health;
+
+import com.tonyghouse.socialraven.config.DataSourceRoutingConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.util.Pool;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Probes Postgres (every Hikari pool), Redis and RabbitMQ in the background and keeps the last
+ * round as an immutable HealthSnapshot, so health endpoints answer from memory no matter how
+ * often the load balancer asks.
+ *
+ * Every probe-interval-ms all probes run in parallel, each on its own thread and bounded by
+ * probe-timeout-ms. A probe that is still running from an earlier round is not started again,
+ * so a hung dependency ties up at most one thread. The node is ready when every required
+ * dependency passed its last probe, which includes the saturation thresholds:
+ *   db.max-pool-wait-ms        time the probe waited for a pool connection
+ *   db.max-pending-threads     threads already queued for a pool connection
+ *   redis.max-latency-ms       PING round trip
+ * so an overloaded node leaves the load balancer before its requests start timing out.
+ *
+ * A snapshot older than stale-after-ms counts as not ready, and as not live: it means the probe
+ * loop itself is stuck. On shutdown the node reports not ready before the web server stops.
+ *
+ * Metrics: health.ready, health.dependency.healthy{dependency}, health.dependency.latency{dependency}.
+ */
+@Component
+@Slf4j
+public class DependencyHealthMonitor implements SmartLifecycle {
+
+    @Value("${socialraven.health.probe-interval-ms:5000}")
+    private long probeIntervalMs;
+
+    @Value("${socialraven.health.probe-timeout-ms:2000}")
+    private long probeTimeoutMs;
+
+    @Value("${socialraven.health.stale-after-ms:20000}")
+    private long staleAfterMs;
+
+    @Value("${socialraven.health.db.max-pool-wait-ms:1000}")
+    private long maxPoolWaitMs;
+
+    @Value("${socialraven.health.db.max-pending-threads:10}")
+    private int maxPendingThreads;
+
+    @Value("${socialraven.health.redis.max-latency-ms:250}")
+    private long maxRedisLatencyMs;
+
+    @Value("${socialraven.health.redis.required:true}")
+    private boolean redisRequired;
+
+    @Value("${socialraven.health.rabbit.required:false}")
+    private boolean rabbitRequired;
+
+    @Autowired
+    private ObjectProvider<HikariDataSource> dataSources;
+
+    @Autowired
+    private Pool<Jedis> jedisPool;
+
+    @Autowired
+    private ObjectProvider<ConnectionFactory> rabbitConnectionFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Semaphore wakeUps = new Semaphore(0);
+    private final Map<DependencyProbe, CompletableFuture<DependencyStatus>> pending = new HashMap<>();
+
+    private List<DependencyProbe> probes;
+    private ExecutorService probeExecutor;
+    private Thread monitorThread;
+    private volatile boolean running;
+    private volatile HealthSnapshot snapshot = HealthSnapshot.notReady("starting");
+
+    @Override
+    public void start() {
+        probes = new ArrayList<>();
+        int validationTimeoutSeconds = (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(probeTimeoutMs));
+        dataSources.orderedStream().forEach(dataSource -> probes.add(
+                new HikariPoolProbe(dataSource, maxPoolWaitMs, maxPendingThreads, validationTimeoutSeconds,
+                        !DataSourceRoutingConfig.REPLICA_POOL_NAME.equals(dataSource.getPoolName()))));
+        probes.add(new RedisProbe(jedisPool, maxRedisLatencyMs, redisRequired));
+        ConnectionFactory connectionFactory = rabbitConnectionFactory.getIfAvailable();
+        if (connectionFactory != null) {
+            probes.add(new RabbitProbe(connectionFactory, rabbitRequired));
+        }
+
+        Gauge.builder("health.ready", this, monitor -> monitor.readiness().ready() ? 1 : 0)
+                .register(meterRegistry);
+        for (DependencyProbe probe : probes) {
+            Gauge.builder("health.dependency.healthy", this, monitor -> monitor.status(probe.name())
+                            .map(status -> status.healthy() ? 1.0 : 0.0).orElse(0.0))
+                    .tag("dependency", probe.name())
+                    .register(meterRegistry);
+            Gauge.builder("health.dependency.latency", this, monitor -> monitor.status(probe.name())
+                            .map(status -> (double) status.latencyMs()).orElse(0.0))
+                    .tag("dependency", probe.name())
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        }
+
+        probeExecutor = Executors.newCachedThreadPool(Thread.ofPlatform().name("health-probe-", 0).daemon().factory());
+        snapshot = HealthSnapshot.notReady("starting");
+        running = true;
+        monitorThread = Thread.ofPlatform().name("health-monitor").daemon().start(this::loop);
+        log.info("Health monitor probing {} every {} ms",
+                probes.stream().map(DependencyProbe::name).toList(), probeIntervalMs);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        snapshot = HealthSnapshot.notReady("shutting down");
+        monitorThread.interrupt();
+        probeExecutor.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * The last snapshot, or a not-ready one if it is older than stale-after-ms.
+     */
+    public HealthSnapshot readiness() {
+        HealthSnapshot current = snapshot;
+        if (running && isStale(current)) {
+            return new HealthSnapshot(false, "health snapshot is stale", current.generatedAt(), current.dependencies());
+        }
+        return current;
+    }
+
+    /**
+     * False only when the probe loop has stopped making progress while the node is running.
+     */
+    public boolean isLive() {
+        return !running || !isStale(snapshot);
+    }
+
+    /**
+     * Whether the Hikari pool passed its last probe. True until it has been probed once.
+     */
+    public boolean isPoolHealthy(String poolName) {
+        return status("db-" + poolName).map(DependencyStatus::healthy).orElse(true);
+    }
+
+    /**
+     * Probes again now instead of at the next interval.
+     */
+    public void refresh() {
+        if (wakeUps.availablePermits() == 0) {
+            wakeUps.release();
+        }
+    }
+
+    private boolean isStale(HealthSnapshot current) {
+        return current.generatedAt().plusMillis(staleAfterMs).isBefore(Instant.now());
+    }
+
+    private Optional<DependencyStatus> status(String name) {
+        return snapshot.dependencies().stream().filter(status -> status.name().equals(name)).findFirst();
+    }
+
+    private void loop() {
+        while (running) {
+            try {
+                snapshot = probeAll();
+                wakeUps.tryAcquire(probeIntervalMs, TimeUnit.MILLISECONDS);
+                wakeUps.drainPermits();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Health probe round failed", e);
+            }
+        }
+    }
+
+    private HealthSnapshot probeAll() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(probeTimeoutMs);
+        for (DependencyProbe probe : probes) {
+            CompletableFuture<DependencyStatus> previous = pending.get(probe);
+            if (previous == null || previous.isDone()) {
+                pending.put(probe, CompletableFuture.supplyAsync(() -> run(probe), probeExecutor));
+            }
+        }
+
+        List<DependencyStatus> statuses = new ArrayList<>(probes.size());
+        String reason = null;
+        for (DependencyProbe probe : probes) {
+            DependencyStatus status = await(probe, pending.get(probe), deadline);
+            statuses.add(status);
+            if (!status.healthy()) {
+                log.warn("Dependency {} unhealthy: {}", probe.name(), status.detail());
+                if (probe.required() && reason == null) {
+                    // Public (see HealthSummary), so the detail stays in the log and /admin/health
+                    reason = probe.name() + " unhealthy";
+                }
+            }
+        }
+        return new HealthSnapshot(reason == null, reason, Instant.now(), List.copyOf(statuses));
+    }
+
+    private DependencyStatus await(DependencyProbe probe, CompletableFuture<DependencyStatus> result, long deadline)
+            throws InterruptedException {
+        try {
+            return result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return new DependencyStatus(probe.name(), false, probe.required(), probeTimeoutMs, Instant.now(),
+                    "no answer within " + probeTimeoutMs + " ms");
+        } catch (ExecutionException e) {
+            return new DependencyStatus(probe.name(), false, probe.required(), 0, Instant.now(),
+                    String.valueOf(e.getCause()));
+        }
+    }
+
+    private DependencyStatus run(DependencyProbe probe) {
+        long start = System.nanoTime();
+        String detail;
+        try {
+            detail = probe.check();
+        } catch (Exception e) {
+            detail = e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+        long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return new DependencyStatus(probe.name(), detail == null, probe.required(), latencyMs, Instant.now(), detail);
+    }
+}
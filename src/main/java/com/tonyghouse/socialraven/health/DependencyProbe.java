@@ -0,0 +1,20 @@
+package com.tonyghouse.socialraven.health;
+
+/**
+ * One dependency checked by DependencyHealthMonitor.
+ */
+interface DependencyProbe {
+
+    String name();
+
+    /**
+     * Whether this dependency failing its check makes the node not ready.
+     */
+    boolean required();
+
+    /**
+     * @return null if healthy, otherwise why not (e.g. a threshold that was crossed);
+     *         throwing also counts as unhealthy
+     */
+    String check() throws Exception;
+}
@@ -0,0 +1,14 @@
+package com.tonyghouse.socialraven.health;
+
+import java.time.Instant;
+
+/**
+ * Result of a dependency's last probe. detail is null when healthy.
+ */
+public record DependencyStatus(String name,
+                               boolean healthy,
+                               boolean required,
+                               long latencyMs,
+                               Instant checkedAt,
+                               String detail) {
+}
@@ -0,0 +1,18 @@
+package com.tonyghouse.socialraven.health;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Last completed probe round. Immutable, so readers need no locking. Carries probe details, so
+ * it is only served to admins; public endpoints return a HealthSummary.
+ */
+public record HealthSnapshot(boolean ready,
+                             String reason,
+                             Instant generatedAt,
+                             List<DependencyStatus> dependencies) {
+
+    static HealthSnapshot notReady(String reason) {
+        return new HealthSnapshot(false, reason, Instant.now(), List.of());
+    }
+}
@@ -0,0 +1,25 @@
+package com.tonyghouse.socialraven.health;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The public view of a HealthSnapshot: readiness plus each dependency's name, state and probe
+ * latency. Probe details (exception types and messages, hosts) are left out; they are logged
+ * and served by /admin/health.
+ */
+public record HealthSummary(boolean ready,
+                            String reason,
+                            Instant generatedAt,
+                            List<Dependency> dependencies) {
+
+    public record Dependency(String name, boolean healthy, long latencyMs) {
+    }
+
+    public static HealthSummary of(HealthSnapshot snapshot) {
+        return new HealthSummary(snapshot.ready(), snapshot.reason(), snapshot.generatedAt(),
+                snapshot.dependencies().stream()
+                        .map(status -> new Dependency(status.name(), status.healthy(), status.latencyMs()))
+                        .toList());
+    }
+}
@@ -0,0 +1,63 @@
+package com.tonyghouse.socialraven.health;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import java.sql.Connection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Borrows a connection from the pool and validates it. The time spent waiting for the connection
+ * is the pool wait a request would see right now; too long a wait, or too many threads already
+ * queued for a connection, marks the pool unhealthy before requests start timing out.
+ *
+ * The replica pool is not required: reads fall back to the primary while it is unhealthy.
+ */
+class HikariPoolProbe implements DependencyProbe {
+
+    private final HikariDataSource dataSource;
+    private final long maxPoolWaitMs;
+    private final int maxPendingThreads;
+    private final int validationTimeoutSeconds;
+    private final boolean required;
+
+    HikariPoolProbe(HikariDataSource dataSource, long maxPoolWaitMs, int maxPendingThreads, int validationTimeoutSeconds,
+                    boolean required) {
+        this.dataSource = dataSource;
+        this.maxPoolWaitMs = maxPoolWaitMs;
+        this.maxPendingThreads = maxPendingThreads;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.required = required;
+    }
+
+    @Override
+    public String name() {
+        return "db-" + dataSource.getPoolName();
+    }
+
+    @Override
+    public boolean required() {
+        return required;
+    }
+
+    @Override
+    public String check() throws Exception {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        int pending = pool == null ? 0 : pool.getThreadsAwaitingConnection();
+        long start = System.nanoTime();
+        long waitMs;
+        try (Connection connection = dataSource.getConnection()) {
+            waitMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (!connection.isValid(validationTimeoutSeconds)) {
+                return "connection failed validation";
+            }
+        }
+        if (waitMs > maxPoolWaitMs) {
+            return "pool wait " + waitMs + " ms exceeds " + maxPoolWaitMs + " ms";
+        }
+        if (pending > maxPendingThreads) {
+            return pending + " threads waiting for a connection (max " + maxPendingThreads + ")";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,35 @@
+package com.tonyghouse.socialraven.health;
+
+import org.springframework.amqp.rabbit.connection.Connection;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+
+/**
+ * Checks the shared broker connection (opening it if needed). Not required by default: the
+ * outbox keeps messages in Postgres while the broker is away.
+ */
+class RabbitProbe implements DependencyProbe {
+
+    private final ConnectionFactory connectionFactory;
+    private final boolean required;
+
+    RabbitProbe(ConnectionFactory connectionFactory, boolean required) {
+        this.connectionFactory = connectionFactory;
+        this.required = required;
+    }
+
+    @Override
+    public String name() {
+        return "rabbitmq";
+    }
+
+    @Override
+    public boolean required() {
+        return required;
+    }
+
+    @Override
+    public String check() {
+        Connection connection = connectionFactory.createConnection();
+        return connection.isOpen() ? null : "connection closed";
+    }
+}
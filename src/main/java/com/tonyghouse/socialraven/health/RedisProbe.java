@@ -0,0 +1,46 @@
+package com.tonyghouse.socialraven.health;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.util.Pool;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PINGs Redis directly (not through RedisCacheClient, whose circuit breaker and fallbacks would
+ * hide the real state) and fails when the round trip exceeds max-latency-ms.
+ */
+class RedisProbe implements DependencyProbe {
+
+    private final Pool<Jedis> jedisPool;
+    private final long maxLatencyMs;
+    private final boolean required;
+
+    RedisProbe(Pool<Jedis> jedisPool, long maxLatencyMs, boolean required) {
+        this.jedisPool = jedisPool;
+        this.maxLatencyMs = maxLatencyMs;
+        this.required = required;
+    }
+
+    @Override
+    public String name() {
+        return "redis";
+    }
+
+    @Override
+    public boolean required() {
+        return required;
+    }
+
+    @Override
+    public String check() {
+        try (Jedis jedis = jedisPool.getResource()) {
+            long start = System.nanoTime();
+            jedis.ping();
+            long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (latencyMs > maxLatencyMs) {
+                return "PING took " + latencyMs + " ms, above " + maxLatencyMs + " ms";
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.tonyghouse.socialraven.http;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process token bucket, used when the shared Redis bucket is unreachable.
+ */
+final class LocalTokenBucket {
+
+    private final double ratePerMilli;
+    private final double capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private double tokens;
+    private long lastRefillMillis;
+    private long blockedUntilMillis;
+
+    LocalTokenBucket(double ratePerSecond, double capacity, long nowMillis) {
+        this.ratePerMilli = ratePerSecond / 1000.0;
+        this.capacity = capacity;
+        this.tokens = capacity;
+        this.lastRefillMillis = nowMillis;
+    }
+
+    /**
+     * @return 0 if a token was taken, otherwise the milliseconds until one is available
+     */
+    long tryAcquire(long nowMillis) {
+        lock.lock();
+        try {
+            if (blockedUntilMillis > nowMillis) {
+                return blockedUntilMillis - nowMillis;
+            }
+            tokens = Math.min(capacity, tokens + (nowMillis - lastRefillMillis) * ratePerMilli);
+            lastRefillMillis = nowMillis;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / ratePerMilli);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a token taken by tryAcquire whose call did not go ahead.
+     */
+    void refund() {
+        lock.lock();
+        try {
+            tokens = Math.min(capacity, tokens + 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void blockUntil(long untilMillis) {
+        lock.lock();
+        try {
+            blockedUntilMillis = Math.max(blockedUntilMillis, untilMillis);
+            tokens = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.tonyghouse.socialraven.http;
+
+/**
+ * How OutboundRateLimiter treats a call when its bucket is empty.
+ */
+public enum OutboundCallMode {
+    /**
+     * Background work (publishing, refreshes): wait for tokens, up to the configured max defer.
+     */
+    DEFERRABLE,
+    /**
+     * A user is waiting on the response: fail fast with 429 instead of queueing.
+     */
+    IMMEDIATE
+}
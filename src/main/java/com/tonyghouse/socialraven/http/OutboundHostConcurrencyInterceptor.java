@@ -0,0 +1,110 @@
+package com.tonyghouse.socialraven.http;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caps concurrent outbound requests per host. The JDK HttpClient has no per-host connection
+ * limit (HTTP/1.1 opens a connection per concurrent request), so this bounds connections to a
+ * host by bounding the requests in flight to it. A request holds its permit until the response
+ * is closed, since the connection stays busy while the body is read.
+ *
+ * A request that cannot get a permit within acquire-timeout-ms fails with an IOException,
+ * which RestTemplate surfaces as a ResourceAccessException, like a connect timeout.
+ */
+public class OutboundHostConcurrencyInterceptor implements ClientHttpRequestInterceptor {
+
+    private final int maxPerHost;
+    private final long acquireTimeoutMs;
+    private final MeterRegistry meterRegistry;
+    // Keyed by host; outbound calls only go to a handful of platform hosts
+    private final Map<String, Semaphore> permits = new ConcurrentHashMap<>();
+
+    public OutboundHostConcurrencyInterceptor(int maxPerHost, long acquireTimeoutMs, MeterRegistry meterRegistry) {
+        this.maxPerHost = maxPerHost;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        String host = String.valueOf(request.getURI().getHost());
+        Semaphore hostPermits = permits.computeIfAbsent(host, h -> new Semaphore(maxPerHost));
+        try {
+            if (!hostPermits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                meterRegistry.counter("http.client.outbound.host-limit.rejected",
+                        "platform", OutboundPlatform.fromHost(host).getMetricName()).increment();
+                throw new IOException("Too many concurrent requests to " + host);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for a connection to " + host);
+        }
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        } catch (IOException | RuntimeException e) {
+            hostPermits.release();
+            throw e;
+        }
+        return new PermitReleasingResponse(response, hostPermits);
+    }
+
+    private static final class PermitReleasingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final Semaphore permits;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        PermitReleasingResponse(ClientHttpResponse delegate, Semaphore permits) {
+            this.delegate = delegate;
+            this.permits = permits;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    permits.release();
+                }
+            }
+        }
+    }
+}
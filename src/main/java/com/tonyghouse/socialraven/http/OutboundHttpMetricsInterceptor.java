@@ -0,0 +1,60 @@
+package com.tonyghouse.socialraven.http;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records per-platform outbound latency (http.client.outbound{platform,status}, time to response
+ * headers) and in-flight requests (http.client.outbound.in-flight{platform}). The JDK client does
+ * not expose its connection pool, so in-flight requests per platform are the utilization signal.
+ */
+public class OutboundHttpMetricsInterceptor implements ClientHttpRequestInterceptor {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<OutboundPlatform, AtomicInteger> inFlight = new EnumMap<>(OutboundPlatform.class);
+
+    public OutboundHttpMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (OutboundPlatform platform : OutboundPlatform.values()) {
+            AtomicInteger counter = new AtomicInteger();
+            inFlight.put(platform, counter);
+            Gauge.builder("http.client.outbound.in-flight", counter, AtomicInteger::get)
+                    .tag("platform", platform.getMetricName())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        OutboundPlatform platform = OutboundPlatform.fromHost(request.getURI().getHost());
+        AtomicInteger platformInFlight = inFlight.get(platform);
+        platformInFlight.incrementAndGet();
+        long start = System.nanoTime();
+        String status = "IO_ERROR";
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            status = String.valueOf(response.getStatusCode().value());
+            return response;
+        } finally {
+            platformInFlight.decrementAndGet();
+            Timer.builder("http.client.outbound")
+                    .tag("platform", platform.getMetricName())
+                    .tag("status", status)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.tonyghouse.socialraven.http;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * External services the API calls out to, identified by request host. Used to tag outbound
+ * HTTP metrics (and anything else that needs per-platform accounting). Calls to rate-limited
+ * platforms go through OutboundRateLimiter.
+ */
+public enum OutboundPlatform {
+    LINKEDIN("linkedin", true, List.of("linkedin.com", "licdn.com")),
+    X("x", true, List.of("twitter.com", "x.com")),
+    YOUTUBE("youtube", true, List.of("googleapis.com", "google.com", "youtube.com")),
+    INSTAGRAM("instagram", true, List.of("instagram.com")),
+    FACEBOOK("facebook", true, List.of("facebook.com")),
+    THREADS("threads", true, List.of("threads.net")),
+    TIKTOK("tiktok", true, List.of("tiktokapis.com", "tiktok.com")),
+    CLERK("clerk", false, List.of("clerk.com", "clerk.accounts.dev")),
+    RESEND("resend", false, List.of("resend.com")),
+    OTHER("other", false, List.of());
+
+    private final String metricName;
+    private final boolean rateLimited;
+    private final List<String> hostSuffixes;
+
+    OutboundPlatform(String metricName, boolean rateLimited, List<String> hostSuffixes) {
+        this.metricName = metricName;
+        this.rateLimited = rateLimited;
+        this.hostSuffixes = hostSuffixes;
+    }
+
+    public String getMetricName() {
+        return metricName;
+    }
+
+    public boolean isRateLimited() {
+        return rateLimited;
+    }
+
+    public static OutboundPlatform fromHost(String host) {
+        if (host == null) {
+            return OTHER;
+        }
+        String normalized = host.toLowerCase(Locale.ROOT);
+        for (OutboundPlatform platform : values()) {
+            for (String suffix : platform.hostSuffixes) {
+                if (normalized.equals(suffix) || normalized.endsWith("." + suffix)) {
+                    return platform;
+                }
+            }
+        }
+        return OTHER;
+    }
+}
@@ -0,0 +1,41 @@
+package com.tonyghouse.socialraven.http;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * Puts every RestTemplate call to a rate-limited platform through OutboundRateLimiter.
+ *
+ * Calls made inside OutboundRateLimiter.execute(...) already hold their tokens and pass straight
+ * through; a 429 then reaches execute as HttpClientErrorException.TooManyRequests. Any other
+ * call takes a platform token (IMMEDIATE: fails fast with 429 when the bucket is empty), and a
+ * 429 response blocks the platform bucket before it is returned to the caller.
+ */
+public class OutboundRateLimitInterceptor implements ClientHttpRequestInterceptor {
+
+    private final OutboundRateLimiter outboundRateLimiter;
+
+    public OutboundRateLimitInterceptor(OutboundRateLimiter outboundRateLimiter) {
+        this.outboundRateLimiter = outboundRateLimiter;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        OutboundPlatform platform = OutboundPlatform.fromHost(request.getURI().getHost());
+        if (!platform.isRateLimited() || outboundRateLimiter.isAdmitted()) {
+            return execution.execute(request, body);
+        }
+        outboundRateLimiter.admit(platform, null, OutboundCallMode.IMMEDIATE);
+        ClientHttpResponse response = execution.execute(request, body);
+        if (response.getStatusCode().isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS)) {
+            outboundRateLimiter.onRateLimited(platform, null, response.getHeaders());
+        }
+        return response;
+    }
+}
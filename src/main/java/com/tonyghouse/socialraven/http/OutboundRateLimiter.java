@@ -0,0 +1,367 @@
+package com.tonyghouse.socialraven.http;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tonyghouse.socialraven.cache.RedisCacheClient;
+import com.tonyghouse.socialraven.cache.RedisScript;
+import com.tonyghouse.socialraven.exception.StacklessSocialRavenException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Token-bucket admission for calls to social platforms, shared across nodes through Redis.
+ *
+ * Every call takes one token from the platform-wide bucket (the app's quota) and, when an account
+ * is given, one from that connected account's bucket (so one bursty workspace cannot drain the
+ * platform quota for everyone). Both are taken in one script, all or nothing, so a call throttled
+ * by its account never spends a platform token. Buckets are refilled by Redis's clock (TIME), so
+ * nodes with skewed clocks agree. A 429 from the platform blocks the offending bucket for the
+ * Retry-After period on all nodes.
+ *
+ * Callers wrap a call in execute(...) to name the account and the mode:
+ * DEFERRABLE calls wait for tokens (and retry once after a 429) up to max-defer-ms;
+ * IMMEDIATE calls fail fast with a 429 SocialRavenException.
+ * Any other RestTemplate call to a rate-limited platform is admitted by
+ * OutboundRateLimitInterceptor against the platform bucket only, as IMMEDIATE.
+ *
+ * The admission is carried into tasks fanned out through ContextAwareTaskExecutor, so calls
+ * those tasks make are not charged again.
+ *
+ * Bucket keys share a {platform} hash tag, so the multi-key script stays on one Redis Cluster slot.
+ *
+ * Rates are configured per platform, e.g.
+ *   socialraven.outbound-rate-limit.linkedin.platform-per-second=20
+ *   socialraven.outbound-rate-limit.linkedin.account-per-second=1
+ * falling back to socialraven.outbound-rate-limit.default.*.
+ */
+@Component
+@Slf4j
+public class OutboundRateLimiter {
+
+    private static final String KEY_PREFIX = "rl:out:";
+    private static final String[] SCOPES = {"platform", "account"};
+
+    // KEYS bucket hashes (platform[, account]); ARGV rate/s and capacity for each key in turn.
+    // Takes a token from every bucket or from none. Returns {0, 0} if taken, otherwise
+    // {milliseconds until every bucket has a token, 1-based index of the slowest bucket}.
+    private static final RedisScript TAKE_TOKENS_SCRIPT = new RedisScript("""
+            redis.replicate_commands()
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local tokens = {}
+            local wait, limiting = 0, 0
+            for i, key in ipairs(KEYS) do
+              local rate = tonumber(ARGV[2 * i - 1])
+              local capacity = tonumber(ARGV[2 * i])
+              local blocked = tonumber(redis.call('HGET', key, 'blocked_until') or '0')
+              local available = tonumber(redis.call('HGET', key, 'tokens') or capacity)
+              local ts = tonumber(redis.call('HGET', key, 'ts') or now)
+              available = math.min(capacity, available + math.max(0, now - ts) * rate / 1000)
+              local w = 0
+              if blocked > now then w = blocked - now
+              elseif available < 1 then w = math.ceil((1 - available) * 1000 / rate) end
+              if w > wait then wait, limiting = w, i end
+              tokens[i] = available
+            end
+            for i, key in ipairs(KEYS) do
+              local rate = tonumber(ARGV[2 * i - 1])
+              local capacity = tonumber(ARGV[2 * i])
+              if wait == 0 then tokens[i] = tokens[i] - 1 end
+              redis.call('HSET', key, 'tokens', tostring(tokens[i]), 'ts', tostring(now))
+              redis.call('PEXPIRE', key, math.ceil(capacity * 1000 / rate) + 60000)
+            end
+            return {wait, limiting}
+            """);
+
+    // KEYS[1] bucket hash; ARGV block duration (ms). Blocks from Redis's clock, never shortening
+    // a longer block already in place.
+    private static final RedisScript BLOCK_SCRIPT = new RedisScript("""
+            redis.replicate_commands()
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local blocked_until = now + tonumber(ARGV[1])
+            local current = tonumber(redis.call('HGET', KEYS[1], 'blocked_until') or '0')
+            if blocked_until > current then
+              redis.call('HSET', KEYS[1], 'blocked_until', tostring(blocked_until), 'tokens', '0')
+              redis.call('PEXPIRE', KEYS[1], tonumber(ARGV[1]) + 60000)
+            end
+            return 1
+            """);
+
+    /** Set while a call admitted by execute(...) runs, so the interceptor doesn't admit it again. */
+    private static final ThreadLocal<Boolean> ADMITTED = new ThreadLocal<>();
+
+    /**
+     * Restores the previous admission state when closed.
+     */
+    public static final class AdmissionScope implements AutoCloseable {
+
+        private final Boolean previous;
+        private boolean closed;
+
+        private AdmissionScope(Boolean previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            restoreAdmitted(previous);
+        }
+    }
+
+    @Value("${socialraven.outbound-rate-limit.max-defer-ms:30000}")
+    private long maxDeferMs;
+
+    @Value("${socialraven.outbound-rate-limit.default-retry-after-seconds:30}")
+    private long defaultRetryAfterSeconds;
+
+    @Autowired
+    private RedisCacheClient redisCacheClient;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Cache<String, LocalTokenBucket> localBuckets = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofMinutes(30))
+            .maximumSize(50_000)
+            .build();
+
+    private final Map<OutboundPlatform, Timer> waitTimers = new EnumMap<>(OutboundPlatform.class);
+
+    @PostConstruct
+    public void init() {
+        for (OutboundPlatform platform : OutboundPlatform.values()) {
+            waitTimers.put(platform, Timer.builder("outbound.ratelimit.wait")
+                    .tag("platform", platform.getMetricName())
+                    .register(meterRegistry));
+        }
+    }
+
+    public <T> T execute(OutboundPlatform platform, String accountId, OutboundCallMode mode, Supplier<T> call) {
+        long deadline = System.currentTimeMillis() + maxDeferMs;
+        boolean retriedAfter429 = false;
+        while (true) {
+            acquire(platform, accountId, mode, deadline);
+            try (AdmissionScope ignored = bindAdmitted(true)) {
+                return call.get();
+            } catch (HttpClientErrorException.TooManyRequests e) {
+                long retryAfterMs = onRateLimited(platform, accountId, e.getResponseHeaders());
+                if (mode == OutboundCallMode.IMMEDIATE || retriedAfter429
+                        || System.currentTimeMillis() + retryAfterMs > deadline) {
+                    throw rejected(platform, retryAfterMs);
+                }
+                retriedAfter429 = true;
+            }
+        }
+    }
+
+    /**
+     * True inside execute(...), whose call has already taken its tokens.
+     */
+    public boolean isAdmitted() {
+        return admittedOnCurrentThread();
+    }
+
+    /**
+     * Static form of isAdmitted(), for ContextAwareTaskExecutor to capture on submit.
+     */
+    public static boolean admittedOnCurrentThread() {
+        return ADMITTED.get() != null;
+    }
+
+    /**
+     * Marks the current thread as admitted (or not) until the returned scope is closed.
+     */
+    public static AdmissionScope bindAdmitted(boolean admitted) {
+        Boolean previous = ADMITTED.get();
+        restoreAdmitted(admitted ? Boolean.TRUE : null);
+        return new AdmissionScope(previous);
+    }
+
+    private static void restoreAdmitted(Boolean admitted) {
+        if (admitted == null) {
+            ADMITTED.remove();
+        } else {
+            ADMITTED.set(admitted);
+        }
+    }
+
+    /**
+     * Takes the tokens for one call, waiting up to max-defer-ms if mode is DEFERRABLE.
+     */
+    public void admit(OutboundPlatform platform, String accountId, OutboundCallMode mode) {
+        acquire(platform, accountId, mode, System.currentTimeMillis() + maxDeferMs);
+    }
+
+    /**
+     * Records a 429 from the platform and blocks the bucket it applies to on all nodes.
+     *
+     * @return how long the bucket is blocked, in milliseconds
+     */
+    public long onRateLimited(OutboundPlatform platform, String accountId, HttpHeaders responseHeaders) {
+        long retryAfterMs = parseRetryAfterMs(responseHeaders);
+        block(platform, accountId, retryAfterMs);
+        meterRegistry.counter("outbound.ratelimit.upstream-429", "platform", platform.getMetricName()).increment();
+        return retryAfterMs;
+    }
+
+    private void acquire(OutboundPlatform platform, String accountId, OutboundCallMode mode, long deadline) {
+        long waitStart = System.nanoTime();
+        String platformKey = platformKey(platform);
+        Bucket platformBucket = bucket(platform, platformKey, "platform");
+        List<Bucket> buckets = accountId == null
+                ? List.of(platformBucket)
+                : List.of(platformBucket, bucket(platform, platformKey + ":" + accountId, "account"));
+
+        while (true) {
+            long[] result = tryTake(buckets);
+            long waitMs = result[0];
+            if (waitMs <= 0) {
+                break;
+            }
+            meterRegistry.counter("outbound.ratelimit.throttled", "platform", platform.getMetricName(),
+                    "scope", SCOPES[(int) result[1]], "mode", mode.name()).increment();
+            if (mode == OutboundCallMode.IMMEDIATE || System.currentTimeMillis() + waitMs > deadline) {
+                throw rejected(platform, waitMs);
+            }
+            sleep(waitMs);
+        }
+        waitTimers.get(platform).record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+    }
+
+    private Bucket bucket(OutboundPlatform platform, String key, String scope) {
+        double ratePerSecond = rate(platform, scope + "-per-second", "account".equals(scope) ? 1.0 : 20.0);
+        double burst = rate(platform, scope + "-burst", Math.max(1.0, ratePerSecond));
+        return new Bucket(key, ratePerSecond, burst);
+    }
+
+    /**
+     * @return {0, _} if a token was taken from every bucket, otherwise {milliseconds to wait,
+     *         index of the limiting bucket}
+     */
+    private long[] tryTake(List<Bucket> buckets) {
+        List<String> keys = new ArrayList<>(buckets.size());
+        List<String> args = new ArrayList<>(buckets.size() * 2);
+        for (Bucket bucket : buckets) {
+            keys.add(bucket.key());
+            args.add(String.valueOf(bucket.ratePerSecond()));
+            args.add(String.valueOf(bucket.burst()));
+        }
+        Object result = redisCacheClient.eval(TAKE_TOKENS_SCRIPT, keys, args);
+        if (result instanceof List<?> reply && reply.size() == 2
+                && reply.get(0) instanceof Long waitMs && reply.get(1) instanceof Long limiting) {
+            return new long[]{waitMs, Math.max(0, limiting - 1)};
+        }
+        // Redis unavailable: each node enforces the limits on its own. The account bucket goes
+        // first; a platform rejection hands its token back
+        long now = System.currentTimeMillis();
+        LocalTokenBucket account = null;
+        if (buckets.size() > 1) {
+            account = localBucket(buckets.get(1), now);
+            long waitMs = account.tryAcquire(now);
+            if (waitMs > 0) {
+                return new long[]{waitMs, 1};
+            }
+        }
+        long waitMs = localBucket(buckets.get(0), now).tryAcquire(now);
+        if (waitMs > 0 && account != null) {
+            account.refund();
+        }
+        return new long[]{waitMs, 0};
+    }
+
+    private void block(OutboundPlatform platform, String accountId, long retryAfterMs) {
+        String key = platformKey(platform) + (accountId == null ? "" : ":" + accountId);
+        log.warn("{} returned 429 for {}; blocking for {} ms", platform.getMetricName(),
+                accountId == null ? "platform" : "account " + accountId, retryAfterMs);
+
+        long now = System.currentTimeMillis();
+        localBuckets.get(key, k -> new LocalTokenBucket(1, 1, now)).blockUntil(now + retryAfterMs);
+        redisCacheClient.eval(BLOCK_SCRIPT, List.of(key), List.of(String.valueOf(retryAfterMs)));
+    }
+
+    /**
+     * rl:out:{platform}; account buckets append :account, keeping the hash tag.
+     */
+    private static String platformKey(OutboundPlatform platform) {
+        return KEY_PREFIX + "{" + platform.getMetricName() + "}";
+    }
+
+    private LocalTokenBucket localBucket(Bucket bucket, long nowMillis) {
+        return localBuckets.get(bucket.key(), k -> new LocalTokenBucket(bucket.ratePerSecond(), bucket.burst(), nowMillis));
+    }
+
+    private double rate(OutboundPlatform platform, String name, double defaultValue) {
+        Double value = environment.getProperty(
+                "socialraven.outbound-rate-limit." + platform.getMetricName() + "." + name, Double.class);
+        if (value == null) {
+            value = environment.getProperty("socialraven.outbound-rate-limit.default." + name, Double.class, defaultValue);
+        }
+        return value;
+    }
+
+    private long parseRetryAfterMs(HttpHeaders headers) {
+        String retryAfter = headers == null ? null : headers.getFirst(HttpHeaders.RETRY_AFTER);
+        if (retryAfter != null) {
+            try {
+                return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+            } catch (NumberFormatException ignored) {
+                // Not delta-seconds; try the HTTP-date form
+            }
+            try {
+                ZonedDateTime at = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, at.toInstant().toEpochMilli() - System.currentTimeMillis());
+            } catch (Exception ignored) {
+                // Fall through to the default
+            }
+        }
+        return TimeUnit.SECONDS.toMillis(defaultRetryAfterSeconds);
+    }
+
+    private StacklessSocialRavenException rejected(OutboundPlatform platform, long retryAfterMs) {
+        meterRegistry.counter("outbound.ratelimit.rejected", "platform", platform.getMetricName()).increment();
+        long retryAfterSeconds = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(retryAfterMs + 999));
+        return new StacklessSocialRavenException(
+                platform.getMetricName() + " rate limit reached, retry in " + retryAfterSeconds + "s",
+                HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StacklessSocialRavenException("Interrupted while waiting for rate limit",
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    private record Bucket(String key, double ratePerSecond, double burst) {
+    }
+}
@@ -0,0 +1,189 @@
+package com.tonyghouse.socialraven.idempotency;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffers the response body, like ContentCachingResponseWrapper, but only up to limit bytes.
+ * Past that the body can no longer be stored anyway, so the buffer is written out and the rest
+ * streams straight to the client instead of being held in memory.
+ *
+ * Call copyBodyToResponse() once the request has been handled.
+ */
+public class BoundedCachingResponseWrapper extends HttpServletResponseWrapper {
+
+    private final int limit;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private boolean overflowed;
+    private long declaredContentLength = -1;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    public BoundedCachingResponseWrapper(HttpServletResponse response, int limit) {
+        super(response);
+        this.limit = limit;
+    }
+
+    /**
+     * True once the body went past the limit and started streaming to the client.
+     */
+    public boolean isOverflowed() {
+        return overflowed;
+    }
+
+    public byte[] getContentAsByteArray() {
+        flushWriter();
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Writes whatever is still buffered to the client.
+     */
+    public void copyBodyToResponse() throws IOException {
+        flushWriter();
+        if (overflowed) {
+            return;
+        }
+        HttpServletResponse response = (HttpServletResponse) getResponse();
+        if (!response.isCommitted()) {
+            response.setContentLength(buffer.size());
+        }
+        if (buffer.size() > 0) {
+            response.getOutputStream().write(buffer.toByteArray());
+        }
+        buffer.reset();
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called");
+        }
+        return stream();
+    }
+
+    @Override
+    public PrintWriter getWriter() {
+        if (writer == null) {
+            if (outputStream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called");
+            }
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding == null ? StandardCharsets.ISO_8859_1 : Charset.forName(encoding);
+            writer = new PrintWriter(new OutputStreamWriter(stream(), charset));
+        }
+        return writer;
+    }
+
+    @Override
+    public void setContentLength(int length) {
+        setContentLengthLong(length);
+    }
+
+    @Override
+    public void setContentLengthLong(long length) {
+        // Set on the real response when the body is written out
+        if (overflowed) {
+            super.setContentLengthLong(length);
+        } else {
+            declaredContentLength = length;
+        }
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        // Committing early would fix the status before the response is stored
+        flushWriter();
+        if (overflowed) {
+            super.flushBuffer();
+        }
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        buffer.reset();
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        buffer.reset();
+        declaredContentLength = -1;
+    }
+
+    @Override
+    public void sendError(int status) throws IOException {
+        buffer.reset();
+        super.sendError(status);
+    }
+
+    @Override
+    public void sendError(int status, String message) throws IOException {
+        buffer.reset();
+        super.sendError(status, message);
+    }
+
+    private ServletOutputStream stream() {
+        if (outputStream == null) {
+            outputStream = new ServletOutputStream() {
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                    try {
+                        writeListener.onWritePossible();
+                    } catch (IOException e) {
+                        writeListener.onError(e);
+                    }
+                }
+
+                @Override
+                public void write(int b) throws IOException {
+                    write(new byte[]{(byte) b}, 0, 1);
+                }
+
+                @Override
+                public void write(byte[] bytes, int offset, int length) throws IOException {
+                    append(bytes, offset, length);
+                }
+            };
+        }
+        return outputStream;
+    }
+
+    private void append(byte[] bytes, int offset, int length) throws IOException {
+        if (!overflowed && buffer.size() + length <= limit) {
+            buffer.write(bytes, offset, length);
+            return;
+        }
+        ServletOutputStream out = getResponse().getOutputStream();
+        if (!overflowed) {
+            overflowed = true;
+            if (declaredContentLength >= 0) {
+                super.setContentLengthLong(declaredContentLength);
+            }
+            buffer.writeTo(out);
+            buffer.reset();
+        }
+        out.write(bytes, offset, length);
+    }
+
+    private void flushWriter() {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.tonyghouse.socialraven.idempotency;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A request whose body was read up front (to fingerprint it) and can be read again downstream.
+ *
+ * When only a prefix was read (the body turned out to be too large to cache), the rest of the
+ * original stream follows it, so downstream still sees the whole body once.
+ */
+public class CachedBodyRequest extends HttpServletRequestWrapper {
+
+    private final byte[] body;
+    private final boolean partial;
+
+    public CachedBodyRequest(HttpServletRequest request, byte[] body) {
+        this(request, body, false);
+    }
+
+    private CachedBodyRequest(HttpServletRequest request, byte[] body, boolean partial) {
+        super(request);
+        this.body = body;
+        this.partial = partial;
+    }
+
+    /**
+     * A request that replays prefix and then continues with the unread rest of request's body.
+     */
+    public static CachedBodyRequest withRemainder(HttpServletRequest request, byte[] prefix) {
+        return new CachedBodyRequest(request, prefix, true);
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        ByteArrayInputStream cached = new ByteArrayInputStream(body);
+        ServletInputStream remainder = partial ? super.getInputStream() : null;
+        return new ServletInputStream() {
+            @Override
+            public boolean isFinished() {
+                return cached.available() == 0 && (remainder == null || remainder.isFinished());
+            }
+
+            @Override
+            public boolean isReady() {
+                return cached.available() > 0 || remainder == null || remainder.isReady();
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                if (remainder != null && !remainder.isFinished()) {
+                    // The container signals the listener as the rest arrives; reads drain the
+                    // cached prefix first
+                    remainder.setReadListener(readListener);
+                    return;
+                }
+                // Everything is already in memory
+                try {
+                    if (cached.available() > 0) {
+                        readListener.onDataAvailable();
+                    }
+                    readListener.onAllDataRead();
+                } catch (IOException | RuntimeException e) {
+                    readListener.onError(e);
+                }
+            }
+
+            @Override
+            public int read() throws IOException {
+                int b = cached.read();
+                return b >= 0 || remainder == null ? b : remainder.read();
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                if (length == 0) {
+                    return 0;
+                }
+                int read = cached.read(buffer, offset, length);
+                return read >= 0 || remainder == null ? read : remainder.read(buffer, offset, length);
+            }
+        };
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+        String encoding = getCharacterEncoding();
+        Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+        return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+    }
+
+    @Override
+    public int getContentLength() {
+        return partial ? super.getContentLength() : body.length;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+        return partial ? super.getContentLengthLong() : body.length;
+    }
+}
@@ -0,0 +1,18 @@
+package com.tonyghouse.socialraven.idempotency;
+
+/**
+ * What is stored under an idempotency key: an in-flight marker while the first request runs,
+ * then the response it produced. fingerprint identifies the request (method, path, body) so a
+ * key reused for a different request is rejected instead of replayed.
+ */
+public record IdempotencyRecord(boolean completed,
+                                String fingerprint,
+                                int status,
+                                String contentType,
+                                String location,
+                                byte[] body) {
+
+    static IdempotencyRecord inFlight(String fingerprint) {
+        return new IdempotencyRecord(false, fingerprint, 0, null, null, null);
+    }
+}
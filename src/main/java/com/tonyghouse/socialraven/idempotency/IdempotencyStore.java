@@ -0,0 +1,98 @@
+package com.tonyghouse.socialraven.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tonyghouse.socialraven.cache.RedisCacheClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Idempotency keys in Redis, one entry per (user, workspace, Idempotency-Key):
+ * an in-flight marker (SET NX, expires after in-flight-ttl-ms so a crashed node doesn't block
+ * retries forever) that is replaced by the completed response for completed-ttl-seconds.
+ *
+ * Like every RedisCacheClient user this degrades open: while Redis is unavailable acquire()
+ * always succeeds, so duplicates across nodes execute again (IdempotencyFilter still collapses
+ * duplicates within a node).
+ */
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+    private static final String KEY_PREFIX = "idem:";
+
+    @Value("${socialraven.idempotency.in-flight-ttl-ms:60000}")
+    private long inFlightTtlMs;
+
+    @Value("${socialraven.idempotency.completed-ttl-seconds:86400}")
+    private long completedTtlSeconds;
+
+    @Autowired
+    private RedisCacheClient redisCacheClient;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public static String key(String userId, String workspaceId, String idempotencyKey) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((userId + "\n" + workspaceId + "\n" + idempotencyKey).getBytes(StandardCharsets.UTF_8));
+            return KEY_PREFIX + HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Claims the key for this request.
+     *
+     * @return null if the caller now owns the key and should execute the request, otherwise the
+     *         existing in-flight marker or completed response
+     */
+    public IdempotencyRecord tryAcquire(String key, String fingerprint) {
+        if (redisCacheClient.setIfAbsent(key, inFlightTtlMs, write(IdempotencyRecord.inFlight(fingerprint)))) {
+            return null;
+        }
+        // Null here means the marker expired in between (or Redis failed): run the request
+        return get(key);
+    }
+
+    public IdempotencyRecord get(String key) {
+        String value = redisCacheClient.get(key);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(value, IdempotencyRecord.class);
+        } catch (Exception e) {
+            log.warn("Dropping unreadable idempotency record {}: {}", key, e.getMessage());
+            redisCacheClient.delete(key);
+            return null;
+        }
+    }
+
+    public void complete(String key, IdempotencyRecord response) {
+        redisCacheClient.setex(key, completedTtlSeconds, write(response));
+    }
+
+    /**
+     * Drops the in-flight marker so a retry executes the request again.
+     */
+    public void release(String key) {
+        redisCacheClient.delete(key);
+    }
+
+    private String write(IdempotencyRecord record) {
+        try {
+            return objectMapper.writeValueAsString(record);
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not serialise idempotency record", e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.tonyghouse.socialraven.interceptor;
+
+import com.tonyghouse.socialraven.annotation.RequiresRole;
+import com.tonyghouse.socialraven.constant.WorkspaceRole;
+import com.tonyghouse.socialraven.timing.RequestStage;
+import com.tonyghouse.socialraven.timing.RequestTimings;
+import com.tonyghouse.socialraven.util.WorkspaceContext;
+import com.tonyghouse.socialraven.util.WorkspaceRoleChecks;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Enforces @RequiresRole on controller methods without AOP proxies.
+ *
+ * The required role of every handler method is resolved once, when the context is refreshed,
+ * so a request costs one map lookup plus a table lookup in WorkspaceRoleChecks. Denials throw the
+ * preallocated 403 for that role, handled by GlobalExceptionHandler like any SocialRavenException.
+ *
+ * WorkspaceRoleAspect still covers @RequiresRole on non-controller beans.
+ */
+@Component
+@Slf4j
+public class WorkspaceRoleInterceptor implements HandlerInterceptor {
+
+    private final Map<Method, Optional<WorkspaceRole>> requiredRoles = new ConcurrentHashMap<>();
+
+    @EventListener
+    public void onContextRefreshed(ContextRefreshedEvent event) {
+        Map<String, RequestMappingHandlerMapping> mappings =
+                event.getApplicationContext().getBeansOfType(RequestMappingHandlerMapping.class);
+        int guarded = 0;
+        for (RequestMappingHandlerMapping mapping : mappings.values()) {
+            for (HandlerMethod handlerMethod : mapping.getHandlerMethods().values()) {
+                if (requiredRoles.computeIfAbsent(handlerMethod.getMethod(), WorkspaceRoleInterceptor::resolve).isPresent()) {
+                    guarded++;
+                }
+            }
+        }
+        log.info("Resolved @RequiresRole for {} handler method(s)", guarded);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        long checkStart = System.nanoTime();
+        Optional<WorkspaceRole> required = requiredRoles.computeIfAbsent(
+                handlerMethod.getMethod(), WorkspaceRoleInterceptor::resolve);
+        if (required.isPresent()) {
+            WorkspaceRole requiredRole = required.get();
+            boolean allowed = WorkspaceRoleChecks.isAllowed(WorkspaceContext.getRole(), requiredRole);
+            RequestTimings.record(request, RequestStage.ROLE, checkStart);
+            if (!allowed) {
+                throw WorkspaceRoleChecks.forbidden(requiredRole);
+            }
+        }
+        RequestTimings.markHandlerStart(request);
+        return true;
+    }
+
+    private static Optional<WorkspaceRole> resolve(Method method) {
+        RequiresRole requiresRole = AnnotatedElementUtils.findMergedAnnotation(method, RequiresRole.class);
+        return requiresRole == null ? Optional.empty() : Optional.of(requiresRole.value());
+    }
+}
@@ -0,0 +1,13 @@
+package com.tonyghouse.socialraven.linktoken;
+
+/**
+ * What a verified link token vouches for. subjectId is the review, report or connect request
+ * the link points at; nonce makes every issued token distinct so it can be revoked on its own.
+ */
+public record LinkClaims(LinkTokenType type,
+                         String keyId,
+                         String workspaceId,
+                         String subjectId,
+                         long expiresAtEpochSeconds,
+                         long nonce) {
+}
@@ -0,0 +1,197 @@
+package com.tonyghouse.socialraven.linktoken;
+
+import com.tonyghouse.socialraven.exception.SocialRavenException;
+import com.tonyghouse.socialraven.exception.StacklessSocialRavenException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Signs and verifies the link tokens of one LinkTokenType, without any I/O.
+ *
+ * A token is base64url(payload || tag), where payload is
+ *   version(1) type(1) kid-length(1) kid expires-at-seconds(4) nonce(8)
+ *   workspace-length(1) workspace subject-length(1) subject
+ * and tag is HMAC-SHA256(secret[kid], payload) truncated to 16 bytes. The key id selects the
+ * secret, so tokens signed with a previous key keep verifying until that key is removed.
+ *
+ * Each key keeps one initialised Mac and hands out clones of it (no provider lookup or key setup
+ * per token, and nothing per thread, which virtual threads would not reuse). Tags are compared
+ * in constant time.
+ * Failures throw preallocated exceptions: public link endpoints see a lot of junk traffic.
+ */
+public final class LinkTokenCodec {
+
+    public static final String INVALID = "LINK_INVALID";
+    public static final String EXPIRED = "LINK_EXPIRED";
+
+    private static final byte VERSION = 1;
+    private static final int TAG_LENGTH = 16;
+    private static final int MAX_FIELD_LENGTH = 255;
+    /** Smallest possible payload: header, empty kid, expiry, nonce and two empty strings. */
+    private static final int MIN_PAYLOAD_LENGTH = 3 + 4 + 8 + 2;
+
+    private static final SocialRavenException INVALID_TOKEN =
+            new StacklessSocialRavenException("This link is invalid", INVALID);
+    private static final SocialRavenException EXPIRED_TOKEN =
+            new StacklessSocialRavenException("This link has expired", EXPIRED);
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final LinkTokenType type;
+    private final SigningKey currentKey;
+    private final Map<String, SigningKey> keysById = new HashMap<>();
+
+    /**
+     * @param secretsByKeyId every key that may still verify tokens, including currentKeyId
+     */
+    public LinkTokenCodec(LinkTokenType type, String currentKeyId, Map<String, String> secretsByKeyId) {
+        this.type = type;
+        secretsByKeyId.forEach((keyId, secret) -> {
+            if (keyId.getBytes(StandardCharsets.UTF_8).length > MAX_FIELD_LENGTH) {
+                throw new IllegalArgumentException("Key id too long for " + type + ": " + keyId);
+            }
+            keysById.put(keyId, new SigningKey(keyId, secret.getBytes(StandardCharsets.UTF_8)));
+        });
+        this.currentKey = keysById.get(currentKeyId);
+        if (currentKey == null) {
+            throw new IllegalArgumentException("No secret configured for current key id " + currentKeyId + " of " + type);
+        }
+    }
+
+    public LinkTokenType getType() {
+        return type;
+    }
+
+    public String sign(String workspaceId, String subjectId, long expiresAtEpochSeconds, long nonce) {
+        byte[] kid = currentKey.idBytes;
+        byte[] workspace = field(workspaceId);
+        byte[] subject = field(subjectId);
+
+        ByteBuffer token = ByteBuffer.allocate(3 + kid.length + 12 + 2 + workspace.length + subject.length + TAG_LENGTH);
+        token.put(VERSION).put(type.getCode()).put((byte) kid.length).put(kid)
+                .putInt((int) expiresAtEpochSeconds)
+                .putLong(nonce)
+                .put((byte) workspace.length).put(workspace)
+                .put((byte) subject.length).put(subject);
+        int payloadLength = token.position();
+
+        Mac mac = currentKey.mac();
+        mac.update(token.array(), 0, payloadLength);
+        token.put(mac.doFinal(), 0, TAG_LENGTH);
+        return ENCODER.encodeToString(token.array());
+    }
+
+    /**
+     * @throws SocialRavenException LINK_INVALID for anything malformed, of another type, signed
+     *                              with an unknown key or with a wrong tag; LINK_EXPIRED after expiry
+     */
+    public LinkClaims verify(String token, long nowEpochSeconds) {
+        byte[] bytes;
+        try {
+            bytes = token == null ? null : DECODER.decode(token);
+        } catch (IllegalArgumentException e) {
+            bytes = null;
+        }
+        if (bytes == null || bytes.length < MIN_PAYLOAD_LENGTH + TAG_LENGTH
+                || bytes[0] != VERSION || bytes[1] != type.getCode()) {
+            throw INVALID_TOKEN;
+        }
+
+        int payloadLength = bytes.length - TAG_LENGTH;
+        ByteBuffer payload = ByteBuffer.wrap(bytes, 0, payloadLength);
+        payload.position(2);
+        String keyId = readField(payload);
+        if (keyId == null || payload.remaining() < 12) {
+            throw INVALID_TOKEN;
+        }
+        long expiresAt = Integer.toUnsignedLong(payload.getInt());
+        long nonce = payload.getLong();
+        String workspaceId = readField(payload);
+        String subjectId = readField(payload);
+        if (workspaceId == null || subjectId == null || payload.hasRemaining()) {
+            throw INVALID_TOKEN;
+        }
+
+        SigningKey key = keysById.get(keyId);
+        if (key == null) {
+            throw INVALID_TOKEN;
+        }
+        Mac mac = key.mac();
+        mac.update(bytes, 0, payloadLength);
+        byte[] expected = Arrays.copyOf(mac.doFinal(), TAG_LENGTH);
+        byte[] actual = Arrays.copyOfRange(bytes, payloadLength, bytes.length);
+        if (!MessageDigest.isEqual(expected, actual)) {
+            throw INVALID_TOKEN;
+        }
+        // Checked after the tag so the response never depends on unauthenticated data
+        if (nowEpochSeconds >= expiresAt) {
+            throw EXPIRED_TOKEN;
+        }
+        return new LinkClaims(type, keyId, workspaceId, subjectId, expiresAt, nonce);
+    }
+
+    private static byte[] field(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_FIELD_LENGTH) {
+            throw new IllegalArgumentException("Link token field longer than " + MAX_FIELD_LENGTH + " bytes");
+        }
+        return bytes;
+    }
+
+    private static String readField(ByteBuffer buffer) {
+        if (!buffer.hasRemaining()) {
+            return null;
+        }
+        int length = buffer.get() & 0xff;
+        if (buffer.remaining() < length) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static final class SigningKey {
+        private final byte[] idBytes;
+        private final SecretKeySpec spec;
+        private final Mac prototype;
+
+        SigningKey(String keyId, byte[] secret) {
+            this.idBytes = keyId.getBytes(StandardCharsets.UTF_8);
+            this.spec = new SecretKeySpec(secret, "HmacSHA256");
+            this.prototype = newMac();
+        }
+
+        /**
+         * A Mac initialised with the key, for the caller's exclusive use.
+         */
+        Mac mac() {
+            try {
+                return (Mac) prototype.clone();
+            } catch (CloneNotSupportedException e) {
+                // Only if the provider's HMAC is not cloneable
+                return newMac();
+            }
+        }
+
+        private Mac newMac() {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(spec);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.tonyghouse.socialraven.linktoken;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.tonyghouse.socialraven.cache.invalidation.CacheInvalidationBus;
+import com.tonyghouse.socialraven.exception.SocialRavenException;
+import com.tonyghouse.socialraven.exception.StacklessSocialRavenException;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issues and verifies stateless review, client-report and client-connect links.
+ *
+ * Verification is pure computation (see LinkTokenCodec) plus a lookup in a bounded in-memory
+ * revocation set, so public link endpoints can reject bad, expired or revoked links before
+ * touching the database. Revocations and one-time-use consumptions are shared with the other
+ * nodes through the CacheInvalidationBus and are kept only until the token would have expired
+ * anyway. The set is bounded by revocation.max-size; anything that must stay revoked beyond
+ * that belongs in the database record the link points at.
+ *
+ * Keys per type, under the type's property prefix:
+ *   secret               current signing secret
+ *   key-id               id of the current secret (default "1")
+ *   previous-secrets     keyId:secret,... still accepted for verification during rotation
+ *
+ * Metrics: link.token.rejected{type, reason}.
+ */
+@Service
+@Slf4j
+public class LinkTokenService {
+
+    static final String REVOCATION_CACHE = "link-token-revocation";
+    static final String REVOKED = "LINK_REVOKED";
+
+    private static final SocialRavenException REVOKED_TOKEN =
+            new StacklessSocialRavenException("This link is no longer valid", REVOKED);
+
+    @Value("${socialraven.link-token.revocation.max-size:100000}")
+    private long revocationMaxSize;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<LinkTokenType, LinkTokenCodec> codecs = new EnumMap<>(LinkTokenType.class);
+
+    /** type code:nonce -> token expiry (epoch seconds); entries expire with the token. */
+    private Cache<String, Long> revoked;
+
+    @PostConstruct
+    public void init() {
+        for (LinkTokenType type : LinkTokenType.values()) {
+            codecs.put(type, createCodec(type));
+        }
+        revoked = Caffeine.newBuilder()
+                .maximumSize(revocationMaxSize)
+                .expireAfter(new Expiry<String, Long>() {
+                    @Override
+                    public long expireAfterCreate(String key, Long expiresAt, long currentTime) {
+                        long remainingMs = expiresAt * 1000 - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Long expiresAt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Long expiresAt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        cacheInvalidationBus.register(REVOCATION_CACHE, this::onRemoteRevocations);
+    }
+
+    public String issue(LinkTokenType type, String workspaceId, String subjectId, Duration ttl) {
+        long expiresAt = System.currentTimeMillis() / 1000 + ttl.toSeconds();
+        return codecs.get(type).sign(workspaceId, subjectId, expiresAt, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * @throws SocialRavenException LINK_INVALID, LINK_EXPIRED or LINK_REVOKED
+     */
+    public LinkClaims verify(LinkTokenType type, String token) {
+        LinkClaims claims;
+        try {
+            claims = codecs.get(type).verify(token, System.currentTimeMillis() / 1000);
+        } catch (SocialRavenException e) {
+            reject(type, e.getErrorCode());
+            throw e;
+        }
+        if (revoked.getIfPresent(revocationKey(claims)) != null) {
+            reject(type, REVOKED);
+            throw REVOKED_TOKEN;
+        }
+        return claims;
+    }
+
+    /**
+     * Verifies a one-time link and marks it used, so a replay of the same token is rejected as
+     * LINK_REVOKED. Exactly one concurrent caller on this node wins; across nodes the window is
+     * the invalidation bus latency.
+     */
+    public LinkClaims consume(LinkTokenType type, String token) {
+        LinkClaims claims = verify(type, token);
+        String key = revocationKey(claims);
+        if (revoked.asMap().putIfAbsent(key, claims.expiresAtEpochSeconds()) != null) {
+            reject(type, REVOKED);
+            throw REVOKED_TOKEN;
+        }
+        cacheInvalidationBus.publish(REVOCATION_CACHE, key + ":" + claims.expiresAtEpochSeconds());
+        return claims;
+    }
+
+    public void revoke(LinkClaims claims) {
+        String key = revocationKey(claims);
+        revoked.put(key, claims.expiresAtEpochSeconds());
+        cacheInvalidationBus.publish(REVOCATION_CACHE, key + ":" + claims.expiresAtEpochSeconds());
+    }
+
+    private void onRemoteRevocations(List<String> entries) {
+        for (String entry : entries) {
+            int separator = entry.lastIndexOf(':');
+            try {
+                revoked.put(entry.substring(0, separator), Long.parseLong(entry.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                log.warn("Ignoring malformed link revocation {}", entry);
+            }
+        }
+    }
+
+    private LinkTokenCodec createCodec(LinkTokenType type) {
+        String prefix = type.getPropertyPrefix();
+        String currentKeyId = environment.getProperty(prefix + ".key-id", "1");
+        Map<String, String> secrets = new LinkedHashMap<>();
+        String previous = environment.getProperty(prefix + ".previous-secrets", "");
+        for (String pair : previous.split(",")) {
+            int separator = pair.indexOf(':');
+            if (separator > 0) {
+                secrets.put(pair.substring(0, separator).trim(), pair.substring(separator + 1).trim());
+            }
+        }
+        secrets.put(currentKeyId, environment.getRequiredProperty(prefix + ".secret"));
+        log.info("{} links sign with key {} and accept {} key(s)", type, currentKeyId, secrets.size());
+        return new LinkTokenCodec(type, currentKeyId, secrets);
+    }
+
+    private static String revocationKey(LinkClaims claims) {
+        return claims.type().getCode() + ":" + Long.toHexString(claims.nonce());
+    }
+
+    private void reject(LinkTokenType type, String reason) {
+        meterRegistry.counter("link.token.rejected", "type", type.name(), "reason", reason).increment();
+    }
+}
@@ -0,0 +1,28 @@
+package com.tonyghouse.socialraven.linktoken;
+
+/**
+ * Kinds of public link. Each kind has its own secret (and key rotation) under its property
+ * prefix, and a code that is part of the signed token so a token of one kind never verifies as
+ * another.
+ */
+public enum LinkTokenType {
+    REVIEW("socialraven.review-link", (byte) 1),
+    CLIENT_REPORT("socialraven.client-report", (byte) 2),
+    CLIENT_CONNECT("socialraven.client-connect", (byte) 3);
+
+    private final String propertyPrefix;
+    private final byte code;
+
+    LinkTokenType(String propertyPrefix, byte code) {
+        this.propertyPrefix = propertyPrefix;
+        this.code = code;
+    }
+
+    public String getPropertyPrefix() {
+        return propertyPrefix;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+}
@@ -0,0 +1,17 @@
+package com.tonyghouse.socialraven.model;
+
+/**
+ * Access token for a connected social account.
+ *
+ * @param expiresAtEpochMillis when the access token expires, or 0 if the platform did not say
+ */
+public record ConnectedAccountCredential(String accountId, String accessToken, long expiresAtEpochMillis) {
+
+    public boolean hasExpiry() {
+        return expiresAtEpochMillis > 0;
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return hasExpiry() && expiresAtEpochMillis <= nowMillis;
+    }
+}
@@ -0,0 +1,32 @@
+package com.tonyghouse.socialraven.outbox;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Broker stand-in that hands messages synchronously to subscribers in the same JVM and confirms
+ * them immediately (or fails them, if a subscriber throws).
+ * Used when socialraven.outbox.transport=in-process, and for exercising the relay without RabbitMQ.
+ */
+public class InProcessOutboxTransport implements OutboxTransport {
+
+    private final List<Consumer<OutboxMessage>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public CompletableFuture<Boolean> send(OutboxMessage message) {
+        try {
+            for (Consumer<OutboxMessage> listener : listeners) {
+                listener.accept(message);
+            }
+            return CompletableFuture.completedFuture(true);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public void subscribe(Consumer<OutboxMessage> listener) {
+        listeners.add(listener);
+    }
+}
@@ -0,0 +1,54 @@
+package com.tonyghouse.socialraven.outbox;
+
+import com.tonyghouse.socialraven.repository.OutboxRepository;
+import com.tonyghouse.socialraven.scheduler.JobHandler;
+import com.tonyghouse.socialraven.scheduler.ScheduledJob;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Deletes published outbox rows older than socialraven.outbox.retain-published-hours.
+ * Only active when retention is enabled; otherwise the relay deletes rows on confirm.
+ */
+@Component
+@ConditionalOnExpression("${socialraven.outbox.retain-published-hours:0} > 0")
+@Slf4j
+public class OutboxCompactionJob implements JobHandler {
+
+    private static final int CHUNK_SIZE = 5000;
+
+    @Value("${socialraven.outbox.retain-published-hours:0}")
+    private long retainPublishedHours;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Override
+    public String jobType() {
+        return "outbox-compaction";
+    }
+
+    @Override
+    public Duration repeatInterval() {
+        return Duration.ofHours(1);
+    }
+
+    @Override
+    public void execute(ScheduledJob job) {
+        Instant cutoff = Instant.now().minus(Duration.ofHours(retainPublishedHours));
+        int total = 0;
+        int deleted;
+        do {
+            // Small chunks keep each delete's locks and WAL burst short
+            deleted = outboxRepository.compactPublishedBefore(cutoff, CHUNK_SIZE);
+            total += deleted;
+        } while (deleted == CHUNK_SIZE);
+        log.info("Compacted {} published outbox message(s)", total);
+    }
+}
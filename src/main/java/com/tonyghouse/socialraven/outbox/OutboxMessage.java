@@ -0,0 +1,17 @@
+package com.tonyghouse.socialraven.outbox;
+
+import java.time.Instant;
+
+/**
+ * A claimed row of socialraven.outbox_message. messageId is stable across redeliveries, so
+ * consumers can deduplicate on it.
+ */
+public record OutboxMessage(long id,
+                            String messageId,
+                            String exchange,
+                            String routingKey,
+                            String messageType,
+                            String payload,
+                            Instant createdAt,
+                            int attempts) {
+}
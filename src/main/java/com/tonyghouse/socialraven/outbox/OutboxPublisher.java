@@ -0,0 +1,55 @@
+package com.tonyghouse.socialraven.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tonyghouse.socialraven.exception.SocialRavenException;
+import com.tonyghouse.socialraven.repository.OutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+/**
+ * Entry point for publishing events to RabbitMQ.
+ *
+ * The message is only written to the outbox table, in the caller's transaction: it is sent if
+ * and only if that transaction commits, and the request thread never waits on the broker.
+ * OutboxRelay publishes it right after commit (or on its next poll).
+ *
+ * Usage (inside a @Transactional service method):
+ *   outboxPublisher.publish("socialraven.posts", "post.published", "PostPublished", event);
+ */
+@Component
+public class OutboxPublisher {
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(String exchange, String routingKey, String messageType, Object payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new SocialRavenException("Could not serialise " + messageType, "INTERNAL_ERROR", e);
+        }
+        outboxRepository.insert(UUID.randomUUID().toString(), exchange, routingKey, messageType, json);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                outboxRelay.wakeUp();
+            }
+        });
+    }
+}
@@ -0,0 +1,227 @@
+package com.tonyghouse.socialraven.outbox;
+
+import com.tonyghouse.socialraven.repository.OutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains socialraven.outbox_message to the OutboxTransport.
+ *
+ * Each round claims up to batch-size due rows (leased, SKIP LOCKED, so relays on several nodes
+ * share the work), sends them without waiting in between, and then collects the publisher
+ * confirms. At most max-in-flight messages are unconfirmed at any time. Confirmed rows are
+ * deleted in one statement (or marked published when retention is on, see
+ * OutboxCompactionJob); nacked, unroutable or timed-out ones are retried with backoff.
+ * Delivery is at-least-once: consumers should deduplicate on the AMQP message id.
+ *
+ * The relay wakes right after a publishing transaction commits, and otherwise polls every
+ * poll-interval-ms.
+ *
+ * Metrics: outbox.relay.published / failed, outbox.relay.lag (commit -> confirm),
+ * outbox.relay.batch (round duration), outbox.relay.in-flight, outbox.pending.oldest.age.
+ */
+@Component
+@Slf4j
+public class OutboxRelay implements SmartLifecycle {
+
+    private static final long MAX_RETRY_BACKOFF_MS = TimeUnit.MINUTES.toMillis(10);
+
+    @Value("${socialraven.outbox.relay.enabled:true}")
+    private boolean enabled;
+
+    @Value("${socialraven.outbox.relay.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${socialraven.outbox.relay.batch-size:200}")
+    private int batchSize;
+
+    @Value("${socialraven.outbox.relay.max-in-flight:50}")
+    private int maxInFlight;
+
+    @Value("${socialraven.outbox.relay.confirm-timeout-ms:10000}")
+    private long confirmTimeoutMs;
+
+    @Value("${socialraven.outbox.relay.lease-ms:60000}")
+    private long leaseMs;
+
+    @Value("${socialraven.outbox.relay.retry-backoff-ms:5000}")
+    private long retryBackoffMs;
+
+    @Value("${socialraven.outbox.retain-published-hours:0}")
+    private long retainPublishedHours;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private OutboxTransport outboxTransport;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final String owner = "outbox-relay:" + UUID.randomUUID().toString().substring(0, 8);
+    private final Semaphore wakeUps = new Semaphore(0);
+    private final AtomicLong oldestPendingAgeSeconds = new AtomicLong();
+
+    private Semaphore inFlight;
+    private Thread relayThread;
+    private volatile boolean running;
+
+    private Counter published;
+    private Counter failed;
+    private Timer lag;
+    private Timer batchTimer;
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            log.info("Outbox relay disabled");
+            return;
+        }
+        inFlight = new Semaphore(maxInFlight);
+        published = meterRegistry.counter("outbox.relay.published");
+        failed = meterRegistry.counter("outbox.relay.failed");
+        lag = Timer.builder("outbox.relay.lag")
+                .description("Time from outbox insert to broker confirm")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        batchTimer = meterRegistry.timer("outbox.relay.batch");
+        Gauge.builder("outbox.relay.in-flight", inFlight, permits -> maxInFlight - permits.availablePermits())
+                .register(meterRegistry);
+        Gauge.builder("outbox.pending.oldest.age", oldestPendingAgeSeconds, AtomicLong::get)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+
+        running = true;
+        relayThread = Thread.ofPlatform().name("outbox-relay").daemon().start(this::loop);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        relayThread.interrupt();
+        try {
+            relayThread.join(confirmTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Asks the relay to run a round now instead of at its next poll.
+     */
+    public void wakeUp() {
+        if (wakeUps.availablePermits() == 0) {
+            wakeUps.release();
+        }
+    }
+
+    private void loop() {
+        while (running) {
+            try {
+                if (relayBatch() < batchSize) {
+                    updateOldestPendingAge();
+                    wakeUps.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                    wakeUps.drainPermits();
+                }
+            } catch (InterruptedException e) {
+                break;
+            } catch (Exception e) {
+                log.warn("Outbox relay round failed: {}", e.getMessage());
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException interrupted) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private int relayBatch() throws InterruptedException {
+        List<OutboxMessage> batch = outboxRepository.claim(owner, batchSize, leaseMs);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        long start = System.nanoTime();
+
+        List<CompletableFuture<Boolean>> confirms = new ArrayList<>(batch.size());
+        for (OutboxMessage message : batch) {
+            if (!inFlight.tryAcquire(confirmTimeoutMs, TimeUnit.MILLISECONDS)) {
+                confirms.add(CompletableFuture.failedFuture(new TimeoutException("in-flight window full")));
+                continue;
+            }
+            CompletableFuture<Boolean> confirm = outboxTransport.send(message);
+            confirm.whenComplete((ack, error) -> inFlight.release());
+            confirms.add(confirm);
+        }
+
+        List<Long> confirmed = new ArrayList<>(batch.size());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMs);
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxMessage message = batch.get(i);
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                if (confirms.get(i).get(remaining, TimeUnit.NANOSECONDS)) {
+                    confirmed.add(message.id());
+                    lag.record(Math.max(0, Duration.between(message.createdAt(), Instant.now()).toMillis()),
+                            TimeUnit.MILLISECONDS);
+                } else {
+                    retryLater(message, "nacked or unroutable");
+                }
+            } catch (TimeoutException e) {
+                retryLater(message, "confirm timed out");
+            } catch (ExecutionException e) {
+                retryLater(message, String.valueOf(e.getCause().getMessage()));
+            }
+        }
+
+        if (retainPublishedHours > 0) {
+            outboxRepository.markPublished(confirmed);
+        } else {
+            outboxRepository.delete(confirmed);
+        }
+        published.increment(confirmed.size());
+        batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return batch.size();
+    }
+
+    private void retryLater(OutboxMessage message, String error) {
+        failed.increment();
+        long backoff = Math.min(MAX_RETRY_BACKOFF_MS, retryBackoffMs << Math.min(message.attempts(), 10));
+        log.warn("Outbox message {} ({}) not confirmed, retrying in {} ms: {}",
+                message.messageId(), message.messageType(), backoff, error);
+        outboxRepository.markFailed(message.id(), error, Instant.now().plusMillis(backoff));
+    }
+
+    private void updateOldestPendingAge() {
+        Instant oldest = outboxRepository.oldestUnpublishedCreatedAt();
+        oldestPendingAgeSeconds.set(oldest == null ? 0 : Math.max(0, Duration.between(oldest, Instant.now()).toSeconds()));
+    }
+}
@@ -0,0 +1,17 @@
+package com.tonyghouse.socialraven.outbox;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Broker used by OutboxRelay.
+ */
+public interface OutboxTransport {
+
+    /**
+     * Publishes the message without waiting for the broker.
+     *
+     * @return completes with true once the broker confirmed the message, false if it was
+     *         rejected or unroutable; completes exceptionally if it could not be sent at all
+     */
+    CompletableFuture<Boolean> send(OutboxMessage message);
+}
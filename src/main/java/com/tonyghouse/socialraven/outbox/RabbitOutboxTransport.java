@@ -0,0 +1,46 @@
+package com.tonyghouse.socialraven.outbox;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Publishes through RabbitTemplate with correlated publisher confirms
+ * (spring.rabbitmq.publisher-confirm-type=correlated) and mandatory returns, so a message only
+ * counts as sent once the broker has taken responsibility for it.
+ */
+public class RabbitOutboxTransport implements OutboxTransport {
+
+    private final RabbitTemplate rabbitTemplate;
+
+    public RabbitOutboxTransport(RabbitTemplate rabbitTemplate) {
+        this.rabbitTemplate = rabbitTemplate;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> send(OutboxMessage message) {
+        MessageProperties properties = new MessageProperties();
+        properties.setMessageId(message.messageId());
+        properties.setType(message.messageType());
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setContentEncoding(StandardCharsets.UTF_8.name());
+        properties.setDeliveryMode(MessageDeliveryMode.PERSISTENT);
+        properties.setTimestamp(Date.from(message.createdAt()));
+
+        CorrelationData correlation = new CorrelationData(message.messageId());
+        try {
+            rabbitTemplate.send(message.exchange(), message.routingKey(),
+                    new Message(message.payload().getBytes(StandardCharsets.UTF_8), properties), correlation);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        // Returns (unroutable) are delivered before the confirm
+        return correlation.getFuture().thenApply(confirm -> confirm.isAck() && correlation.getReturned() == null);
+    }
+}
@@ -0,0 +1,84 @@
+package com.tonyghouse.socialraven.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tonyghouse.socialraven.repository.WorkspacePlanRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Per-plan inbound request limits (requests per rate-limit window).
+ *
+ *   socialraven.rate-limit.inbound.plans.<plan>.user-limit
+ *   socialraven.rate-limit.inbound.plans.<plan>.workspace-limit
+ *
+ * Plans are looked up per workspace and cached; unknown plans, requests without a workspace and
+ * lookup failures use the "default" plan.
+ */
+@Component
+@Slf4j
+public class InboundRateLimitPolicy {
+
+    public static final String DEFAULT_PLAN = "default";
+
+    @Value("${socialraven.rate-limit.inbound.plan-cache-ttl-seconds:300}")
+    private long planCacheTtlSeconds;
+
+    @Autowired
+    private WorkspacePlanRepository workspacePlanRepository;
+
+    @Autowired
+    private Environment environment;
+
+    private Cache<String, String> plans;
+
+    @PostConstruct
+    public void init() {
+        plans = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(planCacheTtlSeconds))
+                .maximumSize(50_000)
+                .build();
+    }
+
+    public String planFor(String workspaceId) {
+        if (workspaceId == null) {
+            return DEFAULT_PLAN;
+        }
+        return plans.get(workspaceId, this::loadPlan);
+    }
+
+    public int userLimit(String plan) {
+        return limit(plan, "user-limit", 600);
+    }
+
+    public int workspaceLimit(String plan) {
+        return limit(plan, "workspace-limit", 1200);
+    }
+
+    private String loadPlan(String workspaceId) {
+        try {
+            String plan = workspacePlanRepository.findPlan(workspaceId);
+            return plan == null ? DEFAULT_PLAN : plan.toLowerCase(Locale.ROOT);
+        } catch (DataAccessException e) {
+            log.warn("Plan lookup failed for workspace {}, using default limits: {}", workspaceId, e.getMessage());
+            return DEFAULT_PLAN;
+        }
+    }
+
+    private int limit(String plan, String name, int fallback) {
+        Integer value = environment.getProperty("socialraven.rate-limit.inbound.plans." + plan + "." + name, Integer.class);
+        if (value == null) {
+            value = environment.getProperty("socialraven.rate-limit.inbound.plans." + DEFAULT_PLAN + "." + name,
+                    Integer.class, fallback);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,172 @@
+package com.tonyghouse.socialraven.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tonyghouse.socialraven.cache.RedisCacheClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cluster-wide sliding-window limiter that keeps most decisions local.
+ *
+ * Redis holds per-window counters; the window count is estimated as
+ * previous * (1 - elapsed fraction) + current. Instead of one Redis call per request, a node
+ * leases a small batch of permits (lease-size) and spends them locally until the batch or the
+ * window runs out. Unused leased permits expire with their window, so the cluster-wide limit is
+ * never exceeded, at the cost of slightly under-admitting when many nodes hold partial leases.
+ *
+ * Once Redis refuses a lease, the node remembers until when (the script estimates when the
+ * sliding count drops enough to admit one more request) and rejects locally until then, so an
+ * exhausted key costs no Redis call and no lock per request.
+ *
+ * If Redis is unreachable, each node enforces the full limit on its own.
+ */
+@Component
+public class SlidingWindowLeaseLimiter {
+
+    private static final String KEY_PREFIX = "rl:in:";
+
+    // KEYS[1] current window counter, KEYS[2] previous window counter;
+    // ARGV limit, lease size, elapsed fraction of the current window, ttl (ms), window (ms).
+    // Returns permits granted, or if none, minus the estimated ms until one is available.
+    private static final String LEASE_SCRIPT = """
+            local current = tonumber(redis.call('GET', KEYS[1]) or '0')
+            local previous = tonumber(redis.call('GET', KEYS[2]) or '0')
+            local limit = tonumber(ARGV[1])
+            local fraction = tonumber(ARGV[3])
+            local used = previous * (1 - fraction) + current
+            local available = math.floor(limit - used)
+            local grant = math.min(tonumber(ARGV[2]), available)
+            if grant <= 0 then
+                local wait = 1 - fraction
+                if previous > 0 and current <= limit - 1 then
+                    wait = math.max(0, 1 - (limit - 1 - current) / previous - fraction)
+                end
+                return -math.max(1, math.ceil(wait * tonumber(ARGV[5])))
+            end
+            redis.call('INCRBY', KEYS[1], grant)
+            redis.call('PEXPIRE', KEYS[1], ARGV[4])
+            return grant
+            """;
+
+    @Value("${socialraven.rate-limit.inbound.window-seconds:60}")
+    private long windowSeconds;
+
+    @Value("${socialraven.rate-limit.inbound.lease-size:10}")
+    private int leaseSize;
+
+    @Autowired
+    private RedisCacheClient redisCacheClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Cache<String, Lease> leases = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofMinutes(5))
+            .maximumSize(100_000)
+            .build();
+
+    /**
+     * @return 0 if the request is admitted, otherwise the suggested Retry-After in seconds
+     */
+    public long tryAcquire(String key, int limitPerWindow) {
+        long windowMillis = windowSeconds * 1000;
+        long now = System.currentTimeMillis();
+        long window = now / windowMillis;
+
+        Lease lease = leases.get(key, k -> new Lease());
+        long blockedUntil = lease.blockedUntil;
+        if (blockedUntil > now) {
+            return retryAfterSeconds(blockedUntil - now);
+        }
+        lease.lock.lock();
+        try {
+            if (lease.window != window) {
+                lease.window = window;
+                lease.remaining = 0;
+                lease.localCount = 0;
+            }
+            if (lease.remaining > 0) {
+                lease.remaining--;
+                return 0;
+            }
+
+            long millisToNextWindow = windowMillis - (now % windowMillis);
+            long granted = lease(key, limitPerWindow, window, now, windowMillis, lease);
+            if (granted > 0) {
+                lease.remaining = (int) granted - 1;
+                return 0;
+            }
+            // A new window starts a new lease, so never block past it
+            long waitMillis = granted < 0 ? Math.min(-granted, millisToNextWindow) : millisToNextWindow;
+            lease.blockedUntil = now + waitMillis;
+            return retryAfterSeconds(waitMillis);
+        } finally {
+            lease.lock.unlock();
+        }
+    }
+
+    /**
+     * Gives back a permit taken by tryAcquire for a request that was rejected by a later check.
+     * It returns to this node's lease, so it is spent locally rather than handed back to Redis.
+     */
+    public void refund(String key) {
+        Lease lease = leases.getIfPresent(key);
+        if (lease == null) {
+            return;
+        }
+        long window = System.currentTimeMillis() / (windowSeconds * 1000);
+        lease.lock.lock();
+        try {
+            if (lease.window == window) {
+                lease.remaining++;
+            }
+        } finally {
+            lease.lock.unlock();
+        }
+    }
+
+    private static long retryAfterSeconds(long waitMillis) {
+        return Math.max(1, (waitMillis + 999) / 1000);
+    }
+
+    /**
+     * @return permits granted, or if none, minus the estimated ms until one is available
+     *         (0 when there is no estimate)
+     */
+    private long lease(String key, int limitPerWindow, long window, long now, long windowMillis, Lease lease) {
+        double elapsedFraction = (double) (now % windowMillis) / windowMillis;
+        int requested = Math.max(1, Math.min(leaseSize, limitPerWindow));
+        Object result = redisCacheClient.eval(LEASE_SCRIPT,
+                List.of(KEY_PREFIX + key + ":" + window, KEY_PREFIX + key + ":" + (window - 1)),
+                List.of(String.valueOf(limitPerWindow), String.valueOf(requested),
+                        String.valueOf(elapsedFraction), String.valueOf(windowMillis * 2), String.valueOf(windowMillis)));
+        if (result instanceof Long granted) {
+            meterRegistry.counter("http.server.ratelimit.lease", "source", "redis").increment();
+            return granted;
+        }
+
+        // Redis unavailable: fixed window per node
+        meterRegistry.counter("http.server.ratelimit.lease", "source", "local").increment();
+        if (lease.localCount >= limitPerWindow) {
+            return 0;
+        }
+        int granted = Math.min(requested, limitPerWindow - lease.localCount);
+        lease.localCount += granted;
+        return granted;
+    }
+
+    private static final class Lease {
+        private final ReentrantLock lock = new ReentrantLock();
+        private long window = -1;
+        private int remaining;
+        private int localCount;
+        private volatile long blockedUntil;
+    }
+}
@@ -0,0 +1,123 @@
+package com.tonyghouse.socialraven.repository;
+
+import com.tonyghouse.socialraven.email.EmailMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class EmailQueueRepository {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO socialraven.email_queue (to_address, subject, html_body, text_body, category)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private static final String CLAIM_SQL = """
+            WITH batch AS (
+                SELECT id FROM socialraven.email_queue
+                 WHERE status = 'PENDING'
+                   AND next_attempt_at <= now()
+                   AND (locked_until IS NULL OR locked_until < now())
+                 ORDER BY next_attempt_at, id
+                 LIMIT ?
+                 FOR UPDATE SKIP LOCKED
+            )
+            UPDATE socialraven.email_queue e
+               SET locked_by = ?, locked_until = now() + ? * INTERVAL '1 millisecond'
+              FROM batch
+             WHERE e.id = batch.id
+            RETURNING e.id, e.to_address, e.subject, e.html_body, e.text_body, e.category, e.created_at, e.attempts
+            """;
+
+    private static final String MARK_SENT_SQL = """
+            UPDATE socialraven.email_queue
+               SET status = 'SENT', provider = ?, provider_message_id = ?, sent_at = now(),
+                   locked_by = NULL, locked_until = NULL
+             WHERE id = ?
+            """;
+
+    private static final String MARK_FAILED_SQL = """
+            UPDATE socialraven.email_queue
+               SET status = ?, attempts = attempts + 1, last_error = ?, next_attempt_at = ?,
+                   locked_by = NULL, locked_until = NULL
+             WHERE id = ?
+            """;
+
+    private static final String COMPACT_SQL = """
+            DELETE FROM socialraven.email_queue
+             WHERE id IN (SELECT id FROM socialraven.email_queue
+                           WHERE status IN ('SENT', 'FAILED')
+                             AND created_at < ?
+                           LIMIT ?)
+            """;
+
+    private static final String COUNT_PENDING_SQL =
+            "SELECT count(*) FROM socialraven.email_queue WHERE status = 'PENDING'";
+
+    private static final RowMapper<EmailMessage> MESSAGE_MAPPER = (rs, rowNum) -> new EmailMessage(
+            rs.getLong("id"),
+            rs.getString("to_address"),
+            rs.getString("subject"),
+            rs.getString("html_body"),
+            rs.getString("text_body"),
+            rs.getString("category"),
+            rs.getTimestamp("created_at").toInstant(),
+            rs.getInt("attempts"));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void insert(String toAddress, String subject, String htmlBody, String textBody, String category) {
+        jdbcTemplate.update(INSERT_SQL, toAddress, subject, htmlBody, textBody, category);
+    }
+
+    public List<EmailMessage> claim(String owner, int limit, long leaseMillis) {
+        List<EmailMessage> messages = jdbcTemplate.query(CLAIM_SQL, MESSAGE_MAPPER, limit, owner, leaseMillis);
+        messages.sort(Comparator.comparingLong(EmailMessage::id));
+        return messages;
+    }
+
+    /**
+     * Marks messages sent in one JDBC batch.
+     *
+     * @param providerMessageIds message id -> provider's message id (may map to null)
+     */
+    public void markSent(String provider, Map<Long, String> providerMessageIds) {
+        if (providerMessageIds.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(providerMessageIds.size());
+        providerMessageIds.forEach((id, providerMessageId) -> rows.add(new Object[]{provider, providerMessageId, id}));
+        jdbcTemplate.batchUpdate(MARK_SENT_SQL, rows);
+    }
+
+    /**
+     * Records a failed delivery; the message is retried at nextAttemptAt unless giveUp is set.
+     */
+    public void markFailed(long id, String error, Instant nextAttemptAt, boolean giveUp) {
+        jdbcTemplate.update(MARK_FAILED_SQL, giveUp ? "FAILED" : "PENDING", error, Timestamp.from(nextAttemptAt), id);
+    }
+
+    /**
+     * Deletes up to limit sent or given-up messages enqueued before the cutoff.
+     *
+     * @return the number of rows deleted
+     */
+    public int compactDoneBefore(Instant cutoff, int limit) {
+        return jdbcTemplate.update(COMPACT_SQL, Timestamp.from(cutoff), limit);
+    }
+
+    public long countPending() {
+        Long count = jdbcTemplate.queryForObject(COUNT_PENDING_SQL, Long.class);
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,126 @@
+package com.tonyghouse.socialraven.repository;
+
+import com.tonyghouse.socialraven.outbox.OutboxMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+@Repository
+public class OutboxRepository {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO socialraven.outbox_message (message_id, exchange, routing_key, message_type, payload)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    // Unpublished, due rows not leased by another relay. SKIP LOCKED lets relays on several nodes
+    // drain the table side by side.
+    private static final String CLAIM_SQL = """
+            WITH batch AS (
+                SELECT id FROM socialraven.outbox_message
+                 WHERE published_at IS NULL
+                   AND next_attempt_at <= now()
+                   AND (locked_until IS NULL OR locked_until < now())
+                 ORDER BY next_attempt_at, id
+                 LIMIT ?
+                 FOR UPDATE SKIP LOCKED
+            )
+            UPDATE socialraven.outbox_message o
+               SET locked_by = ?, locked_until = now() + ? * INTERVAL '1 millisecond'
+              FROM batch
+             WHERE o.id = batch.id
+            RETURNING o.id, o.message_id, o.exchange, o.routing_key, o.message_type, o.payload,
+                      o.created_at, o.attempts
+            """;
+
+    private static final String DELETE_SQL = "DELETE FROM socialraven.outbox_message WHERE id = ANY(?)";
+
+    private static final String MARK_PUBLISHED_SQL = """
+            UPDATE socialraven.outbox_message
+               SET published_at = now(), locked_by = NULL, locked_until = NULL
+             WHERE id = ANY(?)
+            """;
+
+    private static final String MARK_FAILED_SQL = """
+            UPDATE socialraven.outbox_message
+               SET attempts = attempts + 1, last_error = ?, next_attempt_at = ?,
+                   locked_by = NULL, locked_until = NULL
+             WHERE id = ?
+            """;
+
+    private static final String COMPACT_SQL = """
+            DELETE FROM socialraven.outbox_message
+             WHERE id IN (SELECT id FROM socialraven.outbox_message
+                           WHERE published_at < ?
+                           LIMIT ?)
+            """;
+
+    private static final String OLDEST_UNPUBLISHED_SQL =
+            "SELECT min(created_at) FROM socialraven.outbox_message WHERE published_at IS NULL";
+
+    private static final RowMapper<OutboxMessage> MESSAGE_MAPPER = (rs, rowNum) -> new OutboxMessage(
+            rs.getLong("id"),
+            rs.getString("message_id"),
+            rs.getString("exchange"),
+            rs.getString("routing_key"),
+            rs.getString("message_type"),
+            rs.getString("payload"),
+            rs.getTimestamp("created_at").toInstant(),
+            rs.getInt("attempts"));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void insert(String messageId, String exchange, String routingKey, String messageType, String payload) {
+        jdbcTemplate.update(INSERT_SQL, messageId, exchange, routingKey, messageType, payload);
+    }
+
+    /**
+     * @return up to limit claimed messages, oldest first
+     */
+    public List<OutboxMessage> claim(String owner, int limit, long leaseMillis) {
+        List<OutboxMessage> messages = jdbcTemplate.query(CLAIM_SQL, MESSAGE_MAPPER, limit, owner, leaseMillis);
+        messages.sort(Comparator.comparingLong(OutboxMessage::id));
+        return messages;
+    }
+
+    public void delete(Collection<Long> ids) {
+        updateIds(DELETE_SQL, ids);
+    }
+
+    public void markPublished(Collection<Long> ids) {
+        updateIds(MARK_PUBLISHED_SQL, ids);
+    }
+
+    public void markFailed(long id, String error, Instant nextAttemptAt) {
+        jdbcTemplate.update(MARK_FAILED_SQL, error, Timestamp.from(nextAttemptAt), id);
+    }
+
+    /**
+     * Deletes up to limit rows published before the cutoff.
+     *
+     * @return the number of rows deleted
+     */
+    public int compactPublishedBefore(Instant cutoff, int limit) {
+        return jdbcTemplate.update(COMPACT_SQL, Timestamp.from(cutoff), limit);
+    }
+
+    public Instant oldestUnpublishedCreatedAt() {
+        Timestamp oldest = jdbcTemplate.queryForObject(OLDEST_UNPUBLISHED_SQL, Timestamp.class);
+        return oldest == null ? null : oldest.toInstant();
+    }
+
+    private void updateIds(String sql, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(sql, ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())));
+    }
+}
@@ -0,0 +1,118 @@
+package com.tonyghouse.socialraven.repository;
+
+import com.tonyghouse.socialraven.scheduler.ScheduledJob;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public class ScheduledJobRepository {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO socialraven.scheduled_job (job_type, job_key, payload, due_at)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (job_type, job_key) DO UPDATE
+               SET payload = EXCLUDED.payload, due_at = EXCLUDED.due_at, status = 'PENDING',
+                   attempts = 0, last_error = NULL, updated_at = now()
+             WHERE socialraven.scheduled_job.status <> 'RUNNING'
+            """;
+
+    private static final String INSERT_IF_ABSENT_SQL = """
+            INSERT INTO socialraven.scheduled_job (job_type, job_key, due_at)
+            VALUES (?, ?, ?)
+            ON CONFLICT (job_type, job_key) DO NOTHING
+            """;
+
+    // Due (or due within the horizon) pending jobs, plus running jobs whose owner's lease ran out.
+    // The lease runs from the due time, since a claimed job may wait in the timing wheel first.
+    private static final String CLAIM_SQL = """
+            WITH due AS (
+                SELECT id FROM socialraven.scheduled_job
+                 WHERE (status = 'PENDING' AND due_at <= ?)
+                    OR (status = 'RUNNING' AND lease_until < now())
+                 ORDER BY due_at
+                 LIMIT ?
+                 FOR UPDATE SKIP LOCKED
+            )
+            UPDATE socialraven.scheduled_job j
+               SET status = 'RUNNING', lease_owner = ?, attempts = j.attempts + 1,
+                   lease_until = GREATEST(j.due_at, now()) + ? * INTERVAL '1 millisecond',
+                   updated_at = now()
+              FROM due
+             WHERE j.id = due.id
+            RETURNING j.id, j.job_type, j.job_key, j.payload, j.due_at, j.attempts
+            """;
+
+    private static final String RESCHEDULE_SQL = """
+            UPDATE socialraven.scheduled_job
+               SET status = 'PENDING', due_at = ?, attempts = ?, last_error = ?,
+                   lease_owner = NULL, lease_until = NULL, updated_at = now()
+             WHERE id = ? AND lease_owner = ?
+            """;
+
+    private static final String FINISH_SQL = """
+            UPDATE socialraven.scheduled_job
+               SET status = ?, last_error = ?, lease_owner = NULL, lease_until = NULL, updated_at = now()
+             WHERE id = ? AND lease_owner = ?
+            """;
+
+    private static final String RELEASE_SQL = """
+            UPDATE socialraven.scheduled_job
+               SET status = 'PENDING', attempts = GREATEST(attempts - 1, 0),
+                   lease_owner = NULL, lease_until = NULL, updated_at = now()
+             WHERE id = ? AND lease_owner = ? AND status = 'RUNNING'
+            """;
+
+    private static final RowMapper<ScheduledJob> JOB_MAPPER = (rs, rowNum) -> new ScheduledJob(
+            rs.getLong("id"),
+            rs.getString("job_type"),
+            rs.getString("job_key"),
+            rs.getString("payload"),
+            rs.getTimestamp("due_at").toInstant(),
+            rs.getInt("attempts"));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Creates the job, or re-arms it if it exists and is not running right now.
+     */
+    public void schedule(String jobType, String jobKey, String payload, Instant dueAt) {
+        jdbcTemplate.update(UPSERT_SQL, jobType, jobKey, payload, Timestamp.from(dueAt));
+    }
+
+    public void scheduleIfAbsent(String jobType, String jobKey, Instant dueAt) {
+        jdbcTemplate.update(INSERT_IF_ABSENT_SQL, jobType, jobKey, Timestamp.from(dueAt));
+    }
+
+    public List<ScheduledJob> claimDue(String owner, Instant dueBefore, int limit, long leaseMillis) {
+        return jdbcTemplate.query(CLAIM_SQL, JOB_MAPPER, Timestamp.from(dueBefore), limit, owner, leaseMillis);
+    }
+
+    /**
+     * Puts a claimed job back to PENDING with a new due time (retry or next recurring run).
+     */
+    public boolean reschedule(long id, String owner, Instant dueAt, int attempts, String lastError) {
+        return jdbcTemplate.update(RESCHEDULE_SQL, Timestamp.from(dueAt), attempts, lastError, id, owner) == 1;
+    }
+
+    public boolean complete(long id, String owner) {
+        return jdbcTemplate.update(FINISH_SQL, "DONE", null, id, owner) == 1;
+    }
+
+    public boolean fail(long id, String owner, String lastError) {
+        return jdbcTemplate.update(FINISH_SQL, "FAILED", lastError, id, owner) == 1;
+    }
+
+    /**
+     * Hands a claimed job that never ran back to the pool (e.g. on shutdown).
+     */
+    public void release(long id, String owner) {
+        jdbcTemplate.update(RELEASE_SQL, id, owner);
+    }
+}
@@ -0,0 +1,51 @@
+package com.tonyghouse.socialraven.repository;
+
+import com.tonyghouse.socialraven.constant.WorkspaceRole;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Point lookup of a user's role in a workspace.
+ * Plain JDBC on purpose: this runs on every workspace-scoped request (on cache miss)
+ * and needs a single column, not a managed entity.
+ */
+@Repository
+@Slf4j
+public class WorkspaceMemberRoleRepository {
+
+    private static final String FIND_ROLE_SQL =
+            "SELECT role FROM socialraven.workspace_member WHERE workspace_id = ? AND user_id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** Role values this release doesn't know, so each is only logged once. */
+    private final Set<String> unknownRoles = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @return the member's role, or null if the user is not a member of the workspace or has a
+     *         role this release doesn't recognise
+     */
+    public WorkspaceRole findRole(String userId, String workspaceId) {
+        List<String> roles = jdbcTemplate.queryForList(FIND_ROLE_SQL, String.class, workspaceId, userId);
+        if (roles.isEmpty()) {
+            return null;
+        }
+        String role = roles.get(0);
+        try {
+            return WorkspaceRole.valueOf(role);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            // e.g. a role added by a newer release: deny (403) rather than fail the request (500)
+            if (unknownRoles.add(String.valueOf(role))) {
+                log.warn("Unrecognised workspace role '{}' in socialraven.workspace_member; treating as non-member", role);
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.tonyghouse.socialraven.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public class WorkspacePlanRepository {
+
+    private static final String FIND_PLAN_SQL = "SELECT plan FROM socialraven.workspace WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return the workspace's plan name, or null if the workspace does not exist
+     */
+    public String findPlan(String workspaceId) {
+        List<String> plans = jdbcTemplate.queryForList(FIND_PLAN_SQL, String.class, workspaceId);
+        return plans.isEmpty() ? null : plans.get(0);
+    }
+}
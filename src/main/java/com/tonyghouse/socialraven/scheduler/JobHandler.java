@@ -0,0 +1,26 @@
+package com.tonyghouse.socialraven.scheduler;
+
+import java.time.Duration;
+
+/**
+ * Runs the jobs of one type for JobScheduler. Implementations are Spring beans.
+ *
+ * A job is run by one node at a time, but may run again if the node dies mid-run or the run
+ * outlives the lease (socialraven.scheduler.lease-ms), so execute() must be idempotent.
+ */
+public interface JobHandler {
+
+    String jobType();
+
+    void execute(ScheduledJob job) throws Exception;
+
+    /**
+     * For recurring jobs: the delay between the end of one run and the next due time. Recurring
+     * jobs are registered automatically (job key "recurring") when the scheduler starts.
+     *
+     * @return null for one-off jobs
+     */
+    default Duration repeatInterval() {
+        return null;
+    }
+}
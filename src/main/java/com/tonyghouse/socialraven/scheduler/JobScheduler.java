@@ -0,0 +1,297 @@
+package com.tonyghouse.socialraven.scheduler;
+
+import com.tonyghouse.socialraven.repository.ScheduledJobRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs JobHandler jobs from the socialraven.scheduled_job table, once per job across all nodes.
+ *
+ * - Claiming: every poll-interval-ms each node claims up to batch-size jobs due within the next
+ *   horizon-ms (FOR UPDATE SKIP LOCKED, so nodes never block on or double-claim each other's
+ *   rows) and holds a lease on them. Jobs of a node that died are re-claimed once its lease ends.
+ * - Timing: claimed jobs wait in an in-memory hierarchical TimingWheel and fire within one tick
+ *   of their due time, instead of whenever the next poll happens to run.
+ * - Execution: each job type gets its own bounded worker pool (worker-threads, overridable via
+ *   socialraven.scheduler.job-types.<type>.worker-threads), so a slow type cannot starve others.
+ *   A node never holds more than max-claimed jobs at once.
+ *
+ * Failed jobs are retried with exponential backoff up to max-attempts; recurring jobs
+ * (JobHandler.repeatInterval) are always re-armed for their next run.
+ */
+@Component
+@Slf4j
+public class JobScheduler implements SmartLifecycle {
+
+    private static final String RECURRING_JOB_KEY = "recurring";
+
+    @Value("${socialraven.scheduler.enabled:true}")
+    private boolean enabled;
+
+    @Value("${socialraven.scheduler.poll-interval-ms:5000}")
+    private long pollIntervalMs;
+
+    @Value("${socialraven.scheduler.horizon-ms:60000}")
+    private long horizonMs;
+
+    @Value("${socialraven.scheduler.lease-ms:300000}")
+    private long leaseMs;
+
+    @Value("${socialraven.scheduler.batch-size:100}")
+    private int batchSize;
+
+    @Value("${socialraven.scheduler.max-claimed:500}")
+    private int maxClaimed;
+
+    @Value("${socialraven.scheduler.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${socialraven.scheduler.retry-backoff-ms:30000}")
+    private long retryBackoffMs;
+
+    @Value("${socialraven.scheduler.worker-threads:2}")
+    private int defaultWorkerThreads;
+
+    @Value("${socialraven.scheduler.tick-ms:100}")
+    private long tickMs;
+
+    @Value("${socialraven.scheduler.wheel-size:64}")
+    private int wheelSize;
+
+    @Autowired
+    private ScheduledJobRepository scheduledJobRepository;
+
+    @Autowired(required = false)
+    private List<JobHandler> jobHandlers = List.of();
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, JobHandler> handlersByType = new HashMap<>();
+    private final Map<String, ThreadPoolExecutor> workerPools = new ConcurrentHashMap<>();
+    private final Map<Long, ScheduledJob> claimed = new ConcurrentHashMap<>();
+    private final ReentrantLock claimLock = new ReentrantLock();
+    private final String owner = hostName() + ":" + UUID.randomUUID().toString().substring(0, 8);
+
+    private TimingWheel<ScheduledJob> wheel;
+    private ScheduledExecutorService driver;
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            log.info("Job scheduler disabled");
+            return;
+        }
+        for (JobHandler handler : jobHandlers) {
+            handlersByType.put(handler.jobType(), handler);
+            if (handler.repeatInterval() != null) {
+                scheduledJobRepository.scheduleIfAbsent(handler.jobType(), RECURRING_JOB_KEY,
+                        Instant.now().plus(handler.repeatInterval()));
+            }
+        }
+
+        wheel = new TimingWheel<>(tickMs, wheelSize, System.currentTimeMillis());
+        Gauge.builder("scheduler.wheel.size", wheel, TimingWheel::size).register(meterRegistry);
+        Gauge.builder("scheduler.claimed", claimed, Map::size).register(meterRegistry);
+
+        driver = Executors.newScheduledThreadPool(2, r -> {
+            Thread thread = new Thread(r, "job-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        driver.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+        driver.scheduleWithFixedDelay(this::claimSafely, 0, pollIntervalMs, TimeUnit.MILLISECONDS);
+        running = true;
+        log.info("Job scheduler {} started with {} job type(s)", owner, handlersByType.size());
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        driver.shutdownNow();
+        // Jobs still waiting in the wheel go back to the table for another node to pick up
+        for (ScheduledJob job : wheel.drainAll()) {
+            claimed.remove(job.id());
+            scheduledJobRepository.release(job.id(), owner);
+        }
+        workerPools.values().forEach(ThreadPoolExecutor::shutdown);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Creates (or re-arms) the job identified by (jobType, jobKey) to run at dueAt.
+     */
+    public void schedule(String jobType, String jobKey, String payload, Instant dueAt) {
+        scheduledJobRepository.schedule(jobType, jobKey, payload, dueAt);
+        if (running && dueAt.isBefore(Instant.now().plusMillis(pollIntervalMs))) {
+            // Due before the next poll: claim now so it doesn't fire late
+            driver.execute(this::claimSafely);
+        }
+    }
+
+    private void claimSafely() {
+        try {
+            claim();
+        } catch (Exception e) {
+            log.warn("Claiming due jobs failed: {}", e.getMessage());
+        }
+    }
+
+    private void claim() {
+        if (!claimLock.tryLock()) {
+            return;
+        }
+        try {
+            int capacity = Math.min(batchSize, maxClaimed - claimed.size());
+            if (!running || capacity <= 0) {
+                return;
+            }
+            List<ScheduledJob> jobs = scheduledJobRepository.claimDue(
+                    owner, Instant.now().plusMillis(horizonMs), capacity, leaseMs);
+            if (!jobs.isEmpty()) {
+                meterRegistry.counter("scheduler.jobs.claimed").increment(jobs.size());
+            }
+            for (ScheduledJob job : jobs) {
+                claimed.put(job.id(), job);
+                if (!wheel.add(job.dueAt().toEpochMilli(), job)) {
+                    dispatch(job);
+                }
+            }
+        } finally {
+            claimLock.unlock();
+        }
+    }
+
+    private void tick() {
+        try {
+            for (ScheduledJob job : wheel.advanceTo(System.currentTimeMillis())) {
+                dispatch(job);
+            }
+        } catch (Exception e) {
+            log.error("Job scheduler tick failed", e);
+        }
+    }
+
+    private void dispatch(ScheduledJob job) {
+        JobHandler handler = handlersByType.get(job.jobType());
+        if (handler == null) {
+            // Possibly a type from a newer release; leave it for a node that knows it
+            claimed.remove(job.id());
+            scheduledJobRepository.release(job.id(), owner);
+            return;
+        }
+        try {
+            workerPool(job.jobType()).execute(() -> run(handler, job));
+        } catch (RejectedExecutionException e) {
+            claimed.remove(job.id());
+            scheduledJobRepository.release(job.id(), owner);
+            meterRegistry.counter("scheduler.jobs.rejected", "type", job.jobType()).increment();
+        }
+    }
+
+    private void run(JobHandler handler, ScheduledJob job) {
+        long start = System.nanoTime();
+        meterRegistry.timer("scheduler.jobs.lag", "type", job.jobType())
+                .record(Math.max(0, Duration.between(job.dueAt(), Instant.now()).toMillis()), TimeUnit.MILLISECONDS);
+        String outcome = "success";
+        try {
+            handler.execute(job);
+            Duration repeat = handler.repeatInterval();
+            if (repeat != null) {
+                scheduledJobRepository.reschedule(job.id(), owner, Instant.now().plus(repeat), 0, null);
+            } else {
+                scheduledJobRepository.complete(job.id(), owner);
+            }
+        } catch (Exception e) {
+            outcome = "failure";
+            onFailure(handler, job, e);
+        } finally {
+            claimed.remove(job.id());
+            Timer.builder("scheduler.jobs.duration")
+                    .tag("type", job.jobType())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void onFailure(JobHandler handler, ScheduledJob job, Exception e) {
+        String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        Duration repeat = handler.repeatInterval();
+        if (job.attempts() < maxAttempts) {
+            long backoff = retryBackoffMs << Math.min(job.attempts() - 1, 10);
+            if (repeat != null) {
+                backoff = Math.min(backoff, repeat.toMillis());
+            }
+            log.warn("Job {}/{} failed (attempt {}), retrying in {} ms: {}",
+                    job.jobType(), job.jobKey(), job.attempts(), backoff, error);
+            scheduledJobRepository.reschedule(job.id(), owner, Instant.now().plusMillis(backoff), job.attempts(), error);
+        } else if (repeat != null) {
+            log.error("Recurring job {} failed {} times; skipping to its next run", job.jobType(), job.attempts(), e);
+            scheduledJobRepository.reschedule(job.id(), owner, Instant.now().plus(repeat), 0, error);
+        } else {
+            log.error("Job {}/{} failed {} times; giving up", job.jobType(), job.jobKey(), job.attempts(), e);
+            scheduledJobRepository.fail(job.id(), owner, error);
+        }
+    }
+
+    private ThreadPoolExecutor workerPool(String jobType) {
+        return workerPools.computeIfAbsent(jobType, type -> {
+            int threads = environment.getProperty(
+                    "socialraven.scheduler.job-types." + type + ".worker-threads", Integer.class, defaultWorkerThreads);
+            AtomicInteger threadIndex = new AtomicInteger();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(maxClaimed),
+                    r -> {
+                        Thread thread = new Thread(r, "job-" + type + "-" + threadIndex.getAndIncrement());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            pool.allowCoreThreadTimeOut(true);
+            return pool;
+        });
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown-host";
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.tonyghouse.socialraven.scheduler;
+
+import java.time.Instant;
+
+/**
+ * A claimed row of socialraven.scheduled_job. attempts includes the current one.
+ */
+public record ScheduledJob(long id, String jobType, String jobKey, String payload, Instant dueAt, int attempts) {
+}
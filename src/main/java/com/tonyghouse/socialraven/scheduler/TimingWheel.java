@@ -0,0 +1,161 @@
+package com.tonyghouse.socialraven.scheduler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hierarchical timing wheel for near-term timers.
+ *
+ * The first level has wheel-size buckets of tick-ms each; every further level (created on
+ * demand) has buckets as wide as the whole level below it. Adding a timer and expiring a bucket
+ * are O(1); timers in a higher level cascade down as their bucket comes due. Timers fire on the
+ * first tick at or after their due time, so at most one tick late and never early.
+ *
+ * advanceTo() must be called regularly (every tick) by a single driver thread.
+ */
+final class TimingWheel<T> {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Level<T> root;
+    private int size;
+
+    TimingWheel(long tickMs, int wheelSize, long startMs) {
+        this.root = new Level<>(tickMs, wheelSize, startMs);
+    }
+
+    /**
+     * @return false if the timer is already due (the caller should run it now)
+     */
+    boolean add(long dueMs, T item) {
+        lock.lock();
+        try {
+            // Round up to a tick boundary so the timer's bucket is expired no earlier than dueMs
+            long slotMs = Math.floorDiv(dueMs + root.tickMs - 1, root.tickMs) * root.tickMs;
+            boolean added = root.add(new Timer<>(slotMs, item));
+            if (added) {
+                size++;
+            }
+            return added;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves the wheel's clock to nowMs and returns every timer that came due.
+     */
+    List<T> advanceTo(long nowMs) {
+        List<T> expired = new ArrayList<>();
+        lock.lock();
+        try {
+            while (root.currentTime + root.tickMs <= nowMs) {
+                root.currentTime += root.tickMs;
+                // Move every level's clock first, then expire buckets from the highest level down,
+                // so timers cascading down land in lower buckets that are yet to be expired
+                List<Level<T>> turned = new ArrayList<>();
+                for (Level<T> level = root.overflow; level != null; level = level.overflow) {
+                    long levelTime = root.currentTime - (root.currentTime % level.tickMs);
+                    if (levelTime != level.currentTime) {
+                        level.currentTime = levelTime;
+                        turned.add(level);
+                    }
+                }
+                for (int i = turned.size() - 1; i >= 0; i--) {
+                    Level<T> level = turned.get(i);
+                    reinsert(level.drain(level.currentTime), expired);
+                }
+                reinsert(root.drain(root.currentTime), expired);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return expired;
+    }
+
+    /**
+     * Removes and returns every pending timer (e.g. on shutdown).
+     */
+    List<T> drainAll() {
+        List<T> all = new ArrayList<>();
+        lock.lock();
+        try {
+            for (Level<T> level = root; level != null; level = level.overflow) {
+                for (ArrayDeque<Timer<T>> bucket : level.buckets) {
+                    for (Timer<T> timer : bucket) {
+                        all.add(timer.item());
+                    }
+                    bucket.clear();
+                }
+            }
+            size = 0;
+        } finally {
+            lock.unlock();
+        }
+        return all;
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void reinsert(ArrayDeque<Timer<T>> timers, List<T> expired) {
+        for (Timer<T> timer : timers) {
+            if (!root.add(timer)) {
+                expired.add(timer.item());
+                size--;
+            }
+        }
+    }
+
+    private record Timer<T>(long dueMs, T item) {
+    }
+
+    private static final class Level<T> {
+        private final long tickMs;
+        private final int wheelSize;
+        private final long interval;
+        private final ArrayDeque<Timer<T>>[] buckets;
+        private long currentTime;
+        private Level<T> overflow;
+
+        @SuppressWarnings("unchecked")
+        Level(long tickMs, int wheelSize, long startMs) {
+            this.tickMs = tickMs;
+            this.wheelSize = wheelSize;
+            this.interval = tickMs * wheelSize;
+            this.buckets = new ArrayDeque[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new ArrayDeque<>();
+            }
+            this.currentTime = startMs - (startMs % tickMs);
+        }
+
+        boolean add(Timer<T> timer) {
+            if (timer.dueMs() < currentTime + tickMs) {
+                return false;
+            }
+            if (timer.dueMs() < currentTime + interval) {
+                buckets[(int) ((timer.dueMs() / tickMs) % wheelSize)].add(timer);
+                return true;
+            }
+            if (overflow == null) {
+                overflow = new Level<>(interval, wheelSize, currentTime);
+            }
+            return overflow.add(timer);
+        }
+
+        ArrayDeque<Timer<T>> drain(long bucketTime) {
+            int index = (int) ((bucketTime / tickMs) % wheelSize);
+            ArrayDeque<Timer<T>> drained = buckets[index];
+            buckets[index] = new ArrayDeque<>();
+            return drained;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.tonyghouse.socialraven.storage;
+
+import com.tonyghouse.socialraven.dto.MultipartPartUrls;
+import com.tonyghouse.socialraven.dto.MultipartUploadStart;
+import com.tonyghouse.socialraven.dto.PresignUploadRequest;
+import com.tonyghouse.socialraven.dto.PresignedUpload;
+import com.tonyghouse.socialraven.exception.StacklessSocialRavenException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issues presigned S3 upload URLs for media attached to posts.
+ *
+ * Single-file uploads are presigned locally by S3UrlSigner, so a batch for a multi-asset post
+ * costs no network calls. Each URL pins Content-Length to the declared size, so S3 rejects a
+ * body of any other size and the single-PUT limit holds. Large videos use multipart uploads:
+ * CreateMultipartUpload is the only S3 round trip, after which every part's UploadPart URL is
+ * presigned locally (valid for multipart.expiry-seconds) and the client uploads parts directly
+ * to S3. A client whose part URLs expire mid-upload asks for a fresh range with presignParts.
+ *
+ * Keys are always {workspaceId}/{yyyy/MM/dd}/{uuid}-{file name}, and presignParts/complete/abort
+ * only accept keys under the caller's workspace.
+ *
+ * Metrics: media.presign.duration{operation}, media.presign.urls{operation}.
+ */
+@Service
+public class MediaUploadService {
+
+    /** S3 limits: parts are 5 MiB .. 5 GiB, at most 10,000 per upload; single PUTs at most 5 GiB. */
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+    private static final long MAX_PART_SIZE = 5L * 1024 * 1024 * 1024;
+    private static final int MAX_PARTS = 10_000;
+    private static final long MAX_SINGLE_PUT_SIZE = 5L * 1024 * 1024 * 1024;
+    private static final int MAX_FILE_NAME_LENGTH = 128;
+    private static final DateTimeFormatter KEY_DATE = DateTimeFormatter.ofPattern("yyyy/MM/dd").withZone(ZoneOffset.UTC);
+
+    @Value("${socialraven.media.presign.expiry-seconds:900}")
+    private long expirySeconds;
+
+    @Value("${socialraven.media.presign.max-batch-size:50}")
+    private int maxBatchSize;
+
+    @Value("${socialraven.media.multipart.part-size-bytes:16777216}")
+    private long defaultPartSize;
+
+    @Value("${socialraven.media.multipart.expiry-seconds:3600}")
+    private long multipartExpirySeconds;
+
+    @Autowired
+    private S3UrlSigner s3UrlSigner;
+
+    @Autowired
+    private S3Client s3Client;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer batchTimer;
+    private Timer multipartTimer;
+
+    @PostConstruct
+    public void init() {
+        batchTimer = presignTimer("put");
+        multipartTimer = presignTimer("multipart");
+    }
+
+    public List<PresignedUpload> presignPuts(String workspaceId, List<PresignUploadRequest> files) {
+        if (files == null || files.isEmpty()) {
+            throw new StacklessSocialRavenException("No files to upload", HttpStatus.BAD_REQUEST);
+        }
+        if (files.size() > maxBatchSize) {
+            throw new StacklessSocialRavenException(
+                    "At most " + maxBatchSize + " files can be presigned per request", HttpStatus.BAD_REQUEST);
+        }
+        long start = System.nanoTime();
+        Instant now = Instant.now();
+        Duration expiry = Duration.ofSeconds(expirySeconds);
+        long expiresAt = now.plus(expiry).toEpochMilli();
+        String prefix = keyPrefix(workspaceId, now);
+
+        List<PresignedUpload> uploads = new ArrayList<>(files.size());
+        for (PresignUploadRequest file : files) {
+            if (file.getSize() <= 0) {
+                throw new StacklessSocialRavenException(
+                        "File size is required for " + file.getFileName(), HttpStatus.BAD_REQUEST);
+            }
+            if (file.getSize() > MAX_SINGLE_PUT_SIZE) {
+                throw new StacklessSocialRavenException(
+                        file.getFileName() + " is too large for a single upload, use a multipart upload", HttpStatus.BAD_REQUEST);
+            }
+            String key = prefix + UUID.randomUUID() + "-" + sanitizeFileName(file.getFileName());
+            URI url = s3UrlSigner.presign("PUT", key, Map.of(),
+                    Map.of("content-length", String.valueOf(file.getSize())), expiry, now);
+            uploads.add(new PresignedUpload(file.getFileName(), key, url.toString(), expiresAt));
+        }
+        batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        meterRegistry.counter("media.presign.urls", "operation", "put").increment(uploads.size());
+        return uploads;
+    }
+
+    public MultipartUploadStart startMultipart(String workspaceId, PresignUploadRequest file) {
+        if (file == null || file.getSize() <= 0) {
+            throw new StacklessSocialRavenException("File size is required for a multipart upload", HttpStatus.BAD_REQUEST);
+        }
+        long partSize = partSizeFor(file.getSize());
+        int partCount = (int) ((file.getSize() + partSize - 1) / partSize);
+
+        long start = System.nanoTime();
+        Instant now = Instant.now();
+        String key = keyPrefix(workspaceId, now) + UUID.randomUUID() + "-" + sanitizeFileName(file.getFileName());
+        CreateMultipartUploadResponse created = s3Client.createMultipartUpload(request -> {
+            request.bucket(s3UrlSigner.getBucket()).key(key);
+            if (file.getContentType() != null && !file.getContentType().isBlank()) {
+                request.contentType(file.getContentType());
+            }
+        });
+
+        Duration expiry = Duration.ofSeconds(multipartExpirySeconds);
+        List<String> partUrls = presignPartUrls(key, created.uploadId(), 1, partCount, expiry, now);
+        multipartTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        meterRegistry.counter("media.presign.urls", "operation", "multipart").increment(partCount);
+        return new MultipartUploadStart(key, created.uploadId(), partSize, partUrls, now.plus(expiry).toEpochMilli());
+    }
+
+    /**
+     * Fresh UploadPart URLs for parts firstPart..lastPart (inclusive) of an upload in progress,
+     * e.g. to resume after the URLs from startMultipart expired.
+     */
+    public MultipartPartUrls presignParts(String workspaceId, String key, String uploadId, int firstPart, int lastPart) {
+        requireWorkspaceKey(workspaceId, key);
+        if (uploadId == null || uploadId.isBlank()) {
+            throw new StacklessSocialRavenException("uploadId is required", HttpStatus.BAD_REQUEST);
+        }
+        if (firstPart < 1 || lastPart < firstPart || lastPart > MAX_PARTS) {
+            throw new StacklessSocialRavenException(
+                    "Part range must be within 1.." + MAX_PARTS, HttpStatus.BAD_REQUEST);
+        }
+        long start = System.nanoTime();
+        Instant now = Instant.now();
+        Duration expiry = Duration.ofSeconds(multipartExpirySeconds);
+        List<String> partUrls = presignPartUrls(key, uploadId, firstPart, lastPart, expiry, now);
+        multipartTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        meterRegistry.counter("media.presign.urls", "operation", "multipart").increment(partUrls.size());
+        return new MultipartPartUrls(firstPart, partUrls, now.plus(expiry).toEpochMilli());
+    }
+
+    private List<String> presignPartUrls(String key, String uploadId, int firstPart, int lastPart,
+                                         Duration expiry, Instant now) {
+        List<String> partUrls = new ArrayList<>(lastPart - firstPart + 1);
+        for (int part = firstPart; part <= lastPart; part++) {
+            URI url = s3UrlSigner.presign("PUT", key,
+                    Map.of("partNumber", String.valueOf(part), "uploadId", uploadId), expiry, now);
+            partUrls.add(url.toString());
+        }
+        return partUrls;
+    }
+
+    public void completeMultipart(String workspaceId, String key, String uploadId, List<String> partETags) {
+        requireWorkspaceKey(workspaceId, key);
+        if (partETags == null || partETags.isEmpty()) {
+            throw new StacklessSocialRavenException("No uploaded parts to complete", HttpStatus.BAD_REQUEST);
+        }
+        List<CompletedPart> parts = new ArrayList<>(partETags.size());
+        for (int i = 0; i < partETags.size(); i++) {
+            parts.add(CompletedPart.builder().partNumber(i + 1).eTag(partETags.get(i)).build());
+        }
+        s3Client.completeMultipartUpload(request -> request
+                .bucket(s3UrlSigner.getBucket())
+                .key(key)
+                .uploadId(uploadId)
+                .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build()));
+    }
+
+    public void abortMultipart(String workspaceId, String key, String uploadId) {
+        requireWorkspaceKey(workspaceId, key);
+        s3Client.abortMultipartUpload(request -> request
+                .bucket(s3UrlSigner.getBucket())
+                .key(key)
+                .uploadId(uploadId));
+    }
+
+    /**
+     * The configured part size, grown when needed to stay within MAX_PARTS.
+     */
+    private long partSizeFor(long size) {
+        long partSize = Math.max(MIN_PART_SIZE, defaultPartSize);
+        if ((size + partSize - 1) / partSize > MAX_PARTS) {
+            partSize = (size + MAX_PARTS - 1) / MAX_PARTS;
+        }
+        if (partSize > MAX_PART_SIZE) {
+            throw new StacklessSocialRavenException("File is too large to upload", HttpStatus.BAD_REQUEST);
+        }
+        return partSize;
+    }
+
+    private static String keyPrefix(String workspaceId, Instant now) {
+        return workspaceId + "/" + KEY_DATE.format(now) + "/";
+    }
+
+    private static void requireWorkspaceKey(String workspaceId, String key) {
+        if (key == null || !key.startsWith(workspaceId + "/")) {
+            throw new StacklessSocialRavenException("Upload does not belong to this workspace", HttpStatus.FORBIDDEN);
+        }
+    }
+
+    /**
+     * Keeps the file name readable in the key while dropping anything that needs escaping.
+     */
+    static String sanitizeFileName(String fileName) {
+        if (fileName == null || fileName.isBlank()) {
+            return "file";
+        }
+        String name = fileName.substring(Math.max(fileName.lastIndexOf('/'), fileName.lastIndexOf('\\')) + 1);
+        StringBuilder sanitized = new StringBuilder(Math.min(name.length(), MAX_FILE_NAME_LENGTH));
+        for (int i = 0; i < name.length() && sanitized.length() < MAX_FILE_NAME_LENGTH; i++) {
+            char c = name.charAt(i);
+            boolean safe = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '.' || c == '-' || c == '_';
+            sanitized.append(safe ? c : '_');
+        }
+        return sanitized.isEmpty() ? "file" : sanitized.toString();
+    }
+
+    private Timer presignTimer(String operation) {
+        return Timer.builder("media.presign.duration")
+                .tag("operation", operation)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+}
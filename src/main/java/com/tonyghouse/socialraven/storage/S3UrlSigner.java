@@ -0,0 +1,231 @@
+package com.tonyghouse.socialraven.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.auth.credentials.AwsCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.AwsSessionCredentials;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * SigV4 query-string presigning for S3, tuned for many URLs per request.
+ *
+ * Presigning is pure computation, so this avoids the SDK presigner's per-call request model and
+ * re-derives nothing it doesn't have to: the signing key (four chained HMACs over the secret) is
+ * cached per access key / day / region / service as an initialised Mac, and each URL works on
+ * clones of that Mac and of a SHA-256 MessageDigest. A URL then costs one SHA-256 and one HMAC,
+ * with no provider lookup or key setup.
+ *
+ * The host header is always signed, plus any headers the caller pins (e.g. content-length, so
+ * S3 rejects a body of any other size). The payload is UNSIGNED-PAYLOAD, as for any browser
+ * upload.
+ */
+@Component
+public class S3UrlSigner {
+
+    private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+    private static final String SERVICE = "s3";
+    private static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final char[] UPPER_HEX = "0123456789ABCDEF".toCharArray();
+
+    private static final MessageDigest SHA256_PROTOTYPE = newSha256();
+
+    @Value("${aws.region}")
+    private String region;
+
+    @Value("${aws.s3.bucket}")
+    private String bucket;
+
+    @Value("${aws.s3.endpoint:}")
+    private String endpoint;
+
+    @Value("${aws.s3.path-style:false}")
+    private boolean pathStyle;
+
+    @Autowired
+    private AwsCredentialsProvider awsCredentialsProvider;
+
+    // Values are initialised prototypes; only ever used through clone()
+    private final Cache<SigningKeyId, Mac> signingKeys = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofHours(25))
+            .maximumSize(64)
+            .build();
+
+    private String scheme;
+    private String host;
+    private String pathPrefix;
+
+    @PostConstruct
+    public void init() {
+        if (endpoint.isBlank()) {
+            scheme = "https";
+            host = bucket + ".s3." + region + ".amazonaws.com";
+            pathPrefix = "/";
+        } else {
+            URI uri = URI.create(endpoint);
+            scheme = uri.getScheme();
+            String authority = uri.getPort() == -1 ? uri.getHost() : uri.getHost() + ":" + uri.getPort();
+            host = pathStyle ? authority : bucket + "." + authority;
+            pathPrefix = pathStyle ? "/" + bucket + "/" : "/";
+        }
+    }
+
+    public String getBucket() {
+        return bucket;
+    }
+
+    /**
+     * @param operationParams extra query parameters of the operation (e.g. partNumber, uploadId)
+     */
+    public URI presign(String method, String key, Map<String, String> operationParams, Duration expiry, Instant now) {
+        return presign(method, key, operationParams, Map.of(), expiry, now);
+    }
+
+    /**
+     * @param signedHeaders headers (lower-case names) the upload must send with exactly these values
+     */
+    public URI presign(String method, String key, Map<String, String> operationParams,
+                       Map<String, String> signedHeaders, Duration expiry, Instant now) {
+        TreeMap<String, String> headers = new TreeMap<>(signedHeaders);
+        headers.put("host", host);
+        String signedHeaderNames = String.join(";", headers.keySet());
+
+        AwsCredentials credentials = awsCredentialsProvider.resolveCredentials();
+        String dateTime = DATE_TIME.format(now);
+        String date = dateTime.substring(0, 8);
+        String scope = date + "/" + region + "/" + SERVICE + "/aws4_request";
+
+        TreeMap<String, String> query = new TreeMap<>();
+        query.put("X-Amz-Algorithm", ALGORITHM);
+        query.put("X-Amz-Credential", credentials.accessKeyId() + "/" + scope);
+        query.put("X-Amz-Date", dateTime);
+        query.put("X-Amz-Expires", String.valueOf(expiry.toSeconds()));
+        query.put("X-Amz-SignedHeaders", signedHeaderNames);
+        if (credentials instanceof AwsSessionCredentials session) {
+            query.put("X-Amz-Security-Token", session.sessionToken());
+        }
+        operationParams.forEach((name, value) -> query.put(name, value));
+
+        String path = pathPrefix + uriEncode(key, false);
+        StringBuilder canonicalQuery = new StringBuilder(512);
+        for (Map.Entry<String, String> param : query.entrySet()) {
+            if (!canonicalQuery.isEmpty()) {
+                canonicalQuery.append('&');
+            }
+            canonicalQuery.append(uriEncode(param.getKey(), true)).append('=').append(uriEncode(param.getValue(), true));
+        }
+
+        StringBuilder canonicalHeaders = new StringBuilder(128);
+        headers.forEach((name, value) -> canonicalHeaders.append(name).append(':').append(value.trim()).append('\n'));
+
+        String canonicalRequest = method + '\n'
+                + path + '\n'
+                + canonicalQuery + '\n'
+                + canonicalHeaders + '\n'
+                + signedHeaderNames + '\n'
+                + UNSIGNED_PAYLOAD;
+        String stringToSign = ALGORITHM + '\n'
+                + dateTime + '\n'
+                + scope + '\n'
+                + hex(sha256().digest(canonicalRequest.getBytes(StandardCharsets.UTF_8)));
+
+        Mac signingKey = signingKeys.get(new SigningKeyId(credentials.accessKeyId(), date, region, SERVICE),
+                id -> newHmac(deriveSigningKey(credentials.secretAccessKey(), id)));
+        String signature = hex(copy(signingKey).doFinal(stringToSign.getBytes(StandardCharsets.UTF_8)));
+
+        return URI.create(scheme + "://" + host + path + "?" + canonicalQuery + "&X-Amz-Signature=" + signature);
+    }
+
+    private static byte[] deriveSigningKey(String secretAccessKey, SigningKeyId id) {
+        byte[] dateKey = hmac(("AWS4" + secretAccessKey).getBytes(StandardCharsets.UTF_8), id.date());
+        byte[] regionKey = hmac(dateKey, id.region());
+        byte[] serviceKey = hmac(regionKey, id.service());
+        return hmac(serviceKey, "aws4_request");
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        return newHmac(key).doFinal(data.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Mac newHmac(byte[] key) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Mac copy(Mac prototype) {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("HmacSHA256 provider does not support clone()", e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return (MessageDigest) SHA256_PROTOTYPE.clone();
+        } catch (CloneNotSupportedException e) {
+            return newSha256();
+        }
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * RFC 3986 encoding as SigV4 requires: unreserved characters stay, everything else is %XX.
+     */
+    static String uriEncode(String value, boolean encodeSlash) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        StringBuilder encoded = new StringBuilder(bytes.length + 16);
+        for (byte b : bytes) {
+            int c = b & 0xff;
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == '~' || (c == '/' && !encodeSlash)) {
+                encoded.append((char) c);
+            } else {
+                encoded.append('%').append(UPPER_HEX[c >> 4]).append(UPPER_HEX[c & 0xf]);
+            }
+        }
+        return encoded.toString();
+    }
+
+    private static String hex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xf];
+        }
+        return new String(chars);
+    }
+
+    private record SigningKeyId(String accessKeyId, String date, String region, String service) {
+    }
+}
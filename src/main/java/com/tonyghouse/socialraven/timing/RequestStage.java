@@ -0,0 +1,28 @@
+package com.tonyghouse.socialraven.timing;
+
+/**
+ * Pipeline stages timed per request. The metric name is the Server-Timing entry name.
+ */
+public enum RequestStage {
+    AUTH("auth", "Clerk session verification"),
+    WORKSPACE("ws", "Workspace role resolution"),
+    ROLE("role", "@RequiresRole check"),
+    HANDLER("handler", "Controller execution"),
+    SERIALIZATION("ser", "Response body serialization");
+
+    private final String metricName;
+    private final String description;
+
+    RequestStage(String metricName, String description) {
+        this.metricName = metricName;
+        this.description = description;
+    }
+
+    public String getMetricName() {
+        return metricName;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,60 @@
+package com.tonyghouse.socialraven.timing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One pre-registered timer per RequestStage (http.server.stage{stage=...}) plus the end-to-end
+ * http.server.pipeline timer. Micrometer's percentile histograms are HdrHistogram-based and
+ * record without locking, so recording on every request is cheap.
+ */
+@Component
+public class RequestStageMetrics {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<RequestStage, Timer> stageTimers = new EnumMap<>(RequestStage.class);
+    private Timer pipelineTimer;
+
+    @PostConstruct
+    public void init() {
+        for (RequestStage stage : RequestStage.values()) {
+            stageTimers.put(stage, Timer.builder("http.server.stage")
+                    .description(stage.getDescription())
+                    .tag("stage", stage.getMetricName())
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+        pipelineTimer = Timer.builder("http.server.pipeline")
+                .description("Request time from the first filter to the end of the response")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    void record(RequestTimings timings, long totalNanos) {
+        for (Map.Entry<RequestStage, Timer> entry : stageTimers.entrySet()) {
+            if (timings.isRecorded(entry.getKey())) {
+                entry.getValue().record(timings.getNanos(entry.getKey()), TimeUnit.NANOSECONDS);
+            }
+        }
+        pipelineTimer.record(totalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public Map<RequestStage, Timer> getStageTimers() {
+        return stageTimers;
+    }
+
+    public Timer getPipelineTimer() {
+        return pipelineTimer;
+    }
+}
@@ -0,0 +1,112 @@
+package com.tonyghouse.socialraven.timing;
+
+import jakarta.servlet.ServletRequest;
+
+/**
+ * Per-request stage durations, carried as a request attribute by ServerTimingFilter.
+ * Confined to the request thread; all record methods are no-ops when the filter did not run.
+ */
+public final class RequestTimings {
+
+    static final String ATTRIBUTE = RequestTimings.class.getName();
+
+    private static final RequestStage[] STAGES = RequestStage.values();
+
+    private final long startNanos;
+    private final long[] stageNanos = new long[STAGES.length];
+    private final boolean[] recorded = new boolean[STAGES.length];
+
+    private long handlerStartNanos;
+    private long handlerEndNanos;
+
+    RequestTimings(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    public static RequestTimings of(ServletRequest request) {
+        return (RequestTimings) request.getAttribute(ATTRIBUTE);
+    }
+
+    /**
+     * Adds the time elapsed since startNanos (a System.nanoTime() reading) to the stage.
+     */
+    public static void record(ServletRequest request, RequestStage stage, long startNanos) {
+        RequestTimings timings = of(request);
+        if (timings != null) {
+            timings.add(stage, System.nanoTime() - startNanos);
+        }
+    }
+
+    public static void markHandlerStart(ServletRequest request) {
+        RequestTimings timings = of(request);
+        if (timings != null) {
+            timings.handlerStartNanos = System.nanoTime();
+        }
+    }
+
+    void add(RequestStage stage, long nanos) {
+        stageNanos[stage.ordinal()] += nanos;
+        recorded[stage.ordinal()] = true;
+    }
+
+    /**
+     * Called when the response body is first opened: the handler is done and serialization starts.
+     */
+    void markHandlerEnd(long nowNanos) {
+        if (handlerStartNanos != 0 && handlerEndNanos == 0) {
+            handlerEndNanos = nowNanos;
+            add(RequestStage.HANDLER, nowNanos - handlerStartNanos);
+        }
+    }
+
+    /**
+     * Closes the open handler/serialization intervals at the end of the request.
+     */
+    void finish(long nowNanos) {
+        if (handlerEndNanos == 0) {
+            markHandlerEnd(nowNanos);
+        } else {
+            add(RequestStage.SERIALIZATION, nowNanos - handlerEndNanos);
+        }
+    }
+
+    boolean isRecorded(RequestStage stage) {
+        return recorded[stage.ordinal()];
+    }
+
+    long getNanos(RequestStage stage) {
+        return stageNanos[stage.ordinal()];
+    }
+
+    /**
+     * Server-Timing header value for the stages completed so far, e.g.
+     * "auth;dur=0.412, ws;dur=0.031, handler;dur=12.8, app;dur=13.5".
+     */
+    String toServerTimingHeader(long nowNanos) {
+        StringBuilder header = new StringBuilder(96);
+        for (RequestStage stage : STAGES) {
+            if (recorded[stage.ordinal()]) {
+                appendEntry(header, stage.getMetricName(), stageNanos[stage.ordinal()]);
+            }
+        }
+        appendEntry(header, "app", nowNanos - startNanos);
+        return header.toString();
+    }
+
+    private static void appendEntry(StringBuilder header, String name, long nanos) {
+        if (!header.isEmpty()) {
+            header.append(", ");
+        }
+        // Microsecond precision, rendered in milliseconds without going through String.format
+        long micros = nanos / 1_000;
+        header.append(name).append(";dur=").append(micros / 1_000).append('.');
+        long fraction = micros % 1_000;
+        if (fraction < 100) {
+            header.append('0');
+        }
+        if (fraction < 10) {
+            header.append('0');
+        }
+        header.append(fraction);
+    }
+}
@@ -0,0 +1,113 @@
+package com.tonyghouse.socialraven.timing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Outermost filter: attaches RequestTimings to the request, adds the Server-Timing header just
+ * before the response body is opened (headers cannot change after that), and records every stage
+ * into RequestStageMetrics when the request completes.
+ *
+ * The serialization stage is only known after the body is written, so it is exported through the
+ * metrics but not through the header.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    private static final String SERVER_TIMING = "Server-Timing";
+
+    @Autowired
+    private RequestStageMetrics requestStageMetrics;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        long startNanos = System.nanoTime();
+        RequestTimings timings = new RequestTimings(startNanos);
+        request.setAttribute(RequestTimings.ATTRIBUTE, timings);
+        TimingResponse timingResponse = new TimingResponse(response, timings);
+
+        try {
+            filterChain.doFilter(request, timingResponse);
+        } finally {
+            long endNanos = System.nanoTime();
+            timings.finish(endNanos);
+            timingResponse.emitHeader(endNanos);
+            requestStageMetrics.record(timings, endNanos - startNanos);
+        }
+    }
+
+    private static final class TimingResponse extends HttpServletResponseWrapper {
+
+        private final RequestTimings timings;
+        private boolean headerEmitted;
+
+        private TimingResponse(HttpServletResponse response, RequestTimings timings) {
+            super(response);
+            this.timings = timings;
+        }
+
+        void emitHeader(long nowNanos) {
+            if (headerEmitted) {
+                return;
+            }
+            headerEmitted = true;
+            timings.markHandlerEnd(nowNanos);
+            if (!isCommitted()) {
+                setHeader(SERVER_TIMING, timings.toServerTimingHeader(nowNanos));
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            emitHeader(System.nanoTime());
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            emitHeader(System.nanoTime());
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            emitHeader(System.nanoTime());
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            emitHeader(System.nanoTime());
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            emitHeader(System.nanoTime());
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            emitHeader(System.nanoTime());
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.tonyghouse.socialraven.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.Base64;
+
+/**
+ * Unverified reads of JWT header/payload fields.
+ * Only use the results for routing decisions (key lookup, cache expiry) — never for authorization.
+ */
+public class JwtUtil {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private JwtUtil() {
+    }
+
+    public static String readHeaderField(String token, String field) {
+        JsonNode node = readPart(token, 0);
+        JsonNode value = node == null ? null : node.get(field);
+        return value == null || !value.isTextual() ? null : value.asText();
+    }
+
+    public static Long readLongClaim(String token, String claim) {
+        JsonNode node = readPart(token, 1);
+        JsonNode value = node == null ? null : node.get(claim);
+        return value == null || !value.canConvertToLong() ? null : value.asLong();
+    }
+
+    private static JsonNode readPart(String token, int index) {
+        if (token == null) {
+            return null;
+        }
+        String[] parts = token.split("\\.");
+        if (parts.length != 3) {
+            return null;
+        }
+        try {
+            return MAPPER.readTree(Base64.getUrlDecoder().decode(parts[index]));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -3,31 +3,84 @@ package com.tonyghouse.socialraven.util;
 import com.tonyghouse.socialraven.constant.WorkspaceRole;
 
 /**
- * ThreadLocal holder for the current request's resolved workspace ID and role.
- * Populated by WorkspaceAccessFilter and cleared after the request completes.
+ * Holder for the current request's resolved workspace ID and role.
+ *
+ * Both values live in one immutable Workspace record behind a single ThreadLocal, so binding is
+ * one write and a snapshot (for handing the context to another thread) is a plain reference.
+ * Prefer bind() in a try-with-resources over set()/clear(): closing the scope restores whatever
+ * was bound before, so the context can neither leak to the next request on a pooled thread nor
+ * clobber an outer binding.
  */
 public class WorkspaceContext {
 
     private WorkspaceContext() {}
 
-    private static final ThreadLocal<String> workspaceIdHolder = new ThreadLocal<>();
-    private static final ThreadLocal<WorkspaceRole> roleHolder = new ThreadLocal<>();
+    public record Workspace(String workspaceId, WorkspaceRole role) {}
+
+    /**
+     * Restores the previous binding when closed.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final Workspace previous;
+        private boolean closed;
+
+        private Scope(Workspace previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            restore(previous);
+        }
+    }
+
+    private static final ThreadLocal<Workspace> holder = new ThreadLocal<>();
+
+    public static Scope bind(String workspaceId, WorkspaceRole role) {
+        return bind(new Workspace(workspaceId, role));
+    }
+
+    public static Scope bind(Workspace workspace) {
+        Workspace previous = holder.get();
+        restore(workspace);
+        return new Scope(previous);
+    }
+
+    /**
+     * @return the current binding, or null outside a workspace-scoped request
+     */
+    public static Workspace current() {
+        return holder.get();
+    }
 
     public static void set(String workspaceId, WorkspaceRole role) {
-        workspaceIdHolder.set(workspaceId);
-        roleHolder.set(role);
+        holder.set(new Workspace(workspaceId, role));
     }
 
     public static String getWorkspaceId() {
-        return workspaceIdHolder.get();
+        Workspace workspace = holder.get();
+        return workspace == null ? null : workspace.workspaceId();
     }
 
     public static WorkspaceRole getRole() {
-        return roleHolder.get();
+        Workspace workspace = holder.get();
+        return workspace == null ? null : workspace.role();
     }
 
     public static void clear() {
-        workspaceIdHolder.remove();
-        roleHolder.remove();
+        holder.remove();
+    }
+
+    private static void restore(Workspace workspace) {
+        if (workspace == null) {
+            holder.remove();
+        } else {
+            holder.set(workspace);
+        }
     }
 }
@@ -0,0 +1,47 @@
+package com.tonyghouse.socialraven.util;
+
+import com.tonyghouse.socialraven.constant.WorkspaceRole;
+import com.tonyghouse.socialraven.exception.SocialRavenException;
+import com.tonyghouse.socialraven.exception.StacklessSocialRavenException;
+import org.springframework.http.HttpStatus;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Precomputed role comparisons for @RequiresRole enforcement.
+ *
+ * WorkspaceRole.isAtLeast is evaluated once per (caller, required) pair at class load and stored
+ * in an ordinal-indexed table, and the 403 for each required role is preallocated (stackless).
+ */
+public class WorkspaceRoleChecks {
+
+    private static final WorkspaceRole[] ROLES = WorkspaceRole.values();
+    private static final boolean[][] ALLOWED = new boolean[ROLES.length][ROLES.length];
+    private static final Map<WorkspaceRole, SocialRavenException> FORBIDDEN = new EnumMap<>(WorkspaceRole.class);
+
+    static {
+        for (WorkspaceRole caller : ROLES) {
+            for (WorkspaceRole required : ROLES) {
+                ALLOWED[caller.ordinal()][required.ordinal()] = caller.isAtLeast(required);
+            }
+        }
+        for (WorkspaceRole required : ROLES) {
+            FORBIDDEN.put(required, new StacklessSocialRavenException(
+                    "Insufficient role — requires " + required + " or higher",
+                    HttpStatus.FORBIDDEN
+            ));
+        }
+    }
+
+    private WorkspaceRoleChecks() {
+    }
+
+    public static boolean isAllowed(WorkspaceRole callerRole, WorkspaceRole requiredRole) {
+        return callerRole != null && ALLOWED[callerRole.ordinal()][requiredRole.ordinal()];
+    }
+
+    public static SocialRavenException forbidden(WorkspaceRole requiredRole) {
+        return FORBIDDEN.get(requiredRole);
+    }
+}
@@ -0,0 +1,26 @@
+-- Jobs for the lease-based scheduler (com.tonyghouse.socialraven.scheduler.JobScheduler).
+-- A node claims due rows with FOR UPDATE SKIP LOCKED, sets status = 'RUNNING' and a lease; rows whose
+-- lease expired (node died) are claimed again by another node.
+CREATE TABLE IF NOT EXISTS socialraven.scheduled_job (
+    id           BIGSERIAL PRIMARY KEY,
+    job_type     VARCHAR(100) NOT NULL,
+    job_key      VARCHAR(200) NOT NULL,
+    payload      TEXT,
+    due_at       TIMESTAMPTZ  NOT NULL,
+    status       VARCHAR(20)  NOT NULL DEFAULT 'PENDING',
+    attempts     INT          NOT NULL DEFAULT 0,
+    lease_owner  VARCHAR(100),
+    lease_until  TIMESTAMPTZ,
+    last_error   TEXT,
+    created_at   TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    updated_at   TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    CONSTRAINT uq_scheduled_job_type_key UNIQUE (job_type, job_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_scheduled_job_pending_due
+    ON socialraven.scheduled_job (due_at)
+    WHERE status = 'PENDING';
+
+CREATE INDEX IF NOT EXISTS idx_scheduled_job_running_lease
+    ON socialraven.scheduled_job (lease_until)
+    WHERE status = 'RUNNING';
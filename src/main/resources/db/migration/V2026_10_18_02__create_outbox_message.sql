@@ -0,0 +1,26 @@
+-- Transactional outbox (com.tonyghouse.socialraven.outbox). Rows are written in the business
+-- transaction and relayed to RabbitMQ by OutboxRelay; acknowledged rows are deleted, or marked
+-- published and compacted later when retention is enabled.
+CREATE TABLE IF NOT EXISTS socialraven.outbox_message (
+    id               BIGSERIAL PRIMARY KEY,
+    message_id       VARCHAR(64)  NOT NULL,
+    exchange         VARCHAR(255) NOT NULL,
+    routing_key      VARCHAR(255) NOT NULL,
+    message_type     VARCHAR(100) NOT NULL,
+    payload          TEXT         NOT NULL,
+    created_at       TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    attempts         INT          NOT NULL DEFAULT 0,
+    next_attempt_at  TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    locked_by        VARCHAR(100),
+    locked_until     TIMESTAMPTZ,
+    last_error       TEXT,
+    published_at     TIMESTAMPTZ
+);
+
+CREATE INDEX IF NOT EXISTS idx_outbox_message_unpublished
+    ON socialraven.outbox_message (next_attempt_at, id)
+    WHERE published_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_outbox_message_published
+    ON socialraven.outbox_message (published_at)
+    WHERE published_at IS NOT NULL;
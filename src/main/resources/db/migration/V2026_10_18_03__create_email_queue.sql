@@ -0,0 +1,24 @@
+-- Durable queue of outgoing emails (com.tonyghouse.socialraven.email). Request threads only insert;
+-- EmailDispatcher claims due rows with FOR UPDATE SKIP LOCKED and delivers them via Resend or Zoho.
+CREATE TABLE IF NOT EXISTS socialraven.email_queue (
+    id                   BIGSERIAL PRIMARY KEY,
+    to_address           VARCHAR(320) NOT NULL,
+    subject              VARCHAR(998) NOT NULL,
+    html_body            TEXT,
+    text_body            TEXT,
+    category             VARCHAR(50)  NOT NULL,
+    status               VARCHAR(20)  NOT NULL DEFAULT 'PENDING',
+    attempts             INT          NOT NULL DEFAULT 0,
+    next_attempt_at      TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    locked_by            VARCHAR(100),
+    locked_until         TIMESTAMPTZ,
+    provider             VARCHAR(20),
+    provider_message_id  VARCHAR(100),
+    last_error           TEXT,
+    created_at           TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    sent_at              TIMESTAMPTZ
+);
+
+CREATE INDEX IF NOT EXISTS idx_email_queue_pending
+    ON socialraven.email_queue (next_attempt_at, id)
+    WHERE status = 'PENDING';
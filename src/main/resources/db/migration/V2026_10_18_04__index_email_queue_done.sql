@@ -0,0 +1,4 @@
+-- Lets EmailQueueCompactionJob find delivered and given-up emails past retention without a scan.
+CREATE INDEX IF NOT EXISTS idx_email_queue_done
+    ON socialraven.email_queue (created_at)
+    WHERE status IN ('SENT', 'FAILED');